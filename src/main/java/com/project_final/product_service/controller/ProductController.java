@@ -1,19 +1,58 @@
 package com.project_final.product_service.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.project_final.product_service.exceptions.ProductNotFoundException;
+import com.project_final.product_service.model.BulkDeleteRequest;
+import com.project_final.product_service.model.BulkDeleteResult;
+import com.project_final.product_service.model.BulkPriceUpdateRequest;
+import com.project_final.product_service.model.BulkPriceUpdateResult;
+import com.project_final.product_service.model.BulkStockAdjustmentRequest;
+import com.project_final.product_service.model.BulkStockAdjustmentResult;
+import com.project_final.product_service.model.ImportResult;
+import com.project_final.product_service.model.InventoryDashboard;
+import com.project_final.product_service.model.PriceDistribution;
+import com.project_final.product_service.model.PricePoint;
+import com.project_final.product_service.model.PricesAt;
+import com.project_final.product_service.model.SalesVelocity;
 import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductBatchRequest;
+import com.project_final.product_service.model.ProductBatchResult;
+import com.project_final.product_service.model.ProductChangeFeed;
+import com.project_final.product_service.model.ProductFields;
+import com.project_final.product_service.model.ProductPatchResult;
+import com.project_final.product_service.model.ProductQuery;
+import com.project_final.product_service.model.ProductQueryResult;
+import com.project_final.product_service.model.StockOperationResult;
+import com.project_final.product_service.service.BulkDeleteService;
+import com.project_final.product_service.service.BulkPriceUpdateService;
+import com.project_final.product_service.service.BulkStockAdjustmentService;
+import com.project_final.product_service.service.InventoryDashboardService;
+import com.project_final.product_service.service.PriceHistoryService;
+import com.project_final.product_service.service.PriceStatisticsService;
+import com.project_final.product_service.service.ProductBatchService;
+import com.project_final.product_service.service.ProductChangeFeedService;
+import com.project_final.product_service.service.ProductImportService;
+import com.project_final.product_service.service.SalesVelocityService;
+import com.project_final.product_service.service.ProductQueryService;
 import com.project_final.product_service.service.ProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
@@ -24,17 +63,63 @@ public class ProductController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
+    // Prefer: return=minimal (RFC 7240): las escrituras correctas responden sin cuerpo
+    static final String PREFER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    static final String RETURN_MINIMAL = "return=minimal";
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductQueryService productQueryService;
+
+    @Autowired
+    private InventoryDashboardService inventoryDashboardService;
+
+    @Autowired
+    private PriceStatisticsService priceStatisticsService;
+
+    @Autowired
+    private SalesVelocityService salesVelocityService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private BulkPriceUpdateService bulkPriceUpdateService;
+
+    @Autowired
+    private BulkStockAdjustmentService bulkStockAdjustmentService;
+
+    @Autowired
+    private BulkDeleteService bulkDeleteService;
+
+    @Autowired
+    private ProductBatchService productBatchService;
+
+    @Autowired
+    private ProductChangeFeedService productChangeFeedService;
+
     // Crear producto
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createProduct(@Valid @RequestBody Product product) {
+    public ResponseEntity<Map<String, Object>> createProduct(@Valid @RequestBody Product product,
+                                                             @RequestHeader(value = PREFER, required = false) String prefer) {
         logger.info("Petición para crear producto: {}", product.getName());
 
         try {
             Product createdProduct = productService.createProduct(product);
 
+            if (prefersMinimal(prefer)) {
+                // 201 sin cuerpo: el id va en Location
+                return ResponseEntity.created(URI.create("/api/products/" + createdProduct.getId()))
+                        .header(PREFERENCE_APPLIED, RETURN_MINIMAL)
+                        .build();
+            }
+
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Producto creado correctamente");
@@ -61,29 +146,85 @@ public class ProductController {
         }
     }
 
+    // Importación masiva en streaming: NDJSON (application/x-ndjson) o CSV con cabecera (text/csv)
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<ImportResult> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                       InputStream body) {
+        ProductImportService.Format format = contentType.toLowerCase(Locale.ROOT).startsWith("text/csv")
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+        logger.info("Petición de importación masiva de productos ({})", format);
+
+        ImportResult result = productImportService.importProducts(body, format);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Cambio masivo de precios: lista de pares (id, precio) o una regla porcentual/absoluta
+    @PostMapping("/bulk/prices")
+    public ResponseEntity<BulkPriceUpdateResult> updatePrices(@RequestBody BulkPriceUpdateRequest request) {
+        logger.info("Petición de cambio masivo de precios");
+        BulkPriceUpdateResult result = bulkPriceUpdateService.updatePrices(request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Ajuste masivo de stock (albaranes de entrada, inventarios): variaciones con signo en una transacción
+    @PostMapping("/bulk/stock")
+    public ResponseEntity<BulkStockAdjustmentResult> adjustStock(@RequestBody BulkStockAdjustmentRequest request) {
+        logger.info("Petición de ajuste masivo de stock");
+        BulkStockAdjustmentResult result = bulkStockAdjustmentService.adjustStock(request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Borrado masivo (lógico): los productos desaparecen de las consultas y se purgan más tarde
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkDeleteResult> deleteProducts(@RequestBody BulkDeleteRequest request) {
+        logger.info("Petición de borrado masivo de productos");
+        BulkDeleteResult result = bulkDeleteService.deleteProducts(request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // Lote de operaciones mixtas (alta, modificación, borrado y stock) con un resultado por operación
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResult> executeBatch(@RequestBody ProductBatchRequest request) {
+        logger.info("Petición de lote de operaciones");
+        ProductBatchResult result = productBatchService.execute(request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     // Obtener todos los productos
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
+    public ResponseEntity<List<?>> getAllProducts(@RequestParam(required = false) String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        List<?> products = selected == null
+                ? productService.getAllProducts()
+                : productService.getAllProducts(selected);
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
     // Obtener producto por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productService.getProductById(id);
-        return product.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+    public ResponseEntity<?> getProductById(@PathVariable Long id, @RequestParam(required = false) String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        Optional<?> product = selected == null
+                ? productService.getProductById(id)
+                : productService.getProductById(id, selected);
+        return product.map(value -> new ResponseEntity<Object>(value, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     // Actualizar producto
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> updateProduct(@PathVariable Long id, @Valid @RequestBody Product productDetails) {
+    public ResponseEntity<Map<String, Object>> updateProduct(@PathVariable Long id, @Valid @RequestBody Product productDetails,
+                                                             @RequestHeader(value = PREFER, required = false) String prefer) {
         logger.info("Petición para actualizar producto: {}", id);
 
         try {
             Product updatedProduct = productService.updateProduct(id, productDetails);
 
+            if (prefersMinimal(prefer)) {
+                return minimal();
+            }
+
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Producto actualizado correctamente");
@@ -111,45 +252,51 @@ public class ProductController {
         }
     }
 
-    // Eliminar producto
+    // Actualización parcial (JSON Merge Patch): solo se escriben los campos que cambian
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Map<String, Object>> patchProduct(@PathVariable Long id, @RequestBody JsonNode patch) {
+        logger.info("Petición para actualizar parcialmente el producto: {}", id);
+
+        ProductPatchResult result = productService.patchProduct(id, patch);
+        Product product = result.getProduct();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", result.isUpdated() ? "Producto actualizado correctamente" : "Sin cambios");
+        response.put("updated", result.isUpdated());
+        response.put("changedFields", result.getChangedFields());
+        response.put("product", product);
+        response.put("productId", product.getId());
+        response.put("timestamp", LocalDateTime.now());
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Eliminar producto (una sola sentencia: si no existe, el servicio lanza ProductNotFoundException)
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, Object>> deleteProduct(@PathVariable Long id) {
         logger.info("Petición para eliminar producto: {}", id);
 
         try {
-            // Obtener información del producto antes de eliminarlo
-            Optional<Product> productToDelete = productService.getProductById(id);
-
-            if (productToDelete.isEmpty()) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("message", "Producto no encontrado");
-                errorResponse.put("productId", id);
-                errorResponse.put("timestamp", LocalDateTime.now());
-                return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
-            }
-
-            Product product = productToDelete.get();
-
-            // Advertencia si tiene stock
-            if (product.getStock() > 0) {
-                logger.warn("Eliminando producto {} con stock disponible: {}", id, product.getStock());
-            }
-
             productService.deleteProduct(id);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Producto eliminado correctamente");
             response.put("productId", id);
-            response.put("deletedProduct", product.getName());
-            response.put("price", product.getPrice());
-            response.put("stockAtDeletion", product.getStock());
             response.put("timestamp", LocalDateTime.now());
 
             logger.info("Producto {} eliminado exitosamente", id);
             return new ResponseEntity<>(response, HttpStatus.OK);
 
+        } catch (ProductNotFoundException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Producto no encontrado");
+            errorResponse.put("productId", id);
+            errorResponse.put("timestamp", LocalDateTime.now());
+            return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+
         } catch (RuntimeException e) {
             logger.error("Error eliminando producto {}: {}", id, e.getMessage());
 
@@ -166,46 +313,168 @@ public class ProductController {
 
     // Buscar productos por nombre
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
-        List<Product> products = productService.searchProductsByName(name);
+    public ResponseEntity<List<?>> searchProducts(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(required = false) String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        List<?> products;
+        if (selected != null) {
+            products = fuzzy
+                    ? productService.fuzzySearchProductsByName(name, selected)
+                    : productService.searchProductsByName(name, selected);
+        } else {
+            products = fuzzy
+                    ? productService.fuzzySearchProductsByName(name)
+                    : productService.searchProductsByName(name);
+        }
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
+    // Consulta combinada: términos del nombre, rango de precio y de stock, disponibilidad
+    @GetMapping("/query")
+    public ResponseEntity<Map<String, Object>> queryProducts(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer minStock,
+            @RequestParam(required = false) Integer maxStock,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean countOnly,
+            @RequestParam(required = false) String fields) {
+        ProductQuery query = new ProductQuery();
+        query.setName(name);
+        query.setMinPrice(minPrice);
+        query.setMaxPrice(maxPrice);
+        query.setMinStock(minStock);
+        query.setMaxStock(maxStock);
+        query.setAvailable(available);
+        query.setPage(page);
+        query.setSize(size);
+        query.setCountOnly(countOnly);
+        query.setFields(ProductFields.parse(fields));
+
+        ProductQueryResult result = productQueryService.query(query);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", result.getCount());
+        if (!countOnly) {
+            response.put("products", result.getProducts());
+            response.put("page", page);
+            response.put("size", size);
+        }
+        response.put("source", result.getSource());
+        response.put("plan", result.getPlan());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     // Obtener productos disponibles
     @GetMapping("/available")
-    public ResponseEntity<List<Product>> getAvailableProducts() {
-        List<Product> products = productService.getAvailableProducts();
+    public ResponseEntity<List<?>> getAvailableProducts(@RequestParam(required = false) String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        List<?> products = selected == null
+                ? productService.getAvailableProducts()
+                : productService.getAvailableProducts(selected);
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
     // Buscar productos por rango de precio
     @GetMapping("/price-range")
-    public ResponseEntity<List<Product>> getProductsByPriceRange(
+    public ResponseEntity<List<?>> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
-        List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean available,
+            @RequestParam(required = false) String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        List<?> products;
+        if (selected != null) {
+            products = productService.getProductsByPriceRange(minPrice, maxPrice, available, selected);
+        } else {
+            products = available
+                    ? productService.getProductsByPriceRange(minPrice, maxPrice, true)
+                    : productService.getProductsByPriceRange(minPrice, maxPrice);
+        }
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    // Top-N: más baratos, con más stock y actualizados más recientemente
+    @GetMapping("/top/cheapest")
+    public ResponseEntity<List<?>> getCheapestProducts(
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean available,
+            @RequestParam(required = false) String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        List<?> products = selected == null
+                ? productService.getCheapestProducts(minPrice, maxPrice, available, limit)
+                : productService.getCheapestProducts(minPrice, maxPrice, available, limit, selected);
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    @GetMapping("/top/most-stocked")
+    public ResponseEntity<List<?>> getMostStockedProducts(
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean available,
+            @RequestParam(required = false) String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        List<?> products = selected == null
+                ? productService.getMostStockedProducts(minPrice, maxPrice, available, limit)
+                : productService.getMostStockedProducts(minPrice, maxPrice, available, limit, selected);
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    @GetMapping("/top/recently-updated")
+    public ResponseEntity<List<?>> getRecentlyUpdatedProducts(
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean available,
+            @RequestParam(required = false) String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        List<?> products = selected == null
+                ? productService.getRecentlyUpdatedProducts(minPrice, maxPrice, available, limit)
+                : productService.getRecentlyUpdatedProducts(minPrice, maxPrice, available, limit, selected);
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
     // Obtener productos con stock bajo
     @GetMapping("/low-stock")
-    public ResponseEntity<List<Product>> getLowStockProducts(
-            @RequestParam(defaultValue = "10") Integer threshold) {
-        List<Product> products = productService.getLowStockProducts(threshold);
+    public ResponseEntity<List<?>> getLowStockProducts(
+            @RequestParam(defaultValue = "10") Integer threshold,
+            @RequestParam(required = false) String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        List<?> products = selected == null
+                ? productService.getLowStockProducts(threshold)
+                : productService.getLowStockProducts(threshold, selected);
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
     // Reducir stock (endpoint interno para Order Service)
     @PutMapping("/{id}/reduce-stock")
-    public ResponseEntity<Map<String, Object>> reduceStock(@PathVariable Long id, @RequestParam Integer quantity) {
+    public ResponseEntity<Map<String, Object>> reduceStock(@PathVariable Long id, @RequestParam Integer quantity,
+                                                           @RequestHeader(value = PREFER, required = false) String prefer) {
         logger.info("Petición para reducir stock del producto {}: cantidad {}", id, quantity);
 
         try {
-            boolean success = productService.reduceStock(id, quantity);
+            // Stock insuficiente o producto inexistente llegan como resultado, no como excepción
+            StockOperationResult result = productService.tryReduceStock(id, quantity);
+            if (!result.isSuccess()) {
+                return stockError(id, "Error al reducir stock", result.message());
+            }
+
+            // El Order Service llama miles de veces por segundo: sin mapa, sin fecha y sin JSON
+            if (prefersMinimal(prefer)) {
+                return minimal();
+            }
 
             Map<String, Object> response = new HashMap<>();
-            response.put("success", success);
-            response.put("message", success ? "Stock reducido correctamente" : "No se pudo reducir el stock");
+            response.put("success", true);
+            response.put("message", "Stock reducido correctamente");
             response.put("productId", id);
             response.put("quantityReduced", quantity);
             response.put("timestamp", LocalDateTime.now());
@@ -214,29 +483,29 @@ public class ProductController {
 
         } catch (RuntimeException e) {
             logger.error("Error reduciendo stock del producto {}: {}", id, e.getMessage());
-
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Error al reducir stock");
-            errorResponse.put("productId", id);
-            errorResponse.put("error", e.getMessage());
-            errorResponse.put("timestamp", LocalDateTime.now());
-
-            return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+            return stockError(id, "Error al reducir stock", e.getMessage());
         }
     }
 
     // Aumentar stock (endpoint interno para cancelaciones)
     @PutMapping("/{id}/increase-stock")
-    public ResponseEntity<Map<String, Object>> increaseStock(@PathVariable Long id, @RequestParam Integer quantity) {
+    public ResponseEntity<Map<String, Object>> increaseStock(@PathVariable Long id, @RequestParam Integer quantity,
+                                                             @RequestHeader(value = PREFER, required = false) String prefer) {
         logger.info("Petición para aumentar stock del producto {}: cantidad {}", id, quantity);
 
         try {
-            boolean success = productService.increaseStock(id, quantity);
+            StockOperationResult result = productService.tryIncreaseStock(id, quantity);
+            if (!result.isSuccess()) {
+                return stockError(id, "Error al aumentar stock", result.message());
+            }
+
+            if (prefersMinimal(prefer)) {
+                return minimal();
+            }
 
             Map<String, Object> response = new HashMap<>();
-            response.put("success", success);
-            response.put("message", success ? "Stock aumentado correctamente" : "No se pudo aumentar el stock");
+            response.put("success", true);
+            response.put("message", "Stock aumentado correctamente");
             response.put("productId", id);
             response.put("quantityAdded", quantity);
             response.put("timestamp", LocalDateTime.now());
@@ -245,16 +514,20 @@ public class ProductController {
 
         } catch (RuntimeException e) {
             logger.error("Error aumentando stock del producto {}: {}", id, e.getMessage());
+            return stockError(id, "Error al aumentar stock", e.getMessage());
+        }
+    }
 
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Error al aumentar stock");
-            errorResponse.put("productId", id);
-            errorResponse.put("error", e.getMessage());
-            errorResponse.put("timestamp", LocalDateTime.now());
+    // Respuesta de error de reduce-stock e increase-stock (también con Prefer: return=minimal)
+    private static ResponseEntity<Map<String, Object>> stockError(Long id, String message, String error) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", message);
+        errorResponse.put("productId", id);
+        errorResponse.put("error", error);
+        errorResponse.put("timestamp", LocalDateTime.now());
 
-            return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
-        }
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
     // Verificar stock disponible
@@ -264,6 +537,51 @@ public class ProductController {
         return new ResponseEntity<>(hasStock, HttpStatus.OK);
     }
 
+    // Ritmo de ventas estimado y días de cobertura de un producto
+    @GetMapping("/{id}/velocity")
+    public ResponseEntity<SalesVelocity> getSalesVelocity(@PathVariable Long id) {
+        SalesVelocity velocity = salesVelocityService.getVelocity(id);
+        return new ResponseEntity<>(velocity, HttpStatus.OK);
+    }
+
+    // Productos que se quedarán sin stock en los próximos N días al ritmo de ventas actual
+    @GetMapping("/stockout-forecast")
+    public ResponseEntity<List<SalesVelocity>> getStockoutForecast(
+            @RequestParam(defaultValue = "7") Integer days,
+            @RequestParam(defaultValue = "50") Integer limit) {
+        List<SalesVelocity> forecast = salesVelocityService.getStockoutForecast(days, limit);
+        return new ResponseEntity<>(forecast, HttpStatus.OK);
+    }
+
+    // Historial de precios de un producto en un intervalo (fechas ISO, ambas opcionales)
+    @GetMapping("/{id}/price-history")
+    public ResponseEntity<List<PricePoint>> getPriceHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        List<PricePoint> history = priceHistoryService.getPriceHistory(id, from, to);
+        return new ResponseEntity<>(history, HttpStatus.OK);
+    }
+
+    // Precios vigentes en un instante para todo el catálogo, por páginas de ids (cursor afterId)
+    @GetMapping("/prices-at")
+    public ResponseEntity<PricesAt> getPricesAt(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "1000") Integer limit) {
+        PricesAt prices = priceHistoryService.getPricesAt(at, afterId, limit);
+        return new ResponseEntity<>(prices, HttpStatus.OK);
+    }
+
+    // Cambios del catálogo posteriores al cursor since (0 = todo el catálogo), en orden de secuencia
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangeFeed> getChanges(
+            @RequestParam(defaultValue = "0") Long since,
+            @RequestParam(defaultValue = "500") Integer limit) {
+        ProductChangeFeed feed = productChangeFeedService.getChanges(since, limit);
+        return new ResponseEntity<>(feed, HttpStatus.OK);
+    }
+
     // Obtener estadísticas
     @GetMapping("/stats/total")
     public ResponseEntity<Long> getTotalProducts() {
@@ -276,4 +594,42 @@ public class ProductController {
         Long count = productService.getAvailableProductsCount();
         return new ResponseEntity<>(count, HttpStatus.OK);
     }
+
+    // Panel de inventario: conteos, valor total e histograma de precios en una sola respuesta
+    @GetMapping("/stats/dashboard")
+    public ResponseEntity<InventoryDashboard> getInventoryDashboard() {
+        InventoryDashboard dashboard = inventoryDashboardService.getDashboard();
+        return new ResponseEntity<>(dashboard, HttpStatus.OK);
+    }
+
+    // Cuantiles de precio (p50/p90/p99 por defecto), globales y solo de productos disponibles
+    @GetMapping("/stats/prices")
+    public ResponseEntity<PriceDistribution> getPriceDistribution(
+            @RequestParam(defaultValue = "0.5,0.9,0.99") List<Double> quantiles) {
+        PriceDistribution distribution = priceStatisticsService.getPriceDistribution(quantiles);
+        return new ResponseEntity<>(distribution, HttpStatus.OK);
+    }
+
+    // Busca return=minimal entre las preferencias (separadas por comas, con parámetros tras ';'
+    // y espacios opcionales alrededor del '=')
+    static boolean prefersMinimal(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            int params = preference.indexOf(';');
+            String token = params >= 0 ? preference.substring(0, params) : preference;
+            int equals = token.indexOf('=');
+            if (equals >= 0
+                    && token.substring(0, equals).trim().equalsIgnoreCase("return")
+                    && token.substring(equals + 1).trim().equalsIgnoreCase("minimal")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<T> minimal() {
+        return ResponseEntity.noContent().header(PREFERENCE_APPLIED, RETURN_MINIMAL).build();
+    }
 }
@@ -0,0 +1,56 @@
+package com.project_final.product_service.events;
+
+import com.project_final.product_service.model.ProductSnapshot;
+
+/**
+ * Evento publicado cada vez que un producto se crea, se modifica o se elimina
+ */
+public class ProductChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final ChangeType changeType;
+    private final ProductSnapshot snapshot;
+
+    public ProductChangedEvent(ChangeType changeType, ProductSnapshot snapshot) {
+        this.changeType = changeType;
+        this.snapshot = snapshot;
+    }
+
+    public static ProductChangedEvent created(ProductSnapshot snapshot) {
+        return new ProductChangedEvent(ChangeType.CREATED, snapshot);
+    }
+
+    public static ProductChangedEvent updated(ProductSnapshot snapshot) {
+        return new ProductChangedEvent(ChangeType.UPDATED, snapshot);
+    }
+
+    public static ProductChangedEvent deleted(ProductSnapshot snapshot) {
+        return new ProductChangedEvent(ChangeType.DELETED, snapshot);
+    }
+
+    // Borrados hechos con SQL directo, sin la entidad cargada: a los índices solo les hace falta el id
+    public static ProductChangedEvent deleted(Long productId) {
+        return deleted(new ProductSnapshot(productId, null, null, null, null));
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public ProductSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Long getProductId() {
+        return snapshot.getId();
+    }
+
+    public boolean isDeletion() {
+        return changeType == ChangeType.DELETED;
+    }
+}
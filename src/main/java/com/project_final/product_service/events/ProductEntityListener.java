@@ -0,0 +1,41 @@
+package com.project_final.product_service.events;
+
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductSnapshot;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Listener JPA que traduce los cambios de la entidad Product en eventos de aplicación.
+ * Hibernate lo instancia a través del contenedor de Spring, por eso admite inyección.
+ */
+public class ProductEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void onCreated(Product product) {
+        publish(ProductChangedEvent.created(ProductSnapshot.from(product)));
+    }
+
+    @PostUpdate
+    public void onUpdated(Product product) {
+        publish(ProductChangedEvent.updated(ProductSnapshot.from(product)));
+    }
+
+    @PostRemove
+    public void onDeleted(Product product) {
+        publish(ProductChangedEvent.deleted(ProductSnapshot.from(product)));
+    }
+
+    private void publish(ProductChangedEvent event) {
+        // Fuera de un contexto de Spring (p. ej. Hibernate puro) no hay a quién notificar
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
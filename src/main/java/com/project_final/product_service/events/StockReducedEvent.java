@@ -0,0 +1,29 @@
+package com.project_final.product_service.events;
+
+/**
+ * Evento publicado por ProductService cada vez que se descuenta stock de un producto (venta)
+ */
+public class StockReducedEvent {
+
+    private final Long productId;
+    private final int quantity;
+    private final int remainingStock;
+
+    public StockReducedEvent(Long productId, int quantity, int remainingStock) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.remainingStock = remainingStock;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getRemainingStock() {
+        return remainingStock;
+    }
+}
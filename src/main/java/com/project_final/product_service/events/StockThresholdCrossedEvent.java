@@ -0,0 +1,55 @@
+package com.project_final.product_service.events;
+
+/**
+ * Evento publicado cuando el stock de un producto cruza el umbral de alerta de stock bajo
+ */
+public class StockThresholdCrossedEvent {
+
+    public enum Direction {
+        // El stock ha bajado del umbral
+        BELOW,
+        // El stock ha vuelto a alcanzar el umbral (reposición)
+        RECOVERED
+    }
+
+    private final Long productId;
+    private final String productName;
+    private final int previousStock;
+    private final int currentStock;
+    private final int threshold;
+    private final Direction direction;
+
+    public StockThresholdCrossedEvent(Long productId, String productName, int previousStock,
+                                      int currentStock, int threshold, Direction direction) {
+        this.productId = productId;
+        this.productName = productName;
+        this.previousStock = previousStock;
+        this.currentStock = currentStock;
+        this.threshold = threshold;
+        this.direction = direction;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getPreviousStock() {
+        return previousStock;
+    }
+
+    public int getCurrentStock() {
+        return currentStock;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+}
@@ -1,19 +1,24 @@
 package com.project_final.product_service.exceptions;
 
+// Fallo de negocio esperado: sin traza de pila, que es lo caro de crear la excepción
 public class InsufficientStockException extends RuntimeException {
     private final Long productId;
     private final Integer availableStock;
     private final Integer requestedQuantity;
 
     public InsufficientStockException(Long productId, Integer availableStock, Integer requestedQuantity) {
-        super("Stock insuficiente para el producto con ID " + productId +
-                ". Stock disponible: " + availableStock +
-                ", cantidad solicitada: " + requestedQuantity);
+        super(message(productId, availableStock, requestedQuantity), null, false, false);
         this.productId = productId;
         this.availableStock = availableStock;
         this.requestedQuantity = requestedQuantity;
     }
 
+    public static String message(Long productId, Integer availableStock, Integer requestedQuantity) {
+        return "Stock insuficiente para el producto con ID " + productId +
+                ". Stock disponible: " + availableStock +
+                ", cantidad solicitada: " + requestedQuantity;
+    }
+
     public Long getProductId() {
         return productId;
     }
@@ -1,18 +1,23 @@
 package com.project_final.product_service.exceptions;
 
+// Fallo de negocio esperado: sin traza de pila, que es lo caro de crear la excepción
 public class ProductNotFoundException extends RuntimeException {
     private final Long productId;
 
     public ProductNotFoundException(Long productId) {
-        super("Producto con ID " + productId + " no encontrado");
+        super(message(productId), null, false, false);
         this.productId = productId;
     }
 
     public ProductNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
         this.productId = null;
     }
 
+    public static String message(Long productId) {
+        return "Producto con ID " + productId + " no encontrado";
+    }
+
     public Long getProductId() {
         return productId;
     }
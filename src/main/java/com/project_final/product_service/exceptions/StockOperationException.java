@@ -11,11 +11,16 @@ public class StockOperationException extends RuntimeException {
     }
 
     public StockOperationException(String message, Long productId, String operation, Throwable cause) {
-        super(message, cause);
+        // Si envuelve un fallo esperado (stock insuficiente, producto inexistente) no captura la traza
+        super(message, cause, true, !isExpected(cause));
         this.productId = productId;
         this.operation = operation;
     }
 
+    private static boolean isExpected(Throwable cause) {
+        return cause instanceof InsufficientStockException || cause instanceof ProductNotFoundException;
+    }
+
     public Long getProductId() {
         return productId;
     }
@@ -0,0 +1,124 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Contadores materializados del catálogo (total y disponibles) para las estadísticas.
+ * Se actualizan con cada alta, baja o cambio de stock que cruza el cero; los bitmaps de IDs
+ * (de 64 bits, como los IDs de producto) hacen que aplicar dos veces el mismo evento no altere los contadores.
+ */
+@Component
+public class CatalogCounters implements ProductIndex, MeterBinder {
+
+    private State state = new State();
+    private volatile boolean ready;
+
+    @Override
+    public String getName() {
+        return "catalog-counters";
+    }
+
+    @Override
+    public synchronized void upsert(ProductSnapshot snapshot) {
+        state.put(snapshot.getId(), snapshot.isAvailable());
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        state.remove(productId);
+    }
+
+    @Override
+    public Builder newBuilder() {
+        State fresh = new State();
+        return new Builder() {
+            @Override
+            public void add(ProductSnapshot snapshot) {
+                fresh.put(snapshot.getId(), snapshot.isAvailable());
+            }
+
+            @Override
+            public void publish() {
+                synchronized (CatalogCounters.this) {
+                    state = fresh;
+                    ready = true;
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized long getTotal() {
+        return state.total;
+    }
+
+    public synchronized long getAvailable() {
+        return state.available;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.catalog.total", this, CatalogCounters::getTotal)
+                .description("Productos en el catálogo")
+                .register(registry);
+        Gauge.builder("product.catalog.available", this, CatalogCounters::getAvailable)
+                .description("Productos con stock")
+                .register(registry);
+    }
+
+    private static final class State {
+
+        private final Roaring64Bitmap allIds = new Roaring64Bitmap();
+        private final Roaring64Bitmap availableIds = new Roaring64Bitmap();
+        private long total;
+        private long available;
+
+        void put(long id, boolean isAvailable) {
+            if (add(allIds, id)) {
+                total++;
+            }
+            if (isAvailable) {
+                if (add(availableIds, id)) {
+                    available++;
+                }
+            } else if (remove(availableIds, id)) {
+                available--;
+            }
+        }
+
+        void remove(long id) {
+            if (remove(allIds, id)) {
+                total--;
+            }
+            if (remove(availableIds, id)) {
+                available--;
+            }
+        }
+
+        // Roaring64Bitmap no tiene checkedAdd/checkedRemove: true si el bitmap cambió
+        private static boolean add(Roaring64Bitmap ids, long id) {
+            if (ids.contains(id)) {
+                return false;
+            }
+            ids.addLong(id);
+            return true;
+        }
+
+        private static boolean remove(Roaring64Bitmap ids, long id) {
+            if (!ids.contains(id)) {
+                return false;
+            }
+            ids.removeLong(id);
+            return true;
+        }
+    }
+}
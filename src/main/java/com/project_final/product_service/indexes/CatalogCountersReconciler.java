@@ -0,0 +1,54 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compara periódicamente los contadores materializados con COUNT en la BD.
+ * Si la diferencia se mantiene en dos comprobaciones seguidas (una sola puede deberse a
+ * escrituras en curso), se fuerza una recarga de los índices desde la BD.
+ */
+@Component
+public class CatalogCountersReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCountersReconciler.class);
+
+    @Autowired
+    private CatalogCounters catalogCounters;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductIndexManager productIndexManager;
+
+    private int consecutiveDrifts;
+
+    @Scheduled(initialDelayString = "${product.stats.reconcile-interval-ms:300000}",
+            fixedDelayString = "${product.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!catalogCounters.isReady()) {
+            return;
+        }
+
+        long total = productRepository.countAllProducts();
+        long available = productRepository.countAvailableProducts();
+        if (total == catalogCounters.getTotal() && available == catalogCounters.getAvailable()) {
+            consecutiveDrifts = 0;
+            return;
+        }
+
+        consecutiveDrifts++;
+        logger.warn("Contadores del catálogo desfasados (memoria {}/{}, BD {}/{})",
+                catalogCounters.getTotal(), catalogCounters.getAvailable(), total, available);
+
+        if (consecutiveDrifts >= 2) {
+            consecutiveDrifts = 0;
+            productIndexManager.rebuild();
+        }
+    }
+}
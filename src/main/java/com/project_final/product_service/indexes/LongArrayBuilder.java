@@ -0,0 +1,35 @@
+package com.project_final.product_service.indexes;
+
+import java.util.Arrays;
+
+/**
+ * Lista creciente de long primitivos para acumular IDs sin boxing
+ */
+public class LongArrayBuilder {
+
+    private long[] values;
+    private int size;
+
+    public LongArrayBuilder() {
+        this(16);
+    }
+
+    public LongArrayBuilder(int initialCapacity) {
+        values = new long[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,134 @@
+package com.project_final.product_service.indexes;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long -> long de direccionamiento abierto (sondeo lineal) sin objetos por entrada.
+ * Las claves no pueden ser Long.MIN_VALUE, que se reserva para marcar huecos libres.
+ */
+public class LongLongHashMap {
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(long key) {
+        return keys[find(key)] != FREE;
+    }
+
+    public long get(long key, long defaultValue) {
+        int slot = find(key);
+        return keys[slot] == FREE ? defaultValue : values[slot];
+    }
+
+    public void put(long key, long value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Clave no admitida: " + key);
+        }
+        int slot = find(key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    public boolean remove(long key) {
+        int slot = find(key);
+        if (keys[slot] == FREE) {
+            return false;
+        }
+
+        // Borrado con desplazamiento hacia atrás para no romper las cadenas de sondeo
+        int hole = slot;
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == FREE) {
+                break;
+            }
+            int home = slotOf(keys[next]);
+            boolean between = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (!between) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = FREE;
+        size--;
+        return true;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        int slot = slotOf(key);
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
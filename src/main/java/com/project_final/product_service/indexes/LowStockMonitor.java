@@ -0,0 +1,192 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.events.StockThresholdCrossedEvent;
+import com.project_final.product_service.events.StockThresholdCrossedEvent.Direction;
+import com.project_final.product_service.model.ProductSnapshot;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Productos agrupados por nivel de stock (un bitmap por valor de stock), mantenidos con cada
+ * cambio. Consultar los productos por debajo de cualquier umbral solo recorre los grupos
+ * afectados, y al cruzar el umbral de alerta se publica un StockThresholdCrossedEvent.
+ * Los bitmaps son de 64 bits, como los IDs de producto.
+ */
+@Component
+public class LowStockMonitor implements ProductIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockMonitor.class);
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.low-stock.alert-threshold:10}")
+    private int alertThreshold = 10;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private volatile boolean ready;
+
+    @Override
+    public String getName() {
+        return "low-stock";
+    }
+
+    @Override
+    public void upsert(ProductSnapshot snapshot) {
+        int stock = snapshot.getStock() != null ? snapshot.getStock() : 0;
+        long previous;
+
+        lock.writeLock().lock();
+        try {
+            previous = state.put(snapshot.getId(), stock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Solo se avisa de transiciones entre dos estados conocidos (no en altas ni reconstrucciones)
+        if (previous >= 0) {
+            checkThreshold(snapshot, (int) previous, stock);
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Builder newBuilder() {
+        State fresh = new State();
+        return new Builder() {
+            @Override
+            public void add(ProductSnapshot snapshot) {
+                fresh.put(snapshot.getId(), snapshot.getStock() != null ? snapshot.getStock() : 0);
+            }
+
+            @Override
+            public void publish() {
+                lock.writeLock().lock();
+                try {
+                    state = fresh;
+                    ready = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // IDs con stock < threshold, de menor a mayor stock (y por ID dentro del mismo stock)
+    public long[] below(int threshold) {
+        lock.readLock().lock();
+        try {
+            LongArrayBuilder ids = new LongArrayBuilder();
+            for (Roaring64Bitmap bucket : state.buckets.headMap(threshold, false).values()) {
+                LongIterator iterator = bucket.getLongIterator();
+                while (iterator.hasNext()) {
+                    ids.add(iterator.next());
+                }
+            }
+            return ids.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long countBelow(int threshold) {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (Roaring64Bitmap bucket : state.buckets.headMap(threshold, false).values()) {
+                total += bucket.getLongCardinality();
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getAlertThreshold() {
+        return alertThreshold;
+    }
+
+    private void checkThreshold(ProductSnapshot snapshot, int previousStock, int currentStock) {
+        boolean wasLow = previousStock < alertThreshold;
+        boolean isLow = currentStock < alertThreshold;
+        if (wasLow == isLow) {
+            return;
+        }
+
+        Direction direction = isLow ? Direction.BELOW : Direction.RECOVERED;
+        if (isLow) {
+            logger.warn("Producto {} por debajo del umbral de stock ({} < {})",
+                    snapshot.getId(), currentStock, alertThreshold);
+        } else {
+            logger.info("Producto {} repuesto por encima del umbral de stock ({} >= {})",
+                    snapshot.getId(), currentStock, alertThreshold);
+        }
+
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new StockThresholdCrossedEvent(snapshot.getId(), snapshot.getName(),
+                    previousStock, currentStock, alertThreshold, direction));
+        }
+    }
+
+    private static final class State {
+
+        private final TreeMap<Integer, Roaring64Bitmap> buckets = new TreeMap<>();
+        private final LongLongHashMap stockById = new LongLongHashMap();
+
+        // Devuelve el stock anterior, o -1 si el producto no estaba
+        long put(long id, int stock) {
+            long previous = stockById.get(id, -1L);
+            if (previous == stock) {
+                return previous;
+            }
+            if (previous >= 0) {
+                removeFromBucket((int) previous, id);
+            }
+            buckets.computeIfAbsent(stock, key -> new Roaring64Bitmap()).addLong(id);
+            stockById.put(id, stock);
+            return previous;
+        }
+
+        void remove(long id) {
+            long previous = stockById.get(id, -1L);
+            if (previous >= 0) {
+                removeFromBucket((int) previous, id);
+                stockById.remove(id);
+            }
+        }
+
+        private void removeFromBucket(int stock, long id) {
+            Roaring64Bitmap bucket = buckets.get(stock);
+            if (bucket != null) {
+                bucket.removeLong(id);
+                if (bucket.isEmpty()) {
+                    buckets.remove(stock);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Distribución de precios del catálogo (todos y solo disponibles) en dos PriceQuantileSketch,
+ * actualizada con cada alta, cambio de precio o stock y baja.
+ */
+@Component
+public class PriceDistributionIndex implements ProductIndex {
+
+    @Value("${product.price-sketch.relative-accuracy:0.01}")
+    private double relativeAccuracy = 0.01;
+
+    private State state;
+    private volatile boolean ready;
+
+    @Override
+    public String getName() {
+        return "price-distribution";
+    }
+
+    @Override
+    public synchronized void upsert(ProductSnapshot snapshot) {
+        state().put(snapshot);
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        state().remove(productId);
+    }
+
+    @Override
+    public Builder newBuilder() {
+        State fresh = new State(relativeAccuracy);
+        return new Builder() {
+            @Override
+            public void add(ProductSnapshot snapshot) {
+                fresh.put(snapshot);
+            }
+
+            @Override
+            public void publish() {
+                synchronized (PriceDistributionIndex.this) {
+                    state = fresh;
+                    ready = true;
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Copias de los sketches: el llamante puede consultarlas sin bloquear las actualizaciones
+    public synchronized PriceQuantileSketch allPrices() {
+        return state().all.copy();
+    }
+
+    public synchronized PriceQuantileSketch availablePrices() {
+        return state().available.copy();
+    }
+
+    private State state() {
+        if (state == null) {
+            state = new State(relativeAccuracy);
+        }
+        return state;
+    }
+
+    private static final class State {
+
+        private final PriceQuantileSketch all;
+        private final PriceQuantileSketch available;
+
+        // id -> (céntimos << 1 | disponible), para poder retirar la contribución anterior
+        private final LongLongHashMap entries = new LongLongHashMap();
+
+        State(double relativeAccuracy) {
+            all = new PriceQuantileSketch(relativeAccuracy);
+            available = new PriceQuantileSketch(relativeAccuracy);
+        }
+
+        void put(ProductSnapshot snapshot) {
+            long cents = PriceIndex.toCents(snapshot.getPrice());
+            boolean isAvailable = snapshot.isAvailable();
+            long encoded = (cents << 1) | (isAvailable ? 1 : 0);
+
+            long previous = entries.get(snapshot.getId(), -1L);
+            if (previous == encoded) {
+                return;
+            }
+            if (previous >= 0) {
+                retract(previous);
+            }
+            all.add(cents);
+            if (isAvailable) {
+                available.add(cents);
+            }
+            entries.put(snapshot.getId(), encoded);
+        }
+
+        void remove(long id) {
+            long previous = entries.get(id, -1L);
+            if (previous >= 0) {
+                retract(previous);
+                entries.remove(id);
+            }
+        }
+
+        private void retract(long encoded) {
+            long cents = encoded >>> 1;
+            all.remove(cents);
+            if ((encoded & 1) == 1) {
+                available.remove(cents);
+            }
+        }
+    }
+}
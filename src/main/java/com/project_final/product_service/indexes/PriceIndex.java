@@ -0,0 +1,316 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice ordenado por precio (en céntimos) para las consultas por rango.
+ * Las entradas (céntimos, id, disponible) se guardan en arrays primitivos paralelos repartidos
+ * en bloques ordenados de tamaño acotado, de forma que insertar o borrar solo desplaza un bloque.
+ */
+@Component
+public class PriceIndex implements ProductIndex {
+
+    static final int MAX_BLOCK_SIZE = 512;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private volatile boolean ready;
+
+    @Override
+    public String getName() {
+        return "price";
+    }
+
+    @Override
+    public void upsert(ProductSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            state.put(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Builder newBuilder() {
+        State fresh = new State();
+        return new Builder() {
+            @Override
+            public void add(ProductSnapshot snapshot) {
+                fresh.put(snapshot);
+            }
+
+            @Override
+            public void publish() {
+                lock.writeLock().lock();
+                try {
+                    state = fresh;
+                    ready = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // IDs con precio dentro de [minPrice, maxPrice], ordenados por precio
+    public long[] range(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly) {
+        return range(toCentsCeiling(minPrice), toCentsFloor(maxPrice), availableOnly, Integer.MAX_VALUE);
+    }
+
+    public long[] range(long minCents, long maxCents, boolean availableOnly, int limit) {
+        lock.readLock().lock();
+        try {
+            return state.range(minCents, maxCents, availableOnly, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Número de productos en el rango, sin materializar los IDs
+    public long count(long minCents, long maxCents, boolean availableOnly) {
+        lock.readLock().lock();
+        try {
+            return state.count(minCents, maxCents, availableOnly);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Precio indexado del producto en céntimos, o -1 si no está indexado
+    public long priceCentsOf(long productId) {
+        lock.readLock().lock();
+        try {
+            long encoded = state.entries.get(productId, -1L);
+            return encoded < 0 ? -1L : encoded >>> 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static long toCentsCeiling(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+
+    public static long toCentsFloor(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+    }
+
+    private static final class State {
+
+        // id -> (céntimos << 1 | disponible)
+        private final LongLongHashMap entries = new LongLongHashMap();
+        private final List<Block> blocks = new ArrayList<>();
+
+        void put(ProductSnapshot snapshot) {
+            long id = snapshot.getId();
+            long cents = toCents(snapshot.getPrice());
+            boolean available = snapshot.isAvailable();
+            long encoded = (cents << 1) | (available ? 1 : 0);
+
+            long previous = entries.get(id, -1L);
+            if (previous == encoded) {
+                return;
+            }
+            if (previous >= 0) {
+                delete(previous >>> 1, id);
+            }
+            insert(cents, id, available);
+            entries.put(id, encoded);
+        }
+
+        void remove(long id) {
+            long previous = entries.get(id, -1L);
+            if (previous >= 0) {
+                delete(previous >>> 1, id);
+                entries.remove(id);
+            }
+        }
+
+        long[] range(long minCents, long maxCents, boolean availableOnly, int limit) {
+            LongArrayBuilder result = new LongArrayBuilder();
+            int b = firstBlockFrom(minCents);
+            int i = b < blocks.size() ? blocks.get(b).lowerBound(minCents, Long.MIN_VALUE) : 0;
+
+            for (; b < blocks.size() && result.size() < limit; b++, i = 0) {
+                Block block = blocks.get(b);
+                for (; i < block.size && result.size() < limit; i++) {
+                    if (block.cents[i] > maxCents) {
+                        return result.toArray();
+                    }
+                    if (!availableOnly || block.available[i]) {
+                        result.add(block.ids[i]);
+                    }
+                }
+            }
+            return result.toArray();
+        }
+
+        long count(long minCents, long maxCents, boolean availableOnly) {
+            long total = 0;
+            int b = firstBlockFrom(minCents);
+            int i = b < blocks.size() ? blocks.get(b).lowerBound(minCents, Long.MIN_VALUE) : 0;
+
+            for (; b < blocks.size(); b++, i = 0) {
+                Block block = blocks.get(b);
+                // Bloque completamente dentro del rango: se cuenta sin recorrerlo
+                if (i == 0 && !availableOnly && block.cents[block.size - 1] <= maxCents) {
+                    total += block.size;
+                    continue;
+                }
+                for (; i < block.size; i++) {
+                    if (block.cents[i] > maxCents) {
+                        return total;
+                    }
+                    if (!availableOnly || block.available[i]) {
+                        total++;
+                    }
+                }
+            }
+            return total;
+        }
+
+        private void insert(long cents, long id, boolean available) {
+            if (blocks.isEmpty()) {
+                Block first = new Block();
+                first.insert(0, cents, id, available);
+                blocks.add(first);
+                return;
+            }
+            int b = Math.min(blockFor(cents, id), blocks.size() - 1);
+            Block block = blocks.get(b);
+            block.insert(block.lowerBound(cents, id), cents, id, available);
+
+            if (block.size > MAX_BLOCK_SIZE) {
+                blocks.add(b + 1, block.splitHalf());
+            }
+        }
+
+        private void delete(long cents, long id) {
+            int b = blockFor(cents, id);
+            if (b >= blocks.size()) {
+                return;
+            }
+            Block block = blocks.get(b);
+            int position = block.lowerBound(cents, id);
+            if (position < block.size && block.cents[position] == cents && block.ids[position] == id) {
+                block.delete(position);
+                if (block.size == 0) {
+                    blocks.remove(b);
+                }
+            }
+        }
+
+        // Primer bloque cuyo último elemento es >= (cents, id)
+        private int blockFor(long cents, long id) {
+            int low = 0;
+            int high = blocks.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                Block block = blocks.get(mid);
+                int last = block.size - 1;
+                if (compare(block.cents[last], block.ids[last], cents, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int firstBlockFrom(long minCents) {
+            return blockFor(minCents, Long.MIN_VALUE);
+        }
+    }
+
+    private static int compare(long centsA, long idA, long centsB, long idB) {
+        int byCents = Long.compare(centsA, centsB);
+        return byCents != 0 ? byCents : Long.compare(idA, idB);
+    }
+
+    private static final class Block {
+
+        private long[] cents = new long[MAX_BLOCK_SIZE + 1];
+        private long[] ids = new long[MAX_BLOCK_SIZE + 1];
+        private boolean[] available = new boolean[MAX_BLOCK_SIZE + 1];
+        private int size;
+
+        // Primera posición con (céntimos, id) >= clave
+        int lowerBound(long keyCents, long keyId) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(cents[mid], ids[mid], keyCents, keyId) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void insert(int position, long entryCents, long entryId, boolean entryAvailable) {
+            System.arraycopy(cents, position, cents, position + 1, size - position);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(available, position, available, position + 1, size - position);
+            cents[position] = entryCents;
+            ids[position] = entryId;
+            available[position] = entryAvailable;
+            size++;
+        }
+
+        void delete(int position) {
+            System.arraycopy(cents, position + 1, cents, position, size - position - 1);
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(available, position + 1, available, position, size - position - 1);
+            size--;
+        }
+
+        Block splitHalf() {
+            Block upper = new Block();
+            int half = size / 2;
+            upper.size = size - half;
+            System.arraycopy(cents, half, upper.cents, 0, upper.size);
+            System.arraycopy(ids, half, upper.ids, 0, upper.size);
+            System.arraycopy(available, half, upper.available, 0, upper.size);
+            size = half;
+            return upper;
+        }
+    }
+}
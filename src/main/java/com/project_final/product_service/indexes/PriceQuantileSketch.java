@@ -0,0 +1,120 @@
+package com.project_final.product_service.indexes;
+
+import java.util.Arrays;
+
+/**
+ * Sketch de cuantiles con error relativo acotado (DDSketch) sobre precios en céntimos.
+ * Cada precio cae en un cubo logarítmico de razón gamma = (1 + a) / (1 - a), de modo que el valor
+ * devuelto para cualquier cuantil difiere del real como mucho un factor a. A diferencia de KLL o
+ * t-digest admite bajas (basta restar del cubo), es fusionable sumando cubos y su memoria depende
+ * solo del rango de precios: unos 1.200 cubos para a = 1 % entre 0,01 y 99.999.999,99.
+ */
+public class PriceQuantileSketch {
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    // counts[i] = precios cuyo índice logarítmico es i; los precios <= 0 van aparte
+    private long[] counts = new long[64];
+    private long zeroCount;
+    private long count;
+
+    public PriceQuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("La precisión relativa debe estar entre 0 y 1: " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public void add(long cents) {
+        if (cents <= 0) {
+            zeroCount++;
+        } else {
+            int index = indexOf(cents);
+            if (index >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+            }
+            counts[index]++;
+        }
+        count++;
+    }
+
+    // Retira un precio añadido antes (no hace nada si su cubo está vacío)
+    public void remove(long cents) {
+        if (cents <= 0) {
+            if (zeroCount > 0) {
+                zeroCount--;
+                count--;
+            }
+            return;
+        }
+        int index = indexOf(cents);
+        if (index < counts.length && counts[index] > 0) {
+            counts[index]--;
+            count--;
+        }
+    }
+
+    public void merge(PriceQuantileSketch other) {
+        if (other.gamma != gamma) {
+            throw new IllegalArgumentException("Solo se pueden fusionar sketches con la misma precisión");
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    // Precio estimado (céntimos) del cuantil q en [0, 1], o -1 si el sketch está vacío
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("El cuantil debe estar entre 0 y 1: " + q);
+        }
+        if (count == 0) {
+            return -1;
+        }
+
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = zeroCount;
+        if (seen > rank) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(counts.length - 1);
+    }
+
+    public PriceQuantileSketch copy() {
+        PriceQuantileSketch copy = new PriceQuantileSketch(relativeAccuracy);
+        copy.merge(this);
+        return copy;
+    }
+
+    private int indexOf(long cents) {
+        return (int) Math.ceil(Math.log(cents) / logGamma);
+    }
+
+    // Punto del cubo cuyo error relativo respecto a cualquier valor del cubo es <= a
+    private double valueOf(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+}
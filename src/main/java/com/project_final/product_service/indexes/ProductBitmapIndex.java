@@ -0,0 +1,267 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de bitmaps comprimidos (Roaring) para la consulta combinada de productos:
+ * un bitmap por palabra del nombre normalizado, uno por valor de stock y el de productos disponibles.
+ * Los predicados se resuelven como intersecciones de bitmaps sin tocar la BD.
+ * Los bitmaps son de 64 bits: cualquier ID de producto se indexa tal cual, sin estrecharlo a int.
+ */
+@Component
+public class ProductBitmapIndex implements ProductIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private volatile boolean ready;
+
+    @Override
+    public String getName() {
+        return "bitmap";
+    }
+
+    @Override
+    public void upsert(ProductSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            state.put(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Builder newBuilder() {
+        State fresh = new State();
+        return new Builder() {
+            @Override
+            public void add(ProductSnapshot snapshot) {
+                fresh.put(snapshot);
+            }
+
+            @Override
+            public void publish() {
+                fresh.optimize();
+                lock.writeLock().lock();
+                try {
+                    state = fresh;
+                    ready = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Todos los productos indexados (copia: el llamante puede modificarla)
+    public Roaring64Bitmap all() {
+        lock.readLock().lock();
+        try {
+            return state.all.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Productos con stock (available = true) o agotados (available = false)
+    public Roaring64Bitmap availability(boolean available) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = available ? state.available.clone() : state.all.clone();
+            if (!available) {
+                result.andNot(state.available);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long countAvailability(boolean available) {
+        lock.readLock().lock();
+        try {
+            long withStock = state.available.getLongCardinality();
+            return available ? withStock : state.all.getLongCardinality() - withStock;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Productos con alguna palabra del nombre que empiece por el término (ya normalizado)
+    public Roaring64Bitmap nameTerm(String normalizedTerm) {
+        lock.readLock().lock();
+        try {
+            return union(state.tokensWithPrefix(normalizedTerm).values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Productos con stock dentro de [minStock, maxStock]
+    public Roaring64Bitmap stockRange(int minStock, int maxStock) {
+        lock.readLock().lock();
+        try {
+            return union(state.stockBetween(minStock, maxStock).values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Los bitmaps de cada valor de stock son disjuntos: la suma de cardinalidades es exacta
+    public long countStockRange(int minStock, int maxStock) {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (Roaring64Bitmap bitmap : state.stockBetween(minStock, maxStock).values()) {
+                total += bitmap.getLongCardinality();
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return (int) state.all.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Unión de bitmaps en uno nuevo (el llamante puede modificarlo)
+    private static Roaring64Bitmap union(Collection<Roaring64Bitmap> bitmaps) {
+        Roaring64Bitmap result = new Roaring64Bitmap();
+        for (Roaring64Bitmap bitmap : bitmaps) {
+            result.or(bitmap);
+        }
+        return result;
+    }
+
+    // Palabras distintas de un nombre ya normalizado
+    static Set<String> tokensOf(String normalizedName) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : normalizedName.split(" ")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static final class State {
+
+        private final Roaring64Bitmap all = new Roaring64Bitmap();
+        private final Roaring64Bitmap available = new Roaring64Bitmap();
+        private final TreeMap<String, Roaring64Bitmap> tokens = new TreeMap<>();
+        private final TreeMap<Integer, Roaring64Bitmap> stocks = new TreeMap<>();
+
+        // Valores indexados de cada producto, necesarios para deshacer su entrada anterior
+        private final Map<Long, String> names = new HashMap<>();
+        private final Map<Long, Integer> stockById = new HashMap<>();
+
+        void put(ProductSnapshot snapshot) {
+            long id = snapshot.getId();
+            String name = SearchText.normalize(snapshot.getName());
+            int stock = snapshot.getStock() != null ? snapshot.getStock() : 0;
+
+            String previousName = names.put(id, name);
+            if (!name.equals(previousName)) {
+                if (previousName != null) {
+                    for (String token : tokensOf(previousName)) {
+                        removeFrom(tokens, token, id);
+                    }
+                }
+                for (String token : tokensOf(name)) {
+                    tokens.computeIfAbsent(token, key -> new Roaring64Bitmap()).addLong(id);
+                }
+            }
+
+            Integer previousStock = stockById.put(id, stock);
+            if (previousStock == null || previousStock != stock) {
+                if (previousStock != null) {
+                    removeFrom(stocks, previousStock, id);
+                }
+                stocks.computeIfAbsent(stock, key -> new Roaring64Bitmap()).addLong(id);
+            }
+
+            all.addLong(id);
+            if (stock > 0) {
+                available.addLong(id);
+            } else {
+                available.removeLong(id);
+            }
+        }
+
+        void remove(long id) {
+            String previousName = names.remove(id);
+            if (previousName != null) {
+                for (String token : tokensOf(previousName)) {
+                    removeFrom(tokens, token, id);
+                }
+            }
+            Integer previousStock = stockById.remove(id);
+            if (previousStock != null) {
+                removeFrom(stocks, previousStock, id);
+            }
+            all.removeLong(id);
+            available.removeLong(id);
+        }
+
+        NavigableMap<String, Roaring64Bitmap> tokensWithPrefix(String prefix) {
+            return tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        NavigableMap<Integer, Roaring64Bitmap> stockBetween(int minStock, int maxStock) {
+            if (minStock > maxStock) {
+                return new TreeMap<>();
+            }
+            return stocks.subMap(minStock, true, maxStock, true);
+        }
+
+        // Tras una carga completa se compactan los contenedores con rachas largas de IDs
+        void optimize() {
+            all.runOptimize();
+            available.runOptimize();
+            tokens.values().forEach(Roaring64Bitmap::runOptimize);
+            stocks.values().forEach(Roaring64Bitmap::runOptimize);
+        }
+
+        private static <K> void removeFrom(Map<K, Roaring64Bitmap> bitmaps, K key, long id) {
+            Roaring64Bitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                bitmap.removeLong(id);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                }
+            }
+        }
+    }
+}
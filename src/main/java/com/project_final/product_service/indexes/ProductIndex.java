@@ -0,0 +1,31 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+
+/**
+ * Índice en memoria sobre el catálogo, mantenido de forma incremental por ProductIndexManager.
+ * Las operaciones de actualización son idempotentes por ID de producto.
+ */
+public interface ProductIndex {
+
+    String getName();
+
+    // Alta o modificación de un producto
+    void upsert(ProductSnapshot snapshot);
+
+    // Baja de un producto (no falla si no estaba indexado)
+    void remove(Long productId);
+
+    // Crea un constructor que se llena fuera de línea y sustituye al estado actual al publicarse
+    Builder newBuilder();
+
+    // false hasta la primera carga completa; mientras tanto las consultas deben ir a la BD
+    boolean isReady();
+
+    interface Builder {
+
+        void add(ProductSnapshot snapshot);
+
+        void publish();
+    }
+}
@@ -0,0 +1,136 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.model.ProductSnapshot;
+import com.project_final.product_service.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coordina los índices en memoria: los carga desde la BD por páginas, los reconstruye
+ * periódicamente y les aplica los cambios confirmados del catálogo.
+ */
+@Component
+public class ProductIndexManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexManager.class);
+
+    @Autowired
+    private List<ProductIndex> indexes;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${product.index.page-size:5000}")
+    private int pageSize;
+
+    private final Object lock = new Object();
+
+    // Cambios recibidos mientras hay una reconstrucción en curso; null si no la hay
+    private List<ProductChangedEvent> pendingEvents;
+
+    // La caché de búsquedas se actualiza siempre la última, tanto en los cambios como al publicar una
+    // reconstrucción: si subiera su versión antes de que los índices de búsqueda aplicaran el cambio,
+    // una consulta concurrente guardaría el resultado antiguo con la versión nueva y no se invalidaría
+    @PostConstruct
+    void orderIndexes() {
+        List<ProductIndex> ordered = new ArrayList<>(indexes);
+        ordered.remove(searchResultCache);
+        ordered.add(searchResultCache);
+        indexes = ordered;
+    }
+
+    // Solo tras el commit, para no indexar cambios que luego se deshacen
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (lock) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+                return;
+            }
+            apply(event);
+        }
+    }
+
+    // Carga inicial al arrancar y reconciliación periódica con la BD
+    @Scheduled(initialDelayString = "${product.index.initial-delay-ms:0}",
+            fixedDelayString = "${product.index.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        synchronized (lock) {
+            if (pendingEvents != null) {
+                return;
+            }
+            pendingEvents = new ArrayList<>();
+        }
+
+        long start = System.currentTimeMillis();
+        long loaded = 0;
+        List<ProductIndex.Builder> builders = new ArrayList<>();
+
+        try {
+            for (ProductIndex index : indexes) {
+                builders.add(index.newBuilder());
+            }
+
+            Long afterId = 0L;
+            List<ProductSnapshot> page;
+            do {
+                page = productRepository.findSnapshotsAfter(afterId, PageRequest.of(0, pageSize));
+                for (ProductSnapshot snapshot : page) {
+                    for (ProductIndex.Builder builder : builders) {
+                        builder.add(snapshot);
+                    }
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                    loaded += page.size();
+                }
+            } while (page.size() == pageSize);
+
+            synchronized (lock) {
+                builders.forEach(ProductIndex.Builder::publish);
+                pendingEvents.forEach(this::apply);
+                pendingEvents = null;
+            }
+
+            logger.info("Índices de productos reconstruidos: {} productos en {} ms",
+                    loaded, System.currentTimeMillis() - start);
+
+        } catch (RuntimeException e) {
+            logger.error("Error reconstruyendo los índices de productos: {}", e.getMessage());
+            synchronized (lock) {
+                // Sin publicar nada: los índices conservan su estado y se aplican los cambios pendientes
+                pendingEvents.forEach(this::apply);
+                pendingEvents = null;
+            }
+        }
+    }
+
+    private void apply(ProductChangedEvent event) {
+        for (ProductIndex index : indexes) {
+            try {
+                if (event.isDeletion()) {
+                    index.remove(event.getProductId());
+                } else {
+                    index.upsert(event.getSnapshot());
+                }
+            } catch (RuntimeException e) {
+                logger.error("Error actualizando el índice {} para el producto {}: {}",
+                        index.getName(), event.getProductId(), e.getMessage());
+            }
+        }
+    }
+}
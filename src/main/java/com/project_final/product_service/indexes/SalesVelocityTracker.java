@@ -0,0 +1,184 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.events.StockReducedEvent;
+import com.project_final.product_service.model.ProductSnapshot;
+import com.project_final.product_service.model.SalesVelocity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ritmo de ventas por producto como contador con decaimiento exponencial (vida media configurable),
+ * alimentado por los descuentos de stock. Cada producto con ventas ocupa una posición en arrays
+ * primitivos paralelos: unidades acumuladas con decaimiento, instante de la última venta y stock.
+ */
+@Component
+public class SalesVelocityTracker implements ProductIndex {
+
+    private static final double MILLIS_PER_DAY = 86_400_000d;
+
+    @Value("${product.velocity.half-life-days:7}")
+    private double halfLifeDays = 7;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    // id -> posición en los arrays
+    private final LongLongHashMap slots = new LongLongHashMap();
+    private long[] ids = new long[64];
+    private double[] decayedUnits = new double[64];
+    private long[] lastSaleMillis = new long[64];
+    private int[] stocks = new int[64];
+    private int size;
+
+    private volatile boolean ready;
+
+    // Solo tras el commit: una venta que se deshace no cuenta
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockReduced(StockReducedEvent event) {
+        record(event.getProductId(), event.getQuantity(), event.getRemainingStock());
+    }
+
+    public synchronized void record(long productId, int quantity, int remainingStock) {
+        long now = clock.millis();
+        int slot = (int) slots.get(productId, -1L);
+        if (slot < 0) {
+            slot = allocate(productId);
+            lastSaleMillis[slot] = now;
+        }
+        decayedUnits[slot] = decay(decayedUnits[slot], now - lastSaleMillis[slot]) + quantity;
+        lastSaleMillis[slot] = now;
+        stocks[slot] = remainingStock;
+    }
+
+    // Unidades vendidas por día estimadas ahora mismo (0 si no hay ventas registradas)
+    public synchronized double unitsPerDay(long productId) {
+        int slot = (int) slots.get(productId, -1L);
+        return slot < 0 ? 0 : rateAt(slot, clock.millis());
+    }
+
+    // Productos cuyo stock actual se agota en 'withinDays' días al ritmo actual, del más urgente al menos
+    public synchronized List<SalesVelocity> projectStockouts(double withinDays, int limit) {
+        long now = clock.millis();
+        LocalDate today = LocalDate.now(clock);
+
+        List<SalesVelocity> projections = new ArrayList<>();
+        for (int slot = 0; slot < size; slot++) {
+            double rate = rateAt(slot, now);
+            if (rate > 0 && stocks[slot] / rate <= withinDays) {
+                projections.add(new SalesVelocity(ids[slot], rate, stocks[slot], today));
+            }
+        }
+
+        projections.sort(Comparator.comparing(SalesVelocity::getDaysOfCover));
+        return projections.size() > limit ? new ArrayList<>(projections.subList(0, limit)) : projections;
+    }
+
+    public synchronized int trackedProducts() {
+        return size;
+    }
+
+    @Override
+    public String getName() {
+        return "sales-velocity";
+    }
+
+    // Los cambios de stock ajenos a las ventas (reposiciones, ediciones) solo actualizan el stock
+    @Override
+    public synchronized void upsert(ProductSnapshot snapshot) {
+        int slot = (int) slots.get(snapshot.getId(), -1L);
+        if (slot >= 0 && snapshot.getStock() != null) {
+            stocks[slot] = snapshot.getStock();
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        int slot = (int) slots.get(productId, -1L);
+        if (slot < 0) {
+            return;
+        }
+        // Se mueve la última posición al hueco para mantener los arrays compactos
+        int last = size - 1;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            decayedUnits[slot] = decayedUnits[last];
+            lastSaleMillis[slot] = lastSaleMillis[last];
+            stocks[slot] = stocks[last];
+            slots.put(ids[slot], slot);
+        }
+        slots.remove(productId);
+        size--;
+    }
+
+    // Los ritmos no están en la BD: una reconstrucción solo refresca el stock de los productos seguidos
+    @Override
+    public Builder newBuilder() {
+        LongLongHashMap freshStocks = new LongLongHashMap();
+        return new Builder() {
+            @Override
+            public void add(ProductSnapshot snapshot) {
+                if (snapshot.getStock() != null) {
+                    freshStocks.put(snapshot.getId(), snapshot.getStock());
+                }
+            }
+
+            @Override
+            public void publish() {
+                synchronized (SalesVelocityTracker.this) {
+                    for (int slot = size - 1; slot >= 0; slot--) {
+                        long stock = freshStocks.get(ids[slot], -1L);
+                        if (stock < 0) {
+                            remove(ids[slot]);
+                        } else {
+                            stocks[slot] = (int) stock;
+                        }
+                    }
+                    ready = true;
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    private int allocate(long productId) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            decayedUnits = Arrays.copyOf(decayedUnits, capacity);
+            lastSaleMillis = Arrays.copyOf(lastSaleMillis, capacity);
+            stocks = Arrays.copyOf(stocks, capacity);
+        }
+        int slot = size++;
+        ids[slot] = productId;
+        decayedUnits[slot] = 0;
+        slots.put(productId, slot);
+        return slot;
+    }
+
+    // Con ventas constantes de r unidades/día, las unidades acumuladas tienden a r / lambda
+    private double rateAt(int slot, long now) {
+        return decay(decayedUnits[slot], now - lastSaleMillis[slot]) * lambdaPerDay();
+    }
+
+    private double decay(double units, long elapsedMillis) {
+        if (elapsedMillis <= 0) {
+            return units;
+        }
+        return units * Math.exp(-lambdaPerDay() * (elapsedMillis / MILLIS_PER_DAY));
+    }
+
+    private double lambdaPerDay() {
+        return Math.log(2) / halfLifeDays;
+    }
+}
@@ -0,0 +1,263 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Caché acotada (LRU) de búsquedas por nombre: consulta -> IDs del resultado.
+ * Cada entrada guarda la versión del catálogo con la que se calculó; al leerla se revisan
+ * solo los cambios posteriores y se recalcula únicamente si alguno puede alterar su resultado.
+ * ProductIndexManager le aplica cada cambio después que al resto de índices, de modo que una
+ * versión nueva nunca se asocia a un resultado calculado con los índices aún sin actualizar.
+ */
+@Component
+public class SearchResultCache implements ProductIndex, MeterBinder {
+
+    public enum SearchMode {
+        EXACT,
+        FUZZY
+    }
+
+    // Consulta exacta de una sola palabra sin comodines: su LIKE '%q%' con la collation por defecto
+    // (utf8mb4_0900_ai_ci, sin distinguir mayúsculas ni tildes) equivale a buscarla en el nombre normalizado
+    private static final Pattern LITERAL_QUERY = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    @Autowired
+    private TrigramSearchIndex trigramSearchIndex;
+
+    @Value("${product.search.cache.max-entries:1000}")
+    private int maxEntries = 1000;
+
+    @Value("${product.search.cache.change-log-size:4096}")
+    private int changeLogSize = 4096;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Huella del nombre de cada producto: un cambio que no toca el nombre (stock, precio)
+    // no puede alterar ninguna búsqueda y no se registra, así que no gasta el registro de cambios
+    private LongLongHashMap nameHashes = new LongLongHashMap();
+
+    // Registro circular de los últimos cambios: versión i -> posición i % tamaño
+    private long[] changedIds;
+    private String[] changedNames;
+    private long version;
+    private long oldestLoggedVersion = 1;
+
+    @Override
+    public String getName() {
+        return "search-cache";
+    }
+
+    // Versión actual del catálogo; debe leerse ANTES de ejecutar la consulta que se va a cachear
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    // IDs cacheados para la consulta, o null si no hay entrada válida
+    public synchronized long[] lookup(SearchMode mode, String query) {
+        String key = key(mode, query);
+        Entry entry = entries.get(key);
+
+        if (entry != null && !isStillValid(entry)) {
+            entries.remove(key);
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.ids;
+    }
+
+    public synchronized void store(SearchMode mode, String query, long computedAtVersion, long[] ids) {
+        if (computedAtVersion < oldestLoggedVersion - 1) {
+            return;
+        }
+        entries.put(key(mode, query), new Entry(mode, SearchText.normalize(query),
+                mode == SearchMode.FUZZY || LITERAL_QUERY.matcher(query).matches(), computedAtVersion, ids));
+    }
+
+    @Override
+    public synchronized void upsert(ProductSnapshot snapshot) {
+        long hash = nameHash(snapshot.getName());
+        if (nameHashes.containsKey(snapshot.getId()) && nameHashes.get(snapshot.getId(), 0L) == hash) {
+            return;
+        }
+        nameHashes.put(snapshot.getId(), hash);
+        logChange(snapshot.getId(), SearchText.normalize(snapshot.getName()));
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        nameHashes.remove(productId);
+        logChange(productId, null);
+    }
+
+    // Tras una reconstrucción de los índices no se puede saber qué cambió: se vacía la caché
+    @Override
+    public Builder newBuilder() {
+        return new Builder() {
+            private final LongLongHashMap hashes = new LongLongHashMap();
+
+            @Override
+            public void add(ProductSnapshot snapshot) {
+                hashes.put(snapshot.getId(), nameHash(snapshot.getName()));
+            }
+
+            @Override
+            public void publish() {
+                synchronized (SearchResultCache.this) {
+                    nameHashes = hashes;
+                    invalidateAll();
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        version++;
+        oldestLoggedVersion = version + 1;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("product.search.cache.requests", hits, LongAdder::doubleValue)
+                .tag("result", "hit")
+                .description("Búsquedas por nombre resueltas desde la caché")
+                .register(registry);
+        FunctionCounter.builder("product.search.cache.requests", misses, LongAdder::doubleValue)
+                .tag("result", "miss")
+                .description("Búsquedas por nombre que tuvieron que recalcularse")
+                .register(registry);
+        Gauge.builder("product.search.cache.hit.ratio", this, SearchResultCache::getHitRatio)
+                .register(registry);
+        Gauge.builder("product.search.cache.size", this, SearchResultCache::size)
+                .register(registry);
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void logChange(Long productId, String normalizedName) {
+        if (changedIds == null) {
+            changedIds = new long[changeLogSize];
+            changedNames = new String[changeLogSize];
+        }
+        version++;
+        int slot = (int) (version % changeLogSize);
+        changedIds[slot] = productId;
+        changedNames[slot] = normalizedName;
+        oldestLoggedVersion = Math.max(oldestLoggedVersion, version - changeLogSize + 1);
+    }
+
+    private boolean isStillValid(Entry entry) {
+        if (entry.version == version) {
+            return true;
+        }
+        // Los cambios intermedios ya no están en el registro
+        if (entry.version + 1 < oldestLoggedVersion) {
+            return false;
+        }
+
+        for (long v = entry.version + 1; v <= version; v++) {
+            int slot = (int) (v % changeLogSize);
+            if (affects(entry, changedIds[slot], changedNames[slot])) {
+                return false;
+            }
+        }
+        entry.version = version;
+        return true;
+    }
+
+    // ¿Puede el cambio de este producto alterar el resultado de la entrada?
+    private boolean affects(Entry entry, long productId, String normalizedName) {
+        boolean inResult = Arrays.binarySearch(entry.sortedIds, productId) >= 0;
+        if (normalizedName == null) {
+            return inResult;
+        }
+
+        if (entry.mode == SearchMode.FUZZY) {
+            // El orden depende de la distancia, así que cualquier coincidencia puede reordenar
+            return inResult || trigramSearchIndex.matches(entry.normalizedQuery, normalizedName);
+        }
+        if (!entry.literal) {
+            // Comodines (% _), espacios o signos: LIKE y el nombre normalizado pueden no coincidir
+            return true;
+        }
+        // LIKE: basta con que la pertenencia al resultado no cambie
+        return inResult != normalizedName.contains(entry.normalizedQuery);
+    }
+
+    // FNV-1a de 64 bits del nombre tal cual: una colisión entre el nombre viejo y el nuevo es despreciable
+    private static long nameHash(String name) {
+        if (name == null) {
+            return 0L;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static String key(SearchMode mode, String query) {
+        // En modo exacto la clave es el texto tal cual llega a LIKE, cuya semántica depende de la collation
+        return mode == SearchMode.FUZZY ? "F:" + SearchText.normalize(query) : "E:" + query;
+    }
+
+    private static final class Entry {
+
+        private final SearchMode mode;
+        private final String normalizedQuery;
+        private final boolean literal;
+        private final long[] ids;
+        private final long[] sortedIds;
+        private long version;
+
+        private Entry(SearchMode mode, String normalizedQuery, boolean literal, long version, long[] ids) {
+            this.mode = mode;
+            this.normalizedQuery = normalizedQuery;
+            this.literal = literal;
+            this.version = version;
+            this.ids = ids;
+            this.sortedIds = ids.clone();
+            Arrays.sort(this.sortedIds);
+        }
+    }
+}
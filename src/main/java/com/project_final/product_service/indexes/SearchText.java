@@ -0,0 +1,95 @@
+package com.project_final.product_service.indexes;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utilidades de texto para la búsqueda: normalización, trigramas y distancia de edición
+ */
+public final class SearchText {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchText() {
+    }
+
+    // Minúsculas, sin tildes y con un único espacio entre palabras ("Portátil  HP" -> "portatil hp")
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Trigramas distintos del texto normalizado, con un espacio de relleno en cada extremo
+    public static long[] trigrams(String normalized) {
+        if (normalized.isEmpty()) {
+            return new long[0];
+        }
+        return distinctTrigrams(" " + normalized + " ");
+    }
+
+    // Trigramas sin el relleno de los extremos: los únicos que aparecen siempre que el texto
+    // esté contenido en otro (una consulta dentro de un nombre más largo)
+    public static long[] innerTrigrams(String normalized) {
+        if (normalized.length() < 3) {
+            return new long[0];
+        }
+        return distinctTrigrams(normalized);
+    }
+
+    private static long[] distinctTrigrams(String text) {
+        int count = text.length() - 2;
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    // Ediciones toleradas según la longitud de la consulta
+    public static int maxEditsFor(int length, int cap) {
+        if (length < 4) {
+            return 0;
+        }
+        return Math.min(length <= 6 ? 1 : 2, cap);
+    }
+
+    /**
+     * Distancia de edición mínima entre la consulta y cualquier subcadena del texto (algoritmo de Sellers).
+     * Devuelve maxDistance + 1 en cuanto se sabe que se supera el límite.
+     */
+    public static int substringEditDistance(String query, String text, int maxDistance) {
+        int m = query.length();
+        if (m == 0) {
+            return 0;
+        }
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        int best = previous[m];
+
+        for (int j = 1; j <= text.length(); j++) {
+            char c = text.charAt(j - 1);
+            current[0] = 0;
+            for (int i = 1; i <= m; i++) {
+                int cost = query.charAt(i - 1) == c ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+            }
+            best = Math.min(best, current[m]);
+            if (best == 0) {
+                return 0;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return best <= maxDistance ? best : maxDistance + 1;
+    }
+}
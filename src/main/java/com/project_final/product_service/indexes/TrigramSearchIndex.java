@@ -0,0 +1,255 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de trigramas sobre el nombre normalizado de los productos para la búsqueda difusa.
+ * Los candidatos se podan con el lema de q-gramas (cada edición destruye como mucho 3 trigramas)
+ * y se reordenan por distancia de edición contra el nombre.
+ */
+@Component
+public class TrigramSearchIndex implements ProductIndex {
+
+    @Value("${product.search.fuzzy.max-results:50}")
+    private int maxResults = 50;
+
+    @Value("${product.search.fuzzy.max-edits:2}")
+    private int maxEdits = 2;
+
+    @Value("${product.search.fuzzy.max-candidates:20000}")
+    private int maxCandidates = 20000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    private volatile boolean ready;
+
+    @Override
+    public String getName() {
+        return "fuzzy-search";
+    }
+
+    @Override
+    public void upsert(ProductSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            state.put(snapshot.getId(), SearchText.normalize(snapshot.getName()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Builder newBuilder() {
+        State fresh = new State();
+        return new Builder() {
+            @Override
+            public void add(ProductSnapshot snapshot) {
+                fresh.put(snapshot.getId(), SearchText.normalize(snapshot.getName()));
+            }
+
+            @Override
+            public void publish() {
+                lock.writeLock().lock();
+                try {
+                    state = fresh;
+                    ready = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // IDs de los productos más parecidos a la consulta, del mejor al peor
+    public long[] search(String query) {
+        String normalized = SearchText.normalize(query);
+        long[] grams = SearchText.trigrams(normalized);
+        if (grams.length == 0) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            int edits = allowedEdits(normalized, grams.length);
+            // Los trigramas de los extremos llevan el relleno y no aparecen si la consulta cae dentro de
+            // una palabra más larga ("port" en "portatil"): la cota solo cuenta los interiores, y los de
+            // los extremos suman al ordenar. Si no se puede exigir nada, al menos un trigrama común
+            int required = Math.max(1, SearchText.innerTrigrams(normalized).length - 3 * edits);
+
+            Postings[] lists = new Postings[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = state.postings.getOrDefault(grams[i], Postings.EMPTY);
+            }
+            Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+
+            // Un candidato con 'required' trigramas comunes aparece en al menos una de las
+            // (n - required + 1) listas más cortas, así que solo se generan candidatos desde ellas
+            int prefix = lists.length - required + 1;
+            Map<Long, Integer> counts = new HashMap<>();
+            for (int i = 0; i < prefix; i++) {
+                Postings list = lists[i];
+                for (int j = 0; j < list.size; j++) {
+                    counts.merge(list.ids[j], 1, Integer::sum);
+                }
+            }
+
+            List<Map.Entry<Long, Integer>> candidates = new ArrayList<>(counts.entrySet());
+            if (candidates.size() > maxCandidates) {
+                candidates.sort(Map.Entry.<Long, Integer>comparingByValue().reversed());
+                candidates = candidates.subList(0, maxCandidates);
+            }
+
+            List<Match> matches = new ArrayList<>();
+            for (Map.Entry<Long, Integer> candidate : candidates) {
+                long id = candidate.getKey();
+                int shared = candidate.getValue();
+                for (int i = prefix; i < lists.length; i++) {
+                    if (shared + (lists.length - i) < required) {
+                        break;
+                    }
+                    if (lists[i].contains(id)) {
+                        shared++;
+                    }
+                }
+                if (shared < required) {
+                    continue;
+                }
+
+                String name = state.names.get(id);
+                int distance = SearchText.substringEditDistance(normalized, name, edits);
+                if (distance <= edits) {
+                    matches.add(new Match(id, distance, shared, name.length()));
+                }
+            }
+
+            matches.sort(Comparator.comparingInt(Match::distance)
+                    .thenComparing(Comparator.comparingInt(Match::shared).reversed())
+                    .thenComparingInt(Match::length)
+                    .thenComparingLong(Match::id));
+
+            return matches.stream()
+                    .limit(maxResults)
+                    .mapToLong(Match::id)
+                    .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ¿Coincidiría el nombre con la consulta en la búsqueda difusa? (ambos ya normalizados)
+    public boolean matches(String normalizedQuery, String normalizedName) {
+        int edits = allowedEdits(normalizedQuery, SearchText.trigrams(normalizedQuery).length);
+        return SearchText.substringEditDistance(normalizedQuery, normalizedName, edits) <= edits;
+    }
+
+    // Con n trigramas solo se puede exigir coincidencia parcial si n - 3k >= 1
+    private int allowedEdits(String normalized, int gramCount) {
+        return Math.max(0, Math.min(SearchText.maxEditsFor(normalized.length(), maxEdits), (gramCount - 1) / 3));
+    }
+
+    private record Match(long id, int distance, int shared, int length) {
+    }
+
+    private static final class State {
+
+        private final Map<Long, String> names = new HashMap<>();
+        private final Map<Long, Postings> postings = new HashMap<>();
+
+        void put(long id, String name) {
+            String previous = names.put(id, name);
+            if (name.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                removePostings(id, previous);
+            }
+            for (long gram : SearchText.trigrams(name)) {
+                postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+            }
+        }
+
+        void remove(long id) {
+            String previous = names.remove(id);
+            if (previous != null) {
+                removePostings(id, previous);
+            }
+        }
+
+        private void removePostings(long id, String name) {
+            for (long gram : SearchText.trigrams(name)) {
+                Postings list = postings.get(gram);
+                if (list != null) {
+                    list.remove(id);
+                    if (list.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    // Lista ordenada de IDs (long primitivos) que contienen un trigrama
+    private static final class Postings {
+
+        private static final Postings EMPTY = new Postings();
+
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+    }
+}
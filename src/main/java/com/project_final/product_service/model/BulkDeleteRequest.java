@@ -0,0 +1,26 @@
+package com.project_final.product_service.model;
+
+import java.util.List;
+
+/**
+ * Petición de borrado masivo de productos por id
+ */
+public class BulkDeleteRequest {
+
+    private List<Long> ids;
+
+    public BulkDeleteRequest() {
+    }
+
+    public BulkDeleteRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
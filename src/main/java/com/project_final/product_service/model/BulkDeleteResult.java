@@ -0,0 +1,51 @@
+package com.project_final.product_service.model;
+
+import java.util.List;
+
+/**
+ * Resumen de un borrado masivo. Los ids que no existían (o ya estaban borrados) se listan
+ * hasta un máximo configurable.
+ */
+public class BulkDeleteResult {
+
+    private final int requested;
+    private final int deleted;
+    private final int notFound;
+    private final List<Long> notFoundIds;
+    private final boolean notFoundTruncated;
+    private final long durationMs;
+
+    public BulkDeleteResult(int requested, int deleted, int notFound, List<Long> notFoundIds,
+                            boolean notFoundTruncated, long durationMs) {
+        this.requested = requested;
+        this.deleted = deleted;
+        this.notFound = notFound;
+        this.notFoundIds = notFoundIds;
+        this.notFoundTruncated = notFoundTruncated;
+        this.durationMs = durationMs;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public int getNotFound() {
+        return notFound;
+    }
+
+    public List<Long> getNotFoundIds() {
+        return notFoundIds;
+    }
+
+    public boolean isNotFoundTruncated() {
+        return notFoundTruncated;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+}
@@ -0,0 +1,117 @@
+package com.project_final.product_service.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Petición de cambio masivo de precios: o bien pares (id, precio nuevo) o bien una regla
+ * (porcentaje o importe fijo) aplicada a un rango de precios y/o a un conjunto de ids.
+ */
+public class BulkPriceUpdateRequest {
+
+    private List<Item> prices;
+    private PriceRule rule;
+
+    public List<Item> getPrices() {
+        return prices;
+    }
+
+    public void setPrices(List<Item> prices) {
+        this.prices = prices;
+    }
+
+    public PriceRule getRule() {
+        return rule;
+    }
+
+    public void setRule(PriceRule rule) {
+        this.rule = rule;
+    }
+
+    public static class Item {
+
+        private Long id;
+        private BigDecimal price;
+
+        public Item() {
+        }
+
+        public Item(Long id, BigDecimal price) {
+            this.id = id;
+            this.price = price;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public void setPrice(BigDecimal price) {
+            this.price = price;
+        }
+    }
+
+    public static class PriceRule {
+
+        public enum Type {
+            // amount = porcentaje (-10 = rebaja del 10 %)
+            PERCENTAGE,
+            // amount = importe a sumar (negativo para rebajar)
+            ABSOLUTE
+        }
+
+        private Type type;
+        private BigDecimal amount;
+        // Filtros opcionales: rango de precio actual e ids concretos
+        private BigDecimal minPrice;
+        private BigDecimal maxPrice;
+        private List<Long> ids;
+
+        public Type getType() {
+            return type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public BigDecimal getMinPrice() {
+            return minPrice;
+        }
+
+        public void setMinPrice(BigDecimal minPrice) {
+            this.minPrice = minPrice;
+        }
+
+        public BigDecimal getMaxPrice() {
+            return maxPrice;
+        }
+
+        public void setMaxPrice(BigDecimal maxPrice) {
+            this.maxPrice = maxPrice;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public void setIds(List<Long> ids) {
+            this.ids = ids;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.project_final.product_service.model;
+
+import java.util.List;
+
+/**
+ * Resumen de un cambio masivo de precios. Solo se detallan los productos rechazados
+ * (hasta un máximo configurable), no cada fila actualizada.
+ */
+public class BulkPriceUpdateResult {
+
+    private final String mode;
+    private final long matched;
+    private final long updated;
+    private final long unchanged;
+    private final long rejected;
+    private final long notFound;
+    private final List<Rejection> rejections;
+    private final boolean rejectionsTruncated;
+    private final long durationMs;
+
+    public BulkPriceUpdateResult(String mode, long matched, long updated, long unchanged, long rejected, long notFound,
+                                 List<Rejection> rejections, boolean rejectionsTruncated, long durationMs) {
+        this.mode = mode;
+        this.matched = matched;
+        this.updated = updated;
+        this.unchanged = unchanged;
+        this.rejected = rejected;
+        this.notFound = notFound;
+        this.rejections = rejections;
+        this.rejectionsTruncated = rejectionsTruncated;
+        this.durationMs = durationMs;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getNotFound() {
+        return notFound;
+    }
+
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public boolean isRejectionsTruncated() {
+        return rejectionsTruncated;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public static class Rejection {
+
+        private final Long productId;
+        private final String message;
+
+        public Rejection(Long productId, String message) {
+            this.productId = productId;
+            this.message = message;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
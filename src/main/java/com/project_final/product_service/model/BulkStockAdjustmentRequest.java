@@ -0,0 +1,60 @@
+package com.project_final.product_service.model;
+
+import java.util.List;
+
+/**
+ * Petición de ajuste masivo de stock (p. ej. un albarán de entrada): una línea por producto con
+ * la variación de stock, positiva para entradas y negativa para salidas o mermas.
+ */
+public class BulkStockAdjustmentRequest {
+
+    private List<Line> lines;
+    // Si alguna línea se rechaza, no se aplica ninguna
+    private boolean allOrNothing;
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<Line> lines) {
+        this.lines = lines;
+    }
+
+    public boolean isAllOrNothing() {
+        return allOrNothing;
+    }
+
+    public void setAllOrNothing(boolean allOrNothing) {
+        this.allOrNothing = allOrNothing;
+    }
+
+    public static class Line {
+
+        private Long id;
+        private Integer delta;
+
+        public Line() {
+        }
+
+        public Line(Long id, Integer delta) {
+            this.id = id;
+            this.delta = delta;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Integer getDelta() {
+            return delta;
+        }
+
+        public void setDelta(Integer delta) {
+            this.delta = delta;
+        }
+    }
+}
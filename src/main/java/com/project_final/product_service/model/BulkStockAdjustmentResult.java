@@ -0,0 +1,107 @@
+package com.project_final.product_service.model;
+
+import java.util.List;
+
+/**
+ * Resultado de un ajuste masivo de stock, con el desenlace de cada línea en el orden de la petición
+ */
+public class BulkStockAdjustmentResult {
+
+    public enum Status {
+        APPLIED,
+        // Línea válida que no se aplicó porque otra se rechazó (modo todo o nada)
+        NOT_APPLIED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        INVALID
+    }
+
+    private final boolean committed;
+    private final int applied;
+    private final int rejected;
+    private final int productsUpdated;
+    private final List<LineResult> lines;
+    private final long durationMs;
+
+    public BulkStockAdjustmentResult(boolean committed, int applied, int rejected, int productsUpdated,
+                                     List<LineResult> lines, long durationMs) {
+        this.committed = committed;
+        this.applied = applied;
+        this.rejected = rejected;
+        this.productsUpdated = productsUpdated;
+        this.lines = lines;
+        this.durationMs = durationMs;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public int getProductsUpdated() {
+        return productsUpdated;
+    }
+
+    public List<LineResult> getLines() {
+        return lines;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public static class LineResult {
+
+        private final int line;
+        private final Long productId;
+        private final Integer delta;
+        private Status status;
+        private final Integer stock;
+        private final String message;
+
+        public LineResult(int line, Long productId, Integer delta, Status status, Integer stock, String message) {
+            this.line = line;
+            this.productId = productId;
+            this.delta = delta;
+            this.status = status;
+            this.stock = stock;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public Integer getDelta() {
+            return delta;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        // Stock tras aplicar la línea (o el disponible si se rechazó por falta de stock)
+        public Integer getStock() {
+            return stock;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
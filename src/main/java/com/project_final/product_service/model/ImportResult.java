@@ -0,0 +1,83 @@
+package com.project_final.product_service.model;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva: líneas leídas, productos insertados y filas rechazadas
+ * con su número de línea. La lista de errores se corta en un máximo configurable.
+ */
+public class ImportResult {
+
+    private final String format;
+    private final long linesRead;
+    private final long imported;
+    private final long rejected;
+    private final List<RowError> errors;
+    private final boolean errorsTruncated;
+    private final long durationMs;
+
+    public ImportResult(String format, long linesRead, long imported, long rejected,
+                        List<RowError> errors, boolean errorsTruncated, long durationMs) {
+        this.format = format;
+        this.linesRead = linesRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+        this.durationMs = durationMs;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public static class RowError {
+
+        private final long line;
+        // Campo que falla, si se conoce
+        private final String field;
+        private final String message;
+
+        public RowError(long line, String field, String message) {
+            this.line = line;
+            this.field = field;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
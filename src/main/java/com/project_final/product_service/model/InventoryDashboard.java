@@ -0,0 +1,90 @@
+package com.project_final.product_service.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resumen del inventario para el panel de operaciones (GET /api/products/stats/dashboard)
+ */
+public class InventoryDashboard {
+
+    private final long total;
+    private final long available;
+    private final long outOfStock;
+    private final long lowStock;
+    private final int lowStockThreshold;
+    private final BigDecimal inventoryValue;
+    private final List<PriceBucket> priceHistogram;
+    private final LocalDateTime generatedAt;
+
+    public InventoryDashboard(long total, long available, long lowStock, int lowStockThreshold,
+                              BigDecimal inventoryValue, List<PriceBucket> priceHistogram, LocalDateTime generatedAt) {
+        this.total = total;
+        this.available = available;
+        this.outOfStock = total - available;
+        this.lowStock = lowStock;
+        this.lowStockThreshold = lowStockThreshold;
+        this.inventoryValue = inventoryValue;
+        this.priceHistogram = priceHistogram;
+        this.generatedAt = generatedAt;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+
+    public long getOutOfStock() {
+        return outOfStock;
+    }
+
+    public long getLowStock() {
+        return lowStock;
+    }
+
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public BigDecimal getInventoryValue() {
+        return inventoryValue;
+    }
+
+    public List<PriceBucket> getPriceHistogram() {
+        return priceHistogram;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    // Tramo [from, to) del histograma de precios; to es null en el último tramo (abierto)
+    public static class PriceBucket {
+
+        private final BigDecimal from;
+        private final BigDecimal to;
+        private final long count;
+
+        public PriceBucket(BigDecimal from, BigDecimal to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public BigDecimal getFrom() {
+            return from;
+        }
+
+        public BigDecimal getTo() {
+            return to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
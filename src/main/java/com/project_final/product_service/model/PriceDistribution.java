@@ -0,0 +1,53 @@
+package com.project_final.product_service.model;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Cuantiles de precio del catálogo (todos los productos y solo los disponibles).
+ * Los valores tienen un error relativo de como mucho relativeAccuracy.
+ */
+public class PriceDistribution {
+
+    private final double relativeAccuracy;
+    private final Summary overall;
+    private final Summary available;
+
+    public PriceDistribution(double relativeAccuracy, Summary overall, Summary available) {
+        this.relativeAccuracy = relativeAccuracy;
+        this.overall = overall;
+        this.available = available;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public Summary getOverall() {
+        return overall;
+    }
+
+    public Summary getAvailable() {
+        return available;
+    }
+
+    public static class Summary {
+
+        private final long count;
+        // "p50" -> precio; null si no hay productos
+        private final Map<String, BigDecimal> quantiles;
+
+        public Summary(long count, Map<String, BigDecimal> quantiles) {
+            this.count = count;
+            this.quantiles = quantiles;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public Map<String, BigDecimal> getQuantiles() {
+            return quantiles;
+        }
+    }
+}
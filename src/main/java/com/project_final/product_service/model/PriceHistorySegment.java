@@ -0,0 +1,195 @@
+package com.project_final.product_service.model;
+
+import jakarta.persistence.*;
+
+import java.util.Arrays;
+
+/**
+ * Tramo del historial de precios de un producto. El primer cambio del tramo se guarda en columnas
+ * y los siguientes como diferencias (milisegundos, céntimos) respecto al anterior, codificadas en
+ * varint zigzag: un cambio típico ocupa 4-6 bytes. El primer y el último cambio quedan en columnas
+ * para responder "precio en el instante T" sin decodificar el tramo en la mayoría de los casos.
+ */
+@Entity
+@Table(name = "product_price_history", indexes = {
+        @Index(name = "idx_price_history_product", columnList = "product_id, first_millis")
+})
+public class PriceHistorySegment {
+
+    // Cambios por tramo; con 10 bytes por varint como máximo, los deltas caben siempre en la columna
+    public static final int MAX_ENTRIES = 128;
+    private static final int MAX_DELTA_BYTES = 4096;
+
+    // Ids por bloques de la secuencia (optimizador pooled, como ProductIdGenerator): con IDENTITY
+    // Hibernate necesita el id de cada INSERT y no puede agrupar en lotes el saveAll de los cambios masivos
+    public static final String SEQUENCE_NAME = "price_history_seq";
+    public static final int ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "price_history_id")
+    @SequenceGenerator(name = "price_history_id", sequenceName = SEQUENCE_NAME, allocationSize = ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "first_millis", nullable = false)
+    private long firstMillis;
+
+    @Column(name = "first_cents", nullable = false)
+    private long firstCents;
+
+    @Column(name = "last_millis", nullable = false)
+    private long lastMillis;
+
+    @Column(name = "last_cents", nullable = false)
+    private long lastCents;
+
+    @Column(name = "entry_count", nullable = false)
+    private int entryCount;
+
+    @Column(name = "deltas", length = MAX_DELTA_BYTES)
+    private byte[] deltas = new byte[0];
+
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void visit(long millis, long cents);
+    }
+
+    protected PriceHistorySegment() {
+    }
+
+    public PriceHistorySegment(Long productId, long millis, long cents) {
+        this.productId = productId;
+        this.firstMillis = millis;
+        this.firstCents = cents;
+        this.lastMillis = millis;
+        this.lastCents = cents;
+        this.entryCount = 1;
+    }
+
+    public boolean isFull() {
+        return entryCount >= MAX_ENTRIES;
+    }
+
+    // Añade un cambio al final; un instante anterior al último (reloj desajustado) se iguala al último
+    public void append(long millis, long cents) {
+        if (isFull()) {
+            throw new IllegalStateException("El tramo del historial de precios está completo");
+        }
+        long at = Math.max(millis, lastMillis);
+        byte[] encoded = new byte[20];
+        int length = writeVarint(encoded, 0, zigzag(at - lastMillis));
+        length = writeVarint(encoded, length, zigzag(cents - lastCents));
+
+        byte[] grown = Arrays.copyOf(deltas, deltas.length + length);
+        System.arraycopy(encoded, 0, grown, deltas.length, length);
+        deltas = grown;
+        lastMillis = at;
+        lastCents = cents;
+        entryCount++;
+    }
+
+    public void forEach(EntryVisitor visitor) {
+        decode(firstMillis, firstCents, deltas, entryCount, visitor);
+    }
+
+    // Recorre los cambios de un tramo en orden cronológico a partir de sus columnas
+    public static void decode(long firstMillis, long firstCents, byte[] deltas, int entryCount, EntryVisitor visitor) {
+        long millis = firstMillis;
+        long cents = firstCents;
+        visitor.visit(millis, cents);
+
+        int position = 0;
+        for (int i = 1; i < entryCount; i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = deltas[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            millis += unzigzag(value);
+
+            value = 0;
+            shift = 0;
+            do {
+                b = deltas[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            cents += unzigzag(value);
+
+            visitor.visit(millis, cents);
+        }
+    }
+
+    // Precio (céntimos) vigente en 'atMillis' según el tramo, o -1 si es anterior a su primer cambio
+    public static long priceAt(long firstMillis, long firstCents, long lastMillis, long lastCents,
+                               byte[] deltas, int entryCount, long atMillis) {
+        if (atMillis < firstMillis) {
+            return -1;
+        }
+        if (atMillis >= lastMillis) {
+            return lastCents;
+        }
+        long[] price = {firstCents};
+        decode(firstMillis, firstCents, deltas, entryCount, (millis, cents) -> {
+            if (millis <= atMillis) {
+                price[0] = cents;
+            }
+        });
+        return price[0];
+    }
+
+    private static int writeVarint(byte[] target, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[position++] = (byte) value;
+        return position;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public long getFirstMillis() {
+        return firstMillis;
+    }
+
+    public long getFirstCents() {
+        return firstCents;
+    }
+
+    public long getLastMillis() {
+        return lastMillis;
+    }
+
+    public long getLastCents() {
+        return lastCents;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public byte[] getDeltas() {
+        return deltas;
+    }
+}
@@ -0,0 +1,26 @@
+package com.project_final.product_service.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Precio de un producto a partir de un instante (un cambio de su historial)
+ */
+public class PricePoint {
+
+    private final LocalDateTime changedAt;
+    private final BigDecimal price;
+
+    public PricePoint(LocalDateTime changedAt, BigDecimal price) {
+        this.changedAt = changedAt;
+        this.price = price;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
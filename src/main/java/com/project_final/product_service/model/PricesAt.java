@@ -0,0 +1,34 @@
+package com.project_final.product_service.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Página de precios vigentes en un instante, por id de producto. nextAfterId es el cursor de la
+ * página siguiente (null cuando no quedan productos).
+ */
+public class PricesAt {
+
+    private final LocalDateTime at;
+    private final Map<Long, BigDecimal> prices;
+    private final Long nextAfterId;
+
+    public PricesAt(LocalDateTime at, Map<Long, BigDecimal> prices, Long nextAfterId) {
+        this.at = at;
+        this.prices = prices;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public LocalDateTime getAt() {
+        return at;
+    }
+
+    public Map<Long, BigDecimal> getPrices() {
+        return prices;
+    }
+
+    public Long getNextAfterId() {
+        return nextAfterId;
+    }
+}
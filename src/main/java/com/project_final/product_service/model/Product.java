@@ -1,18 +1,46 @@
 package com.project_final.product_service.model;
 
+import com.project_final.product_service.events.ProductEntityListener;
 import com.project_final.product_service.exceptions.InsufficientStockException;
 import com.project_final.product_service.exceptions.ProductValidationException;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.ResultCheckStyle;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.Where;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price", columnList = "price"),
+        @Index(name = "idx_products_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_products_deleted_at", columnList = "deleted_at")
+})
+// El stock vive en una tabla estrecha aparte: descontarlo bloquea y reescribe solo esa fila, sin tocar
+// la descripción ni updated_at del producto. Hibernate la une al leer y, con @DynamicUpdate, solo
+// escribe en las tablas con columnas modificadas
+@SecondaryTable(name = "product_stock",
+        pkJoinColumns = @PrimaryKeyJoinColumn(name = "product_id"),
+        foreignKey = @ForeignKey(name = "fk_product_stock_product"),
+        indexes = @Index(name = "idx_product_stock_stock", columnList = "stock"))
+// Borrado lógico: los productos borrados quedan como lápida hasta que ProductPurgeService los elimina
+@SQLDelete(sql = "UPDATE products SET deleted_at = CURRENT_TIMESTAMP WHERE id = ?")
+// La fila de stock se conserva con la lápida y se elimina en la purga
+@SQLDelete(table = "product_stock", sql = "UPDATE product_stock SET stock = stock WHERE product_id = ?",
+        check = ResultCheckStyle.NONE)
+@Where(clause = "deleted_at IS NULL")
+// Los UPDATE solo incluyen las columnas modificadas (p. ej. no reescriben la descripción al cambiar el precio)
+@DynamicUpdate
+@EntityListeners(ProductEntityListener.class)
 public class Product {
 
+    // Ids reservados por bloques (ProductIdGenerator) para poder insertar en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "product_id")
+    @GenericGenerator(name = "product_id", type = ProductIdGenerator.class)
     private Long id;
 
     @NotBlank(message = "El nombre del producto es obligatorio")
@@ -31,19 +59,28 @@ public class Product {
 
     @NotNull(message = "El stock es obligatorio")
     @Min(value = 0, message = "El stock no puede ser negativo")
-    @Column(nullable = false)
+    @Column(table = "product_stock", nullable = false)
     private Integer stock;
 
+    // Último cambio de stock; updated_at solo refleja cambios del contenido (nombre, descripción, precio)
+    @Column(name = "updated_at", table = "product_stock")
+    private LocalDateTime stockUpdatedAt;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Lápida del borrado lógico; solo la escriben y la leen sentencias SQL (@Where, borrados y purga)
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     // Constructores
     public Product() {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
+        this.stockUpdatedAt = this.updatedAt;
     }
 
     public Product(String name, String description, BigDecimal price, Integer stock) {
@@ -102,7 +139,7 @@ public class Product {
             throw new ProductValidationException("El stock no puede ser negativo");
         }
         this.stock = stock;
-        this.updatedAt = LocalDateTime.now();
+        this.stockUpdatedAt = LocalDateTime.now();
     }
 
     public LocalDateTime getCreatedAt() {
@@ -121,23 +158,34 @@ public class Product {
         this.updatedAt = updatedAt;
     }
 
-    @PreUpdate
-    public void onUpdate() {
-        this.updatedAt = LocalDateTime.now();
+    public LocalDateTime getStockUpdatedAt() {
+        return stockUpdatedAt;
+    }
+
+    public void setStockUpdatedAt(LocalDateTime stockUpdatedAt) {
+        this.stockUpdatedAt = stockUpdatedAt;
     }
 
     // Método para reducir stock con validación mejorada
     public void reduceStock(Integer quantity) {
+        if (!tryReduceStock(quantity)) {
+            throw new InsufficientStockException(this.id, this.stock, quantity);
+        }
+    }
+
+    // Igual que reduceStock, pero sin stock suficiente devuelve false y no modifica nada
+    public boolean tryReduceStock(Integer quantity) {
         if (quantity == null || quantity <= 0) {
             throw new ProductValidationException("La cantidad debe ser mayor que cero");
         }
 
         if (this.stock < quantity) {
-            throw new InsufficientStockException(this.id, this.stock, quantity);
+            return false;
         }
 
         this.stock -= quantity;
-        this.updatedAt = LocalDateTime.now();
+        this.stockUpdatedAt = LocalDateTime.now();
+        return true;
     }
 
     // Método para aumentar stock con validación
@@ -147,7 +195,7 @@ public class Product {
         }
 
         this.stock += quantity;
-        this.updatedAt = LocalDateTime.now();
+        this.stockUpdatedAt = LocalDateTime.now();
     }
 
     // Método para verificar si hay stock suficiente
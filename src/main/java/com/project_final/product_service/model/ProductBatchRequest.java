@@ -0,0 +1,98 @@
+package com.project_final.product_service.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * Lote de operaciones sobre productos, ejecutadas en orden en una sola petición. Cada operación
+ * equivale a un endpoint de ProductController. Con atomic=true, si una falla no se aplica ninguna.
+ */
+public class ProductBatchRequest {
+
+    private boolean atomic;
+    private List<Operation> operations;
+
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    public void setAtomic(boolean atomic) {
+        this.atomic = atomic;
+    }
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    public static class Operation {
+
+        public enum Type {
+            // POST /api/products
+            CREATE,
+            // PUT /api/products/{id}
+            UPDATE,
+            // PATCH /api/products/{id}
+            PATCH,
+            // DELETE /api/products/{id}
+            DELETE,
+            // PUT /api/products/{id}/reduce-stock
+            REDUCE_STOCK,
+            // PUT /api/products/{id}/increase-stock
+            INCREASE_STOCK
+        }
+
+        private Type op;
+        private Long id;
+        // Cuerpo de CREATE y UPDATE
+        private Product product;
+        // Cuerpo de PATCH (JSON Merge Patch)
+        private JsonNode patch;
+        // Cantidad de REDUCE_STOCK e INCREASE_STOCK
+        private Integer quantity;
+
+        public Type getOp() {
+            return op;
+        }
+
+        public void setOp(Type op) {
+            this.op = op;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Product getProduct() {
+            return product;
+        }
+
+        public void setProduct(Product product) {
+            this.product = product;
+        }
+
+        public JsonNode getPatch() {
+            return patch;
+        }
+
+        public void setPatch(JsonNode patch) {
+            this.patch = patch;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.project_final.product_service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Resultado de un lote: una entrada compacta por operación, en el mismo orden, con el código HTTP
+ * que habría devuelto el endpoint equivalente (424 si no se aplicó por el fallo de otra).
+ */
+public class ProductBatchResult {
+
+    private final boolean committed;
+    private final int succeeded;
+    private final int failed;
+    private final List<OperationResult> results;
+    private final long durationMs;
+
+    public ProductBatchResult(boolean committed, int succeeded, int failed, List<OperationResult> results, long durationMs) {
+        this.committed = committed;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.results = results;
+        this.durationMs = durationMs;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<OperationResult> getResults() {
+        return results;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    // Solo se serializan los campos con valor: id y stock cuando aplican, error cuando falla
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class OperationResult {
+
+        private final int index;
+        private int status;
+        private final Long id;
+        private final Integer stock;
+        private String error;
+
+        public OperationResult(int index, int status, Long id, Integer stock, String error) {
+            this.index = index;
+            this.status = status;
+            this.id = id;
+            this.stock = stock;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Integer getStock() {
+            return stock;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return status < 300;
+        }
+
+        // Una operación correcta que al final no se aplicó (lote atómico fallido o error al confirmar)
+        public void revert(int status, String error) {
+            this.status = status;
+            this.error = error;
+        }
+    }
+}
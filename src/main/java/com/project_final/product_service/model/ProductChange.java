@@ -0,0 +1,56 @@
+package com.project_final.product_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada del registro de cambios del catálogo (product_changes). seq es una secuencia monótona
+ * que hace de cursor del feed de cambios; el índice (product_id, seq) permite compactar las
+ * entradas que ya tienen otra más reciente del mismo producto. La entidad define la tabla;
+ * ProductChangeFeedService la escribe y la lee con JdbcTemplate.
+ */
+@Entity
+@Table(name = "product_changes", indexes = {
+        @Index(name = "idx_product_changes_product", columnList = "product_id, seq")
+})
+public class ProductChange {
+
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    private Type type;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    protected ProductChange() {
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+}
@@ -0,0 +1,72 @@
+package com.project_final.product_service.model;
+
+import java.util.List;
+
+/**
+ * Página del feed de cambios del catálogo, en orden de secuencia. cursor es el valor de since
+ * para la siguiente petición; hasMore indica que hay más cambios disponibles ya.
+ */
+public class ProductChangeFeed {
+
+    private final List<Change> changes;
+    private final long cursor;
+    private final boolean hasMore;
+
+    public ProductChangeFeed(List<Change> changes, long cursor, boolean hasMore) {
+        this.changes = changes;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    // Alta o modificación con el estado actual del producto, o lápida (product nulo) si se borró
+    public static class Change {
+
+        private final long seq;
+        private final ProductChange.Type type;
+        private final Long productId;
+        private final ProductSnapshot product;
+
+        public Change(long seq, ProductChange.Type type, Long productId, ProductSnapshot product) {
+            this.seq = seq;
+            this.type = type;
+            this.productId = productId;
+            this.product = product;
+        }
+
+        public static Change upsert(long seq, ProductSnapshot product) {
+            return new Change(seq, ProductChange.Type.UPSERT, product.getId(), product);
+        }
+
+        public static Change tombstone(long seq, Long productId) {
+            return new Change(seq, ProductChange.Type.DELETE, productId, null);
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public ProductChange.Type getType() {
+            return type;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public ProductSnapshot getProduct() {
+            return product;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.project_final.product_service.model;
+
+import com.project_final.product_service.exceptions.ProductValidationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Campos pedidos con ?fields= en las lecturas de productos. Solo se seleccionan esas columnas en
+ * la consulta y cada fila se devuelve como un mapa con esas claves, así que lo no pedido ni se lee
+ * ni se serializa. El id se incluye siempre: hace falta para ordenar y cachear los resultados.
+ */
+public final class ProductFields {
+
+    public static final String ID = "id";
+
+    // Atributos de Product que se pueden pedir (los derivados, como available, no)
+    public static final List<String> SELECTABLE = List.of(
+            "id", "name", "description", "price", "stock", "createdAt", "updatedAt", "stockUpdatedAt");
+
+    private final List<String> names;
+
+    private ProductFields(List<String> names) {
+        this.names = Collections.unmodifiableList(names);
+    }
+
+    // null si no se indica ?fields= (se devuelve la representación habitual)
+    public static ProductFields parse(String fields) {
+        if (fields == null) {
+            return null;
+        }
+
+        List<String> names = new ArrayList<>();
+        names.add(ID);
+        boolean requested = false;
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SELECTABLE.contains(name)) {
+                throw new ProductValidationException("fields", "Campo desconocido: " + name
+                        + ". Campos disponibles: " + String.join(", ", SELECTABLE));
+            }
+            requested = true;
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+        }
+
+        if (!requested) {
+            throw new ProductValidationException("fields", "Debe indicarse al menos un campo");
+        }
+        return new ProductFields(names);
+    }
+
+    // Columnas a seleccionar, en el orden en que se devuelven (el id primero)
+    public List<String> getNames() {
+        return names;
+    }
+
+    public boolean contains(String name) {
+        return names.contains(name);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", names);
+    }
+}
@@ -0,0 +1,34 @@
+package com.project_final.product_service.model;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Generador de ids de producto sobre la secuencia product_seq con optimizador pooled: cada acceso
+ * a la secuencia reserva un bloque de ids, así Hibernate conoce el id antes del INSERT y puede
+ * agrupar las inserciones en lotes JDBC (con IDENTITY no es posible). En MySQL, que no tiene
+ * secuencias, Hibernate la emula con una tabla de una fila. El tamaño del bloque se configura con
+ * spring.jpa.properties.product.id.allocation-size.
+ */
+public class ProductIdGenerator extends SequenceStyleGenerator {
+
+    public static final String SEQUENCE_NAME = "product_seq";
+    public static final String ALLOCATION_SIZE_SETTING = "product.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Object configured = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings().get(ALLOCATION_SIZE_SETTING);
+        int allocationSize = configured != null ? Integer.parseInt(configured.toString().trim()) : DEFAULT_ALLOCATION_SIZE;
+
+        parameters.setProperty(SEQUENCE_PARAM, SEQUENCE_NAME);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.setProperty(OPT_PARAM, "pooled");
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.project_final.product_service.model;
+
+import java.util.List;
+
+/**
+ * Resultado de un PATCH: el producto tal como queda y los campos que cambiaron de verdad
+ * (lista vacía si el parche no modificaba nada y, por tanto, no se escribió en la BD).
+ */
+public class ProductPatchResult {
+
+    private final Product product;
+    private final List<String> changedFields;
+
+    public ProductPatchResult(Product product, List<String> changedFields) {
+        this.product = product;
+        this.changedFields = changedFields;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public List<String> getChangedFields() {
+        return changedFields;
+    }
+
+    public boolean isUpdated() {
+        return !changedFields.isEmpty();
+    }
+}
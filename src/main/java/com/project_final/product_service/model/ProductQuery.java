@@ -0,0 +1,106 @@
+package com.project_final.product_service.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Criterios de la consulta combinada de productos (GET /api/products/query).
+ * Todos los filtros son opcionales; los que se indican se combinan con AND.
+ */
+public class ProductQuery {
+
+    private String name;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minStock;
+    private Integer maxStock;
+    private Boolean available;
+    private int page = 0;
+    private int size = 50;
+    private boolean countOnly;
+    // Campos de ?fields=; null para devolver los productos completos
+    private ProductFields fields;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Integer getMinStock() {
+        return minStock;
+    }
+
+    public void setMinStock(Integer minStock) {
+        this.minStock = minStock;
+    }
+
+    public Integer getMaxStock() {
+        return maxStock;
+    }
+
+    public void setMaxStock(Integer maxStock) {
+        this.maxStock = maxStock;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isCountOnly() {
+        return countOnly;
+    }
+
+    public void setCountOnly(boolean countOnly) {
+        this.countOnly = countOnly;
+    }
+
+    public ProductFields getFields() {
+        return fields;
+    }
+
+    public void setFields(ProductFields fields) {
+        this.fields = fields;
+    }
+
+    public boolean hasName() {
+        return name != null && !name.trim().isEmpty();
+    }
+}
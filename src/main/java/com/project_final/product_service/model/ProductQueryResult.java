@@ -0,0 +1,42 @@
+package com.project_final.product_service.model;
+
+import java.util.List;
+
+/**
+ * Resultado de la consulta combinada: total de coincidencias, la página pedida
+ * y el plan usado (predicados en el orden en que se evaluaron).
+ * La página contiene entidades Product o, con ?fields=, mapas con los campos pedidos.
+ */
+public class ProductQueryResult {
+
+    public static final String SOURCE_INDEX = "index";
+    public static final String SOURCE_DATABASE = "database";
+
+    private final long count;
+    private final List<?> products;
+    private final String source;
+    private final List<String> plan;
+
+    public ProductQueryResult(long count, List<?> products, String source, List<String> plan) {
+        this.count = count;
+        this.products = products;
+        this.source = source;
+        this.plan = plan;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public List<?> getProducts() {
+        return products;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<String> getPlan() {
+        return plan;
+    }
+}
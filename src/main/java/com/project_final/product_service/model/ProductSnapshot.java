@@ -0,0 +1,54 @@
+package com.project_final.product_service.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Vista inmutable y ligera de un producto (sin descripción) usada por los índices en memoria
+ * y como respuesta de los listados; la descripción solo se carga en la lectura de detalle
+ */
+public class ProductSnapshot {
+
+    private final Long id;
+    private final String name;
+    private final BigDecimal price;
+    private final Integer stock;
+    private final LocalDateTime updatedAt;
+
+    public ProductSnapshot(Long id, String name, BigDecimal price, Integer stock, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.stock = stock;
+        this.updatedAt = updatedAt;
+    }
+
+    public static ProductSnapshot from(Product product) {
+        return new ProductSnapshot(product.getId(), product.getName(), product.getPrice(),
+                product.getStock(), product.getUpdatedAt());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public boolean isAvailable() {
+        return stock != null && stock > 0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.project_final.product_service.model;
+
+import java.time.LocalDate;
+
+/**
+ * Ritmo de ventas estimado de un producto y días de cobertura con el stock actual
+ */
+public class SalesVelocity {
+
+    // Más allá de este horizonte la fecha prevista no aporta nada (y podría desbordar LocalDate)
+    private static final double MAX_PROJECTION_DAYS = 3650;
+
+    private final Long productId;
+    private final double unitsPerDay;
+    private final int stock;
+    private final Double daysOfCover;
+    private final LocalDate projectedStockout;
+
+    public SalesVelocity(Long productId, double unitsPerDay, int stock, LocalDate today) {
+        this.productId = productId;
+        this.unitsPerDay = unitsPerDay;
+        this.stock = stock;
+        // Sin ventas recientes no hay previsión de rotura de stock
+        this.daysOfCover = unitsPerDay > 0 ? stock / unitsPerDay : null;
+        this.projectedStockout = daysOfCover != null && daysOfCover <= MAX_PROJECTION_DAYS
+                ? today.plusDays((long) Math.floor(daysOfCover))
+                : null;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public double getUnitsPerDay() {
+        return unitsPerDay;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public Double getDaysOfCover() {
+        return daysOfCover;
+    }
+
+    public LocalDate getProjectedStockout() {
+        return projectedStockout;
+    }
+}
@@ -0,0 +1,87 @@
+package com.project_final.product_service.model;
+
+import com.project_final.product_service.exceptions.InsufficientStockException;
+import com.project_final.product_service.exceptions.ProductNotFoundException;
+
+/**
+ * Resultado de una operación de stock sin excepciones. Stock insuficiente y producto inexistente
+ * son resultados normales en picos de ventas: devolverlos como valor cuesta lo mismo que un éxito,
+ * sin capturar trazas de pila ni pasar por el GlobalExceptionHandler.
+ */
+public final class StockOperationResult {
+
+    public enum Status {
+        SUCCESS,
+        INSUFFICIENT_STOCK,
+        NOT_FOUND
+    }
+
+    private final Status status;
+    private final Long productId;
+    private final int quantity;
+    // Stock tras la operación o, si no alcanza, el disponible; null si el producto no existe
+    private final Integer stock;
+
+    private StockOperationResult(Status status, Long productId, int quantity, Integer stock) {
+        this.status = status;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.stock = stock;
+    }
+
+    public static StockOperationResult success(Long productId, int quantity, int stock) {
+        return new StockOperationResult(Status.SUCCESS, productId, quantity, stock);
+    }
+
+    public static StockOperationResult insufficientStock(Long productId, int quantity, int availableStock) {
+        return new StockOperationResult(Status.INSUFFICIENT_STOCK, productId, quantity, availableStock);
+    }
+
+    public static StockOperationResult notFound(Long productId, int quantity) {
+        return new StockOperationResult(Status.NOT_FOUND, productId, quantity, null);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    // Mismo texto que las excepciones equivalentes
+    public String message() {
+        switch (status) {
+            case INSUFFICIENT_STOCK:
+                return InsufficientStockException.message(productId, stock, quantity);
+            case NOT_FOUND:
+                return ProductNotFoundException.message(productId);
+            default:
+                return null;
+        }
+    }
+
+    // Para el camino heredado, que sigue informando de los fallos con excepciones (sin traza)
+    public RuntimeException toException() {
+        switch (status) {
+            case INSUFFICIENT_STOCK:
+                return new InsufficientStockException(productId, stock, quantity);
+            case NOT_FOUND:
+                return new ProductNotFoundException(productId);
+            default:
+                throw new IllegalStateException("La operación de stock no ha fallado");
+        }
+    }
+}
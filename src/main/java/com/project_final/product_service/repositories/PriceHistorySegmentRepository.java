@@ -0,0 +1,37 @@
+package com.project_final.product_service.repositories;
+
+import com.project_final.product_service.model.PriceHistorySegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PriceHistorySegmentRepository extends JpaRepository<PriceHistorySegment, Long> {
+
+    // Último tramo de un producto. Quien va a añadir un cambio bloquea antes la fila del producto
+    // (ProductRepository.lockAllById): un bloqueo sobre el tramo no cubre el primero, que aún no existe
+    Optional<PriceHistorySegment> findFirstByProductIdOrderByFirstMillisDesc(Long productId);
+
+    // Último tramo de cada producto de la lista, con las filas de los productos ya bloqueadas
+    @Query("SELECT s FROM PriceHistorySegment s WHERE s.productId IN :productIds AND s.firstMillis = " +
+            "(SELECT MAX(s2.firstMillis) FROM PriceHistorySegment s2 WHERE s2.productId = s.productId)")
+    List<PriceHistorySegment> findLatestForProducts(@Param("productIds") Collection<Long> productIds);
+
+    // Tramos que se solapan con el intervalo [fromMillis, toMillis]
+    @Query("SELECT s FROM PriceHistorySegment s WHERE s.productId = :productId " +
+            "AND s.lastMillis >= :fromMillis AND s.firstMillis <= :toMillis ORDER BY s.firstMillis")
+    List<PriceHistorySegment> findOverlapping(@Param("productId") Long productId,
+                                              @Param("fromMillis") long fromMillis,
+                                              @Param("toMillis") long toMillis);
+
+    // Tramo anterior al intervalo: su último precio es el vigente al empezar el intervalo
+    Optional<PriceHistorySegment> findFirstByProductIdAndLastMillisLessThanOrderByLastMillisDesc(Long productId,
+                                                                                               long beforeMillis);
+
+    boolean existsByProductId(Long productId);
+}
@@ -0,0 +1,29 @@
+package com.project_final.product_service.repositories;
+
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductFields;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecturas con campos a elección (?fields=): la consulta solo selecciona las columnas pedidas
+ * y cada fila es un mapa ordenado con esas claves
+ */
+public interface ProductFieldsRepository {
+
+    // Sin límite de filas
+    int NO_LIMIT = Integer.MAX_VALUE;
+
+    // Propiedad de orden derivada: el más reciente entre updatedAt y stockUpdatedAt
+    String LAST_MODIFIED = "lastModifiedAt";
+
+    List<Map<String, Object>> findFields(ProductFields fields, Specification<Product> spec, Sort sort,
+                                         int offset, int limit);
+
+    // Filas de los IDs indicados, en cualquier orden
+    List<Map<String, Object>> findFieldsByIdIn(ProductFields fields, Collection<Long> ids);
+}
@@ -0,0 +1,101 @@
+package com.project_final.product_service.repositories;
+
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductFields;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación de ProductFieldsRepository con una consulta Criteria de tuplas: el SELECT lleva
+ * solo los atributos pedidos, de modo que la descripción (TEXT) no se lee salvo que se pida.
+ * Al consultar la entidad se aplica igualmente el filtro de borrado lógico (@Where).
+ */
+public class ProductFieldsRepositoryImpl implements ProductFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(ProductFields fields, Specification<Product> spec, Sort sort,
+                                                int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.getNames().size());
+        for (String name : fields.getNames()) {
+            selections.add(root.get(name).alias(name));
+        }
+        query.multiselect(selections);
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Expression<?> property = orderExpression(cb, root, order.getProperty());
+            orders.add(order.isAscending() ? cb.asc(property) : cb.desc(property));
+        }
+        if (!orders.isEmpty()) {
+            query.orderBy(orders);
+        }
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (offset > 0) {
+            typed.setFirstResult(offset);
+        }
+        if (limit != NO_LIMIT) {
+            typed.setMaxResults(limit);
+        }
+
+        List<Tuple> tuples = typed.getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String name : fields.getNames()) {
+                row.put(name, tuple.get(name));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Expression<?> orderExpression(CriteriaBuilder cb, Root<Product> root, String property) {
+        if (LAST_MODIFIED.equals(property)) {
+            Expression<LocalDateTime> updatedAt = root.get("updatedAt");
+            Expression<LocalDateTime> stockUpdatedAt = cb.coalesce(root.get("stockUpdatedAt"), updatedAt);
+            return cb.function("greatest", LocalDateTime.class, updatedAt, stockUpdatedAt);
+        }
+        return root.get(property);
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByIdIn(ProductFields fields, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return findFields(fields, ProductSpecifications.idIn(ids), Sort.unsorted(), 0, NO_LIMIT);
+    }
+}
@@ -0,0 +1,63 @@
+package com.project_final.product_service.repositories;
+
+import com.project_final.product_service.model.PriceHistorySegment;
+import com.project_final.product_service.model.ProductIdGenerator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Migración de los ids AUTO_INCREMENT a secuencias en MySQL (product_seq para los productos y
+ * price_history_seq para los tramos del historial de precios): al arrancar, si la tabla que emula
+ * una secuencia está por detrás del mayor id existente (p. ej. recién creada por ddl-auto), la
+ * adelanta para que los bloques reservados no choquen con filas ya insertadas.
+ * Equivale a ejecutar db/mysql/product-id-sequence.sql y db/mysql/price-history-sequence.sql;
+ * con secuencias nativas no hace nada.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductIdSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIdSequenceAligner.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.product.id.allocation-size:50}")
+    private int allocationSize = ProductIdGenerator.DEFAULT_ALLOCATION_SIZE;
+
+    @PostConstruct
+    public void align() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (database == null || !database.toLowerCase(Locale.ROOT).contains("mysql")) {
+            return;
+        }
+
+        alignSequence(ProductIdGenerator.SEQUENCE_NAME, "products", allocationSize);
+        alignSequence(PriceHistorySegment.SEQUENCE_NAME, "product_price_history", PriceHistorySegment.ALLOCATION_SIZE);
+    }
+
+    private void alignSequence(String sequenceTable, String table, int blockSize) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        // El optimizador pooled entrega ids por debajo del valor leído: se deja un bloque de margen
+        long nextValue = (maxId != null ? maxId : 0L) + blockSize + 1;
+
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + sequenceTable, Long.class);
+        int changed = rows != null && rows > 0
+                ? jdbcTemplate.update("UPDATE " + sequenceTable + " SET next_val = ? WHERE next_val < ?", nextValue, nextValue)
+                : jdbcTemplate.update("INSERT INTO " + sequenceTable + " (next_val) VALUES (?)", nextValue);
+
+        if (changed > 0) {
+            logger.info("Secuencia {} adelantada a {} (mayor id de {}: {})", sequenceTable, nextValue, table, maxId);
+        }
+    }
+}
@@ -1,32 +1,54 @@
 package com.project_final.product_service.repositories;
 
 import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductSnapshot;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductFieldsRepository {
+
+    // Proyección de los listados: sin la descripción (TEXT) ni las fechas que solo muestra el detalle
+    String SNAPSHOT = "SELECT new com.project_final.product_service.model.ProductSnapshot(p.id, p.name, p.price, p.stock, p.updatedAt) ";
+
+    // Listado completo del catálogo
+    @Query(SNAPSHOT + "FROM Product p")
+    List<ProductSnapshot> findAllSnapshots();
+
+    // Listado de los IDs indicados (resultados de los índices en memoria), en cualquier orden
+    @Query(SNAPSHOT + "FROM Product p WHERE p.id IN :ids")
+    List<ProductSnapshot> findSnapshotsByIdIn(@Param("ids") Collection<Long> ids);
 
     // Buscar productos por nombre (contiene)
-    @Query("SELECT p FROM Product p WHERE p.name LIKE %:name%")
-    List<Product> findByNameContaining(@Param("name") String name);
+    @Query(SNAPSHOT + "FROM Product p WHERE p.name LIKE %:name%")
+    List<ProductSnapshot> findByNameContaining(@Param("name") String name);
 
     // Buscar productos con stock disponible
-    @Query("SELECT p FROM Product p WHERE p.stock > 0")
-    List<Product> findAvailableProducts();
+    @Query(SNAPSHOT + "FROM Product p WHERE p.stock > 0")
+    List<ProductSnapshot> findAvailableProducts();
 
     // Buscar productos por rango de precio
-    @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
-    List<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
+    @Query(SNAPSHOT + "FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
+    List<ProductSnapshot> findByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
+
+    // Buscar productos con stock por rango de precio
+    @Query(SNAPSHOT + "FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice AND p.stock > 0")
+    List<ProductSnapshot> findAvailableByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
 
     // Buscar productos con stock bajo (menos de X unidades)
-    @Query("SELECT p FROM Product p WHERE p.stock < :threshold")
-    List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
+    @Query(SNAPSHOT + "FROM Product p WHERE p.stock < :threshold")
+    List<ProductSnapshot> findLowStockProducts(@Param("threshold") Integer threshold);
 
     // Contar productos disponibles
     @Query("SELECT COUNT(p) FROM Product p WHERE p.stock > 0")
@@ -39,4 +61,42 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Verificar si hay stock suficiente
     @Query("SELECT CASE WHEN p.stock >= :quantity THEN true ELSE false END FROM Product p WHERE p.id = :productId")
     Boolean hasEnoughStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+
+    // Top-N: consultas ordenadas por columna indexada con LIMIT (Pageable), sin cargar el catálogo.
+    // Los recientes ordenan por el último cambio de datos o de stock (repuestos incluidos)
+    @Query(SNAPSHOT + "FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice " +
+            "AND (:availableOnly = false OR p.stock > 0) ORDER BY p.price ASC, p.id ASC")
+    List<ProductSnapshot> findCheapest(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                                       @Param("availableOnly") boolean availableOnly, Pageable pageable);
+
+    @Query(SNAPSHOT + "FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice " +
+            "AND (:availableOnly = false OR p.stock > 0) ORDER BY p.stock DESC, p.id ASC")
+    List<ProductSnapshot> findMostStocked(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                                          @Param("availableOnly") boolean availableOnly, Pageable pageable);
+
+    @Query(SNAPSHOT + "FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice " +
+            "AND (:availableOnly = false OR p.stock > 0) " +
+            "ORDER BY greatest(p.updatedAt, coalesce(p.stockUpdatedAt, p.updatedAt)) DESC, p.id DESC")
+    List<ProductSnapshot> findRecentlyUpdated(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+                                              @Param("availableOnly") boolean availableOnly, Pageable pageable);
+
+    // Borrado lógico en una sola sentencia; 0 filas si no existe o ya estaba borrado.
+    // SQL nativo: con la tabla secundaria de stock, un UPDATE JPQL pasaría por tablas temporales
+    @Modifying
+    @Query(value = "UPDATE products SET deleted_at = :deletedAt WHERE id = :id AND deleted_at IS NULL", nativeQuery = true)
+    int softDeleteById(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    // Lápida para varios productos en una sola sentencia (lotes de operaciones)
+    @Modifying
+    @Query(value = "UPDATE products SET deleted_at = :deletedAt WHERE id IN (:ids) AND deleted_at IS NULL", nativeQuery = true)
+    int softDeleteAllById(@Param("ids") Collection<Long> ids, @Param("deletedAt") LocalDateTime deletedAt);
+
+    // Bloquea las filas de los productos (en orden de id, para no interbloquearse con otro lote).
+    // Serializa la escritura de su historial de precios aunque aún no tengan ningún tramo que bloquear
+    @Query(value = "SELECT id FROM products WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllById(@Param("ids") Collection<Long> ids);
+
+    // Recorrido del catálogo por páginas (keyset) para cargar los índices en memoria
+    @Query(SNAPSHOT + "FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSnapshot> findSnapshotsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,93 @@
+package com.project_final.product_service.repositories;
+
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Traducción de ProductQuery a criterios JPA, usada cuando los índices en memoria no están cargados,
+ * y los filtros de los listados para las lecturas con ?fields=
+ */
+public final class ProductSpecifications {
+
+    // Caracteres no alfanuméricos frecuentes en los nombres que separan palabras
+    private static final List<String> WORD_SEPARATORS = List.of("-", "/", ".", ",", "_", "(", ")", "+", "&", "'", "\"");
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductQuery query, List<String> nameTerms) {
+        return (root, criteriaQuery, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            for (String term : nameTerms) {
+                predicates.add(wordPrefix(cb, root, term));
+            }
+            if (query.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), query.getMinPrice()));
+            }
+            if (query.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), query.getMaxPrice()));
+            }
+            if (query.getMinStock() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("stock"), query.getMinStock()));
+            }
+            if (query.getMaxStock() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("stock"), query.getMaxStock()));
+            }
+            if (query.getAvailable() != null) {
+                predicates.add(query.getAvailable()
+                        ? cb.gt(root.get("stock"), 0)
+                        : cb.le(root.get("stock"), 0));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Misma semántica que ProductBitmapIndex.nameTerm: alguna palabra del nombre empieza por el término
+     * (ya normalizado). Los separadores habituales se convierten en espacios, como hace SearchText.normalize;
+     * las tildes dependen de la collation de la BD (la de MySQL por defecto las ignora).
+     */
+    private static Predicate wordPrefix(CriteriaBuilder cb, Root<Product> root, String term) {
+        Expression<String> name = cb.lower(root.get("name"));
+        for (String separator : WORD_SEPARATORS) {
+            name = cb.function("replace", String.class, name, cb.literal(separator), cb.literal(" "));
+        }
+        return cb.or(cb.like(name, term + "%"), cb.like(name, "% " + term + "%"));
+    }
+
+    // Mismas condiciones que las consultas de listado de ProductRepository
+    public static Specification<Product> nameContains(String name) {
+        return (root, criteriaQuery, cb) -> cb.like(root.get("name"), "%" + name + "%");
+    }
+
+    public static Specification<Product> available() {
+        return (root, criteriaQuery, cb) -> cb.gt(root.get("stock"), 0);
+    }
+
+    public static Specification<Product> priceBetween(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly) {
+        return (root, criteriaQuery, cb) -> {
+            Predicate price = cb.between(root.get("price"), minPrice, maxPrice);
+            return availableOnly ? cb.and(price, cb.gt(root.get("stock"), 0)) : price;
+        };
+    }
+
+    public static Specification<Product> stockBelow(Integer threshold) {
+        return (root, criteriaQuery, cb) -> cb.lessThan(root.get("stock"), threshold);
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, criteriaQuery, cb) -> root.get("id").in(ids);
+    }
+}
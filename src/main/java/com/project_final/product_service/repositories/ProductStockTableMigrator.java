@@ -0,0 +1,56 @@
+package com.project_final.product_service.repositories;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Migración del stock de products.stock a la tabla product_stock en MySQL: al arrancar, si la
+ * columna antigua sigue existiendo, copia a product_stock (recién creada por ddl-auto) el stock de
+ * los productos que aún no tienen fila y deja la columna antigua como admisible a nulos, porque las
+ * inserciones ya no la escriben. Equivale a los pasos 1 a 3 de db/mysql/product-stock-table.sql.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductStockTableMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductStockTableMigrator.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (database == null || !database.toLowerCase(Locale.ROOT).contains("mysql")) {
+            return;
+        }
+
+        List<String> legacyColumn = jdbcTemplate.queryForList("SELECT is_nullable FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = 'products' AND column_name = 'stock'", String.class);
+        if (legacyColumn.isEmpty()) {
+            return;
+        }
+
+        int copied = jdbcTemplate.update("INSERT INTO product_stock (product_id, stock, updated_at) "
+                + "SELECT p.id, COALESCE(p.stock, 0), p.updated_at FROM products p "
+                + "LEFT JOIN product_stock s ON s.product_id = p.id WHERE s.product_id IS NULL");
+        // Solo la primera vez: un ALTER en cada arranque podría reconstruir la tabla
+        if ("NO".equalsIgnoreCase(legacyColumn.get(0))) {
+            jdbcTemplate.execute("ALTER TABLE products MODIFY stock INT NULL");
+        }
+
+        if (copied > 0) {
+            logger.info("Stock de {} productos copiado a product_stock; products.stock puede retirarse", copied);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.BulkDeleteRequest;
+import com.project_final.product_service.model.BulkDeleteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Borrado lógico masivo: por cada tramo de ids, un SELECT ... FOR UPDATE de los que siguen vivos
+ * y un UPDATE que les pone la lápida, todo en una transacción. Las filas se eliminan físicamente
+ * más tarde, fuera de horas punta, en ProductPurgeService.
+ */
+@Service
+public class BulkDeleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkDeleteService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.bulk.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${product.bulk.max-items:100000}")
+    private int maxItems = 100000;
+
+    @Value("${product.bulk.max-errors:100}")
+    private int maxErrors = 100;
+
+    public BulkDeleteResult deleteProducts(BulkDeleteRequest request) {
+        if (request == null || request.getIds() == null || request.getIds().isEmpty()
+                || request.getIds().size() > maxItems) {
+            throw new ProductValidationException("ids", "La lista de ids debe tener entre 1 y " + maxItems + " elementos");
+        }
+        if (request.getIds().stream().anyMatch(Objects::isNull)) {
+            throw new ProductValidationException("ids", "El ID del producto no puede ser nulo");
+        }
+
+        long start = System.currentTimeMillis();
+        List<Long> ids = new ArrayList<>(new TreeSet<>(request.getIds()));
+        Set<Long> deleted = new HashSet<>();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                List<Long> alive = jdbcTemplate.queryForList("SELECT id FROM products WHERE deleted_at IS NULL "
+                        + "AND id IN (" + placeholders(chunk.size()) + ") ORDER BY id FOR UPDATE", Long.class, chunk.toArray());
+                if (alive.isEmpty()) {
+                    continue;
+                }
+
+                List<Object> args = new ArrayList<>(alive.size() + 1);
+                args.add(now);
+                args.addAll(alive);
+                jdbcTemplate.update("UPDATE products SET deleted_at = ? WHERE id IN (" + placeholders(alive.size()) + ")",
+                        args.toArray());
+                deleted.addAll(alive);
+
+                // Se entregan tras el commit (ProductIndexManager), como los de un borrado normal
+                for (Long id : alive) {
+                    eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+                }
+            }
+        });
+
+        List<Long> notFoundIds = new ArrayList<>();
+        int notFound = 0;
+        for (Long id : ids) {
+            if (!deleted.contains(id)) {
+                notFound++;
+                if (notFoundIds.size() < maxErrors) {
+                    notFoundIds.add(id);
+                }
+            }
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        logger.info("Borrado masivo: {} productos borrados, {} no encontrados en {} ms", deleted.size(), notFound, duration);
+        return new BulkDeleteResult(ids.size(), deleted.size(), notFound, notFoundIds, notFound > notFoundIds.size(), duration);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
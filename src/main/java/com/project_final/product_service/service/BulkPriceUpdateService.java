@@ -0,0 +1,298 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.BulkPriceUpdateRequest;
+import com.project_final.product_service.model.BulkPriceUpdateRequest.PriceRule;
+import com.project_final.product_service.model.BulkPriceUpdateResult;
+import com.project_final.product_service.model.BulkPriceUpdateResult.Rejection;
+import com.project_final.product_service.model.ProductSnapshot;
+import com.project_final.product_service.service.PriceHistoryService.PriceChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Cambio masivo de precios por tramos de ids. Cada tramo es una transacción con dos sentencias:
+ * un SELECT ... FOR UPDATE de las filas afectadas y un único UPDATE con CASE para las que cambian.
+ * Los precios nuevos se calculan aquí (misma aritmética decimal que la BD), de modo que el
+ * historial de precios y los eventos para índices y cachés llevan exactamente el valor escrito.
+ */
+@Service
+public class BulkPriceUpdateService {
+
+    private static final BigDecimal MIN_PRICE = new BigDecimal("0.01");
+    private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
+
+    // El stock (solo para los eventos) sale de una subconsulta: FOR UPDATE no bloquea las filas de product_stock
+    private static final String SELECT_COLUMNS = "SELECT id, name, price, "
+            + "(SELECT s.stock FROM product_stock s WHERE s.product_id = products.id) AS stock, created_at "
+            + "FROM products WHERE deleted_at IS NULL AND ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.bulk.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${product.bulk.max-items:100000}")
+    private int maxItems = 100000;
+
+    @Value("${product.bulk.max-errors:100}")
+    private int maxErrors = 100;
+
+    public BulkPriceUpdateResult updatePrices(BulkPriceUpdateRequest request) {
+        if (request == null || (request.getPrices() == null) == (request.getRule() == null)) {
+            throw new ProductValidationException("Debe indicarse una lista de precios o una regla, pero no ambas");
+        }
+
+        long start = System.currentTimeMillis();
+        Summary summary = new Summary();
+        String mode;
+        if (request.getPrices() != null) {
+            mode = "PRICES";
+            applyPrices(request.getPrices(), summary);
+        } else {
+            mode = request.getRule().getType() == null ? null : request.getRule().getType().name();
+            applyRule(request.getRule(), summary);
+        }
+
+        return new BulkPriceUpdateResult(mode, summary.matched, summary.updated, summary.unchanged, summary.rejected,
+                summary.notFound, summary.rejections, summary.rejected > summary.rejections.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    // Pares (id, precio): los precios inválidos se rechazan uno a uno, un id repetido invalida la petición
+    private void applyPrices(List<BulkPriceUpdateRequest.Item> items, Summary summary) {
+        if (items.isEmpty() || items.size() > maxItems) {
+            throw new ProductValidationException("prices", "La lista de precios debe tener entre 1 y " + maxItems + " elementos");
+        }
+
+        Map<Long, BigDecimal> targets = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (BulkPriceUpdateRequest.Item item : items) {
+            if (item == null || item.getId() == null) {
+                throw new ProductValidationException("prices", "Cada elemento debe indicar el id del producto");
+            }
+            if (!seen.add(item.getId())) {
+                throw new ProductValidationException("prices", "Producto repetido en la lista: " + item.getId());
+            }
+            String error = validatePrice(item.getPrice());
+            if (error != null) {
+                summary.reject(item.getId(), error);
+            } else {
+                targets.put(item.getId(), item.getPrice().setScale(2, RoundingMode.HALF_UP));
+            }
+        }
+
+        // Siempre en orden de id: dos peticiones simultáneas bloquean las filas en el mismo orden
+        List<Long> ids = new ArrayList<>(targets.keySet());
+        Collections.sort(ids);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            inTransaction(() -> {
+                List<PriceRow> rows = lockRows("id IN (" + placeholders(chunk.size()) + ")", chunk.toArray());
+                summary.notFound += chunk.size() - rows.size();
+                apply(rows, row -> targets.get(row.id), summary);
+            });
+        }
+    }
+
+    // Regla: recorrido por keyset de los productos en el rango de precio (o de los ids indicados)
+    private void applyRule(PriceRule rule, Summary summary) {
+        if (rule.getType() == null || rule.getAmount() == null) {
+            throw new ProductValidationException("rule", "La regla debe indicar el tipo y el importe");
+        }
+        if (rule.getType() == PriceRule.Type.PERCENTAGE && rule.getAmount().compareTo(ONE_HUNDRED.negate()) <= 0) {
+            throw new ProductValidationException("amount", "El porcentaje debe ser mayor que -100");
+        }
+        BigDecimal minPrice = rule.getMinPrice() != null ? rule.getMinPrice() : BigDecimal.ZERO;
+        BigDecimal maxPrice = rule.getMaxPrice() != null ? rule.getMaxPrice() : ProductService.MAX_PRICE;
+        if (minPrice.compareTo(BigDecimal.ZERO) < 0 || maxPrice.compareTo(BigDecimal.ZERO) < 0) {
+            throw new ProductValidationException("Los precios no pueden ser negativos");
+        }
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw ProductValidationException.invalidPriceRange();
+        }
+
+        Function<PriceRow, BigDecimal> newPrice;
+        if (rule.getType() == PriceRule.Type.PERCENTAGE) {
+            BigDecimal factor = BigDecimal.ONE.add(rule.getAmount().movePointLeft(2));
+            newPrice = row -> row.price.multiply(factor).setScale(2, RoundingMode.HALF_UP);
+        } else {
+            newPrice = row -> row.price.add(rule.getAmount()).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        if (rule.getIds() != null) {
+            if (rule.getIds().isEmpty() || rule.getIds().size() > maxItems) {
+                throw new ProductValidationException("ids", "La lista de ids debe tener entre 1 y " + maxItems + " elementos");
+            }
+            List<Long> ids = new ArrayList<>(new TreeSet<>(rule.getIds()));
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                List<Object> args = new ArrayList<>(chunk);
+                args.add(minPrice);
+                args.add(maxPrice);
+                inTransaction(() -> apply(lockRows("id IN (" + placeholders(chunk.size()) + ") AND price BETWEEN ? AND ?",
+                        args.toArray()), newPrice, summary));
+            }
+            return;
+        }
+
+        long[] afterId = {0L};
+        int[] loaded = new int[1];
+        do {
+            inTransaction(() -> {
+                List<PriceRow> rows = lockRows("id > ? AND price BETWEEN ? AND ? ORDER BY id LIMIT ?",
+                        afterId[0], minPrice, maxPrice, chunkSize);
+                loaded[0] = rows.size();
+                if (!rows.isEmpty()) {
+                    afterId[0] = rows.get(rows.size() - 1).id;
+                    apply(rows, newPrice, summary);
+                }
+            });
+        } while (loaded[0] == chunkSize);
+    }
+
+    // Calcula y valida los precios nuevos del tramo y escribe los que cambian con un único UPDATE
+    private void apply(List<PriceRow> rows, Function<PriceRow, BigDecimal> newPrice, Summary summary) {
+        List<PriceRow> changed = new ArrayList<>();
+        for (PriceRow row : rows) {
+            summary.matched++;
+            BigDecimal target = newPrice.apply(row);
+            String error = validatePrice(target);
+            if (error != null) {
+                summary.reject(row.id, error);
+            } else if (target.compareTo(row.price) == 0) {
+                summary.unchanged++;
+            } else {
+                row.newPrice = target;
+                changed.add(row);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        StringBuilder sql = new StringBuilder("UPDATE products SET price = CASE id");
+        List<Object> args = new ArrayList<>(changed.size() * 3 + 1);
+        for (PriceRow row : changed) {
+            sql.append(" WHEN ? THEN ?");
+            args.add(row.id);
+            args.add(row.newPrice);
+        }
+        sql.append(" ELSE price END, updated_at = ? WHERE id IN (").append(placeholders(changed.size())).append(")");
+        args.add(Timestamp.valueOf(now));
+        for (PriceRow row : changed) {
+            args.add(row.id);
+        }
+        jdbcTemplate.update(sql.toString(), args.toArray());
+
+        // El UPDATE no pasa por JPA: historial y eventos (índices, cachés) se alimentan a mano
+        List<PriceChange> changes = new ArrayList<>(changed.size());
+        for (PriceRow row : changed) {
+            changes.add(new PriceChange(row.id, row.createdAt, row.price, row.newPrice, now));
+        }
+        priceHistoryService.recordPriceChanges(changes);
+        for (PriceRow row : changed) {
+            eventPublisher.publishEvent(ProductChangedEvent.updated(
+                    new ProductSnapshot(row.id, row.name, row.newPrice, row.stock, now)));
+        }
+        summary.updated += changed.size();
+    }
+
+    private List<PriceRow> lockRows(String condition, Object... args) {
+        return jdbcTemplate.query(SELECT_COLUMNS + condition + " FOR UPDATE", PRICE_ROW_MAPPER, args);
+    }
+
+    private void inTransaction(Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+    }
+
+    private static String validatePrice(BigDecimal price) {
+        if (price == null) {
+            return "El precio es obligatorio";
+        }
+        if (price.compareTo(MIN_PRICE) < 0) {
+            return "Precio inválido: " + price + ". El precio debe ser mayor que cero";
+        }
+        if (price.compareTo(ProductService.MAX_PRICE) > 0) {
+            return "Precio inválido: " + price + ". El máximo es " + ProductService.MAX_PRICE;
+        }
+        return null;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static final RowMapper<PriceRow> PRICE_ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new PriceRow(rs.getLong("id"), rs.getString("name"), rs.getBigDecimal("price"),
+                rs.getInt("stock"), createdAt != null ? createdAt.toLocalDateTime() : null);
+    };
+
+    private static final class PriceRow {
+
+        private final long id;
+        private final String name;
+        private final BigDecimal price;
+        private final int stock;
+        private final LocalDateTime createdAt;
+        private BigDecimal newPrice;
+
+        private PriceRow(long id, String name, BigDecimal price, int stock, LocalDateTime createdAt) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.stock = stock;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final class Summary {
+
+        private long matched;
+        private long updated;
+        private long unchanged;
+        private long rejected;
+        private long notFound;
+        private final List<Rejection> rejections = new ArrayList<>();
+
+        void reject(Long productId, String message) {
+            rejected++;
+            if (rejections.size() < maxErrors) {
+                rejections.add(new Rejection(productId, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.BulkStockAdjustmentRequest;
+import com.project_final.product_service.model.BulkStockAdjustmentResult;
+import com.project_final.product_service.model.BulkStockAdjustmentResult.LineResult;
+import com.project_final.product_service.model.BulkStockAdjustmentResult.Status;
+import com.project_final.product_service.model.ProductSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Ajuste masivo de stock en una sola transacción: un SELECT ... FOR UPDATE de las filas de
+ * product_stock del albarán, las líneas se validan en orden sobre el stock bloqueado (una línea que
+ * dejaría el stock en negativo se rechaza sin afectar a las demás) y los productos que cambian se
+ * escriben con un único UPDATE con CASE. La fila ancha de products solo se lee, sin bloquearla.
+ * Con muchos productos las sentencias se trocean, dentro de la misma transacción, en tramos de
+ * product.bulk.chunk-size ids.
+ */
+@Service
+public class BulkStockAdjustmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkStockAdjustmentService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.bulk.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${product.bulk.max-items:100000}")
+    private int maxItems = 100000;
+
+    public BulkStockAdjustmentResult adjustStock(BulkStockAdjustmentRequest request) {
+        if (request == null || request.getLines() == null || request.getLines().isEmpty()
+                || request.getLines().size() > maxItems) {
+            throw new ProductValidationException("lines", "El ajuste debe tener entre 1 y " + maxItems + " líneas");
+        }
+
+        long start = System.currentTimeMillis();
+        List<BulkStockAdjustmentRequest.Line> lines = request.getLines();
+        List<LineResult> results = new ArrayList<>(lines.size());
+        int[] productsUpdated = new int[1];
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Map<Long, StockRow> rows = lockRows(lines);
+
+            // Las líneas se aplican en orden sobre el stock en curso: dos líneas del mismo producto se acumulan
+            for (int i = 0; i < lines.size(); i++) {
+                results.add(applyLine(i + 1, lines.get(i), rows));
+            }
+
+            boolean rejected = results.stream().anyMatch(result -> result.getStatus() != Status.APPLIED);
+            if (rejected && request.isAllOrNothing()) {
+                for (LineResult result : results) {
+                    if (result.getStatus() == Status.APPLIED) {
+                        result.setStatus(Status.NOT_APPLIED);
+                    }
+                }
+                return;
+            }
+
+            List<StockRow> changed = new ArrayList<>();
+            for (StockRow row : rows.values()) {
+                if (row.newStock != row.stock) {
+                    changed.add(row);
+                }
+            }
+            write(changed);
+            productsUpdated[0] = changed.size();
+        });
+
+        int applied = 0;
+        int rejected = 0;
+        for (LineResult result : results) {
+            if (result.getStatus() == Status.APPLIED) {
+                applied++;
+            } else if (result.getStatus() != Status.NOT_APPLIED) {
+                rejected++;
+            }
+        }
+        boolean committed = !(request.isAllOrNothing() && rejected > 0);
+        long duration = System.currentTimeMillis() - start;
+        logger.info("Ajuste masivo de stock: {} líneas aplicadas, {} rechazadas, {} productos actualizados en {} ms",
+                applied, rejected, productsUpdated[0], duration);
+
+        return new BulkStockAdjustmentResult(committed, applied, rejected, productsUpdated[0], results, duration);
+    }
+
+    private LineResult applyLine(int number, BulkStockAdjustmentRequest.Line line, Map<Long, StockRow> rows) {
+        Long productId = line == null ? null : line.getId();
+        Integer delta = line == null ? null : line.getDelta();
+        if (productId == null) {
+            return new LineResult(number, null, delta, Status.INVALID, null, "El ID del producto no puede ser nulo");
+        }
+        if (delta == null || delta == 0) {
+            return new LineResult(number, productId, delta, Status.INVALID, null, "La variación de stock no puede ser nula ni cero");
+        }
+
+        StockRow row = rows.get(productId);
+        if (row == null) {
+            return new LineResult(number, productId, delta, Status.NOT_FOUND, null, "Producto no encontrado");
+        }
+        long target = (long) row.newStock + delta;
+        if (target < 0) {
+            return new LineResult(number, productId, delta, Status.INSUFFICIENT_STOCK, row.newStock,
+                    "Stock insuficiente: disponible " + row.newStock + ", solicitado " + (-delta));
+        }
+        if (target > Integer.MAX_VALUE) {
+            return new LineResult(number, productId, delta, Status.INVALID, row.newStock, "El stock resultante es demasiado grande");
+        }
+        row.newStock = (int) target;
+        return new LineResult(number, productId, delta, Status.APPLIED, row.newStock, null);
+    }
+
+    // Bloquea el stock de los productos del ajuste en orden de id, para no cruzarse con otro ajuste simultáneo
+    private Map<Long, StockRow> lockRows(List<BulkStockAdjustmentRequest.Line> lines) {
+        TreeSet<Long> ids = new TreeSet<>();
+        for (BulkStockAdjustmentRequest.Line line : lines) {
+            if (line != null && line.getId() != null) {
+                ids.add(line.getId());
+            }
+        }
+
+        Map<Long, StockRow> rows = new HashMap<>();
+        List<Long> sorted = new ArrayList<>(ids);
+        for (int from = 0; from < sorted.size(); from += chunkSize) {
+            List<Long> chunk = sorted.subList(from, Math.min(from + chunkSize, sorted.size()));
+            Map<Long, Integer> stocks = new HashMap<>();
+            jdbcTemplate.query("SELECT product_id, stock FROM product_stock WHERE product_id IN ("
+                    + placeholders(chunk.size()) + ") ORDER BY product_id FOR UPDATE",
+                    rs -> {
+                        stocks.put(rs.getLong("product_id"), rs.getInt("stock"));
+                    }, chunk.toArray());
+            if (stocks.isEmpty()) {
+                continue;
+            }
+
+            // Nombre y precio solo hacen falta para los eventos; los borrados quedan fuera como no encontrados
+            List<StockRow> alive = jdbcTemplate.query("SELECT id, name, price, updated_at FROM products "
+                    + "WHERE deleted_at IS NULL AND id IN (" + placeholders(stocks.size()) + ")",
+                    STOCK_ROW_MAPPER, stocks.keySet().toArray());
+            for (StockRow row : alive) {
+                Integer stock = stocks.get(row.id);
+                if (stock != null) {
+                    row.stock = stock;
+                    row.newStock = stock;
+                    rows.put(row.id, row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void write(List<StockRow> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < changed.size(); from += chunkSize) {
+            List<StockRow> chunk = changed.subList(from, Math.min(from + chunkSize, changed.size()));
+            StringBuilder sql = new StringBuilder("UPDATE product_stock SET stock = CASE product_id");
+            List<Object> args = new ArrayList<>(chunk.size() * 3 + 1);
+            for (StockRow row : chunk) {
+                sql.append(" WHEN ? THEN ?");
+                args.add(row.id);
+                args.add(row.newStock);
+            }
+            sql.append(" ELSE stock END, updated_at = ? WHERE product_id IN (").append(placeholders(chunk.size())).append(")");
+            args.add(Timestamp.valueOf(now));
+            for (StockRow row : chunk) {
+                args.add(row.id);
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+
+        // El UPDATE no pasa por JPA: índices, contadores y alertas de stock bajo se alimentan a mano.
+        // Un ajuste no es una venta, así que no se publica StockReducedEvent. El contenido del
+        // producto no cambia, así que el evento conserva su updated_at
+        for (StockRow row : changed) {
+            eventPublisher.publishEvent(ProductChangedEvent.updated(
+                    new ProductSnapshot(row.id, row.name, row.price, row.newStock, row.updatedAt)));
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static final RowMapper<StockRow> STOCK_ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new StockRow(rs.getLong("id"), rs.getString("name"), rs.getBigDecimal("price"),
+                updatedAt != null ? updatedAt.toLocalDateTime() : null);
+    };
+
+    private static final class StockRow {
+
+        private final long id;
+        private final String name;
+        private final BigDecimal price;
+        private final LocalDateTime updatedAt;
+        private int stock;
+        private int newStock;
+
+        private StockRow(long id, String name, BigDecimal price, LocalDateTime updatedAt) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
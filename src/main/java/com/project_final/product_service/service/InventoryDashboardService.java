@@ -0,0 +1,134 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.model.InventoryDashboard;
+import com.project_final.product_service.model.InventoryDashboard.PriceBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Panel de inventario calculado con una sola consulta de agregación sobre la tabla de productos.
+ * El resultado se cachea unos segundos y, si caduca con varias peticiones a la vez, solo una
+ * lanza la consulta (single-flight) y las demás esperan su resultado.
+ */
+@Service
+public class InventoryDashboardService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${product.low-stock.alert-threshold:10}")
+    private int lowStockThreshold = 10;
+
+    @Value("${product.dashboard.cache-ttl-ms:5000}")
+    private long cacheTtlMs = 5000;
+
+    // Límites inferiores de los tramos del histograma de precios
+    @Value("${product.dashboard.price-buckets:0,10,25,50,100,250,500,1000}")
+    private BigDecimal[] priceBuckets = {
+            new BigDecimal("0"), new BigDecimal("10"), new BigDecimal("25"), new BigDecimal("50"),
+            new BigDecimal("100"), new BigDecimal("250"), new BigDecimal("500"), new BigDecimal("1000")
+    };
+
+    private volatile Cached cached;
+    private CompletableFuture<InventoryDashboard> inFlight;
+
+    public InventoryDashboard getDashboard() {
+        Cached current = cached;
+        if (current != null && current.isFresh(cacheTtlMs)) {
+            return current.dashboard;
+        }
+
+        CompletableFuture<InventoryDashboard> future;
+        boolean owner = false;
+        synchronized (this) {
+            current = cached;
+            if (current != null && current.isFresh(cacheTtlMs)) {
+                return current.dashboard;
+            }
+            if (inFlight == null) {
+                inFlight = new CompletableFuture<>();
+                owner = true;
+            }
+            future = inFlight;
+        }
+
+        if (owner) {
+            try {
+                InventoryDashboard dashboard = compute();
+                cached = new Cached(dashboard, System.nanoTime());
+                future.complete(dashboard);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    inFlight = null;
+                }
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Conteos, valor del inventario e histograma en un único recorrido (productos unidos a su stock)
+    private InventoryDashboard compute() {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*), ")
+                .append("COALESCE(SUM(CASE WHEN s.stock > 0 THEN 1 ELSE 0 END), 0), ")
+                .append("COALESCE(SUM(CASE WHEN s.stock < ? THEN 1 ELSE 0 END), 0), ")
+                .append("COALESCE(SUM(p.price * s.stock), 0)");
+
+        List<Object> args = new ArrayList<>();
+        args.add(lowStockThreshold);
+        for (int i = 0; i < priceBuckets.length; i++) {
+            if (i + 1 < priceBuckets.length) {
+                sql.append(", COALESCE(SUM(CASE WHEN p.price >= ? AND p.price < ? THEN 1 ELSE 0 END), 0)");
+                args.add(priceBuckets[i]);
+                args.add(priceBuckets[i + 1]);
+            } else {
+                sql.append(", COALESCE(SUM(CASE WHEN p.price >= ? THEN 1 ELSE 0 END), 0)");
+                args.add(priceBuckets[i]);
+            }
+        }
+        sql.append(" FROM products p JOIN product_stock s ON s.product_id = p.id WHERE p.deleted_at IS NULL");
+
+        return jdbcTemplate.queryForObject(sql.toString(), (rs, rowNum) -> {
+            List<PriceBucket> histogram = new ArrayList<>();
+            for (int i = 0; i < priceBuckets.length; i++) {
+                BigDecimal to = i + 1 < priceBuckets.length ? priceBuckets[i + 1] : null;
+                histogram.add(new PriceBucket(priceBuckets[i], to, rs.getLong(5 + i)));
+            }
+            return new InventoryDashboard(rs.getLong(1), rs.getLong(2), rs.getLong(3), lowStockThreshold,
+                    rs.getBigDecimal(4), histogram, LocalDateTime.now());
+        }, args.toArray());
+    }
+
+    private static final class Cached {
+
+        private final InventoryDashboard dashboard;
+        private final long computedAtNanos;
+
+        private Cached(InventoryDashboard dashboard, long computedAtNanos) {
+            this.dashboard = dashboard;
+            this.computedAtNanos = computedAtNanos;
+        }
+
+        boolean isFresh(long ttlMs) {
+            return System.nanoTime() - computedAtNanos < ttlMs * 1_000_000L;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.exceptions.ProductNotFoundException;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.indexes.PriceIndex;
+import com.project_final.product_service.model.PriceHistorySegment;
+import com.project_final.product_service.model.PricePoint;
+import com.project_final.product_service.model.PricesAt;
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.repositories.PriceHistorySegmentRepository;
+import com.project_final.product_service.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Historial de precios por producto en tramos con codificación delta (PriceHistorySegment).
+ * Solo se escribe cuando el precio cambia de verdad; un producto sin tramos conserva el precio
+ * con el que se creó, así que el primer cambio registra también el precio anterior desde la creación.
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final String PRODUCTS_PAGE_SQL =
+            "SELECT id, price, created_at FROM products WHERE id > ? AND deleted_at IS NULL ORDER BY id LIMIT ?";
+
+    // Por producto, primero el tramo más reciente que empieza antes del instante; los deltas solo si hacen falta
+    private static final String SEGMENTS_AT_SQL =
+            "SELECT product_id, first_millis, first_cents, last_millis, last_cents, entry_count, " +
+            "CASE WHEN last_millis > ? THEN deltas ELSE NULL END " +
+            "FROM product_price_history WHERE product_id > ? AND product_id <= ? AND first_millis <= ? " +
+            "ORDER BY product_id, first_millis DESC";
+
+    @Autowired
+    private PriceHistorySegmentRepository segmentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${product.price-history.max-page-size:5000}")
+    private int maxPageSize = 5000;
+
+    // Se llama dentro de la transacción que modifica el producto, con el precio que tenía antes
+    @Transactional
+    public void recordPriceChange(Product product, BigDecimal previousPrice) {
+        PriceChange change = new PriceChange(product.getId(), product.getCreatedAt(), previousPrice,
+                product.getPrice(), product.getUpdatedAt());
+        if (!change.isChange()) {
+            return;
+        }
+        // Con la fila del producto bloqueada, dos cambios simultáneos no crean cada uno su primer tramo
+        productRepository.lockAllById(List.of(product.getId()));
+        segmentRepository.save(append(segmentRepository.findFirstByProductIdOrderByFirstMillisDesc(product.getId()), change));
+    }
+
+    // Variante para cambios masivos: una consulta para los últimos tramos de todos los productos y un saveAll
+    @Transactional
+    public void recordPriceChanges(List<PriceChange> changes) {
+        List<Long> productIds = new ArrayList<>();
+        for (PriceChange change : changes) {
+            if (change.isChange()) {
+                productIds.add(change.productId);
+            }
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        productRepository.lockAllById(productIds);
+        Map<Long, PriceHistorySegment> latest = new HashMap<>();
+        for (PriceHistorySegment segment : segmentRepository.findLatestForProducts(productIds)) {
+            latest.put(segment.getProductId(), segment);
+        }
+
+        Map<Long, PriceHistorySegment> touched = new LinkedHashMap<>();
+        for (PriceChange change : changes) {
+            if (change.isChange()) {
+                PriceHistorySegment segment = append(Optional.ofNullable(latest.get(change.productId)), change);
+                latest.put(change.productId, segment);
+                touched.put(change.productId, segment);
+            }
+        }
+        segmentRepository.saveAll(touched.values());
+    }
+
+    private PriceHistorySegment append(Optional<PriceHistorySegment> latest, PriceChange change) {
+        long changedAt = toMillis(change.changedAt != null ? change.changedAt : LocalDateTime.now());
+        long cents = PriceIndex.toCents(change.newPrice);
+
+        if (latest.isEmpty()) {
+            // Primer cambio: el precio anterior estuvo vigente desde la creación del producto
+            long since = change.createdAt != null ? Math.min(toMillis(change.createdAt), changedAt) : changedAt;
+            PriceHistorySegment segment = new PriceHistorySegment(change.productId, since, PriceIndex.toCents(change.previousPrice));
+            segment.append(changedAt, cents);
+            return segment;
+        }
+        if (latest.get().isFull()) {
+            return new PriceHistorySegment(change.productId, Math.max(changedAt, latest.get().getLastMillis()), cents);
+        }
+        PriceHistorySegment segment = latest.get();
+        segment.append(changedAt, cents);
+        return segment;
+    }
+
+    // Cambios de precio en [from, to], precedidos del precio vigente en 'from' si cambió antes
+    public List<PricePoint> getPriceHistory(Long productId, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ProductValidationException("from", "La fecha inicial no puede ser posterior a la final");
+        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+
+        long fromMillis = from != null ? toMillis(from) : Long.MIN_VALUE;
+        long toMillis = to != null ? toMillis(to) : Long.MAX_VALUE;
+
+        List<PriceHistorySegment> segments = segmentRepository.findOverlapping(productId, fromMillis, toMillis);
+        long[] opening = {Long.MIN_VALUE, -1};
+        if (segments.isEmpty() || segments.get(0).getFirstMillis() > fromMillis) {
+            Optional<PriceHistorySegment> previous = from != null
+                    ? segmentRepository.findFirstByProductIdAndLastMillisLessThanOrderByLastMillisDesc(productId, fromMillis)
+                    : Optional.empty();
+            if (previous.isPresent()) {
+                opening[0] = previous.get().getLastMillis();
+                opening[1] = previous.get().getLastCents();
+            } else if (segments.isEmpty() && !segmentRepository.existsByProductId(productId)) {
+                // Precio sin cambios desde la creación
+                return product.getCreatedAt() == null || toMillis(product.getCreatedAt()) <= toMillis
+                        ? List.of(new PricePoint(product.getCreatedAt(), product.getPrice()))
+                        : List.of();
+            }
+        }
+
+        List<PricePoint> points = new ArrayList<>();
+        for (PriceHistorySegment segment : segments) {
+            segment.forEach((millis, cents) -> {
+                if (millis <= fromMillis) {
+                    opening[0] = millis;
+                    opening[1] = cents;
+                } else if (millis <= toMillis) {
+                    points.add(toPoint(millis, cents));
+                }
+            });
+        }
+        if (opening[1] >= 0) {
+            points.add(0, toPoint(opening[0], opening[1]));
+        }
+        return points;
+    }
+
+    // Precios vigentes en 'at' para la página de productos con id > afterId: dos consultas por rango de ids
+    public PricesAt getPricesAt(LocalDateTime at, Long afterId, Integer limit) {
+        if (at == null) {
+            throw new ProductValidationException("at", "Debe indicarse el instante");
+        }
+        if (limit == null || limit <= 0 || limit > maxPageSize) {
+            throw new ProductValidationException("limit", "El límite debe estar entre 1 y " + maxPageSize);
+        }
+        long from = afterId != null ? afterId : 0L;
+        long atMillis = toMillis(at);
+
+        // Por defecto el precio actual, que es el vigente si el producto ya existía y nunca cambió
+        Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+        Set<Long> pageIds = new HashSet<>();
+        long[] lastId = {from};
+        jdbcTemplate.query(PRODUCTS_PAGE_SQL, rs -> {
+            long id = rs.getLong(1);
+            Timestamp createdAt = rs.getTimestamp(3);
+            pageIds.add(id);
+            lastId[0] = id;
+            if (createdAt == null || toMillis(createdAt.toLocalDateTime()) <= atMillis) {
+                prices.put(id, rs.getBigDecimal(2));
+            }
+        }, from, limit);
+
+        if (pageIds.isEmpty()) {
+            return new PricesAt(at, prices, null);
+        }
+
+        long[] previousId = {-1};
+        jdbcTemplate.query(SEGMENTS_AT_SQL, rs -> {
+            long id = rs.getLong(1);
+            if (id == previousId[0] || !pageIds.contains(id)) {
+                return;
+            }
+            previousId[0] = id;
+            long cents = PriceHistorySegment.priceAt(rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5),
+                    rs.getBytes(7), rs.getInt(6), atMillis);
+            if (cents >= 0) {
+                prices.put(id, BigDecimal.valueOf(cents, 2));
+            }
+        }, atMillis, from, lastId[0], atMillis);
+
+        return new PricesAt(at, prices, pageIds.size() == limit ? lastId[0] : null);
+    }
+
+    private static PricePoint toPoint(long millis, long cents) {
+        return new PricePoint(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()),
+                BigDecimal.valueOf(cents, 2));
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Cambio de precio de un producto para registrar en el historial
+     */
+    public static final class PriceChange {
+
+        private final Long productId;
+        private final LocalDateTime createdAt;
+        private final BigDecimal previousPrice;
+        private final BigDecimal newPrice;
+        private final LocalDateTime changedAt;
+
+        public PriceChange(Long productId, LocalDateTime createdAt, BigDecimal previousPrice,
+                           BigDecimal newPrice, LocalDateTime changedAt) {
+            this.productId = productId;
+            this.createdAt = createdAt;
+            this.previousPrice = previousPrice;
+            this.newPrice = newPrice;
+            this.changedAt = changedAt;
+        }
+
+        boolean isChange() {
+            return previousPrice != null && newPrice != null && previousPrice.compareTo(newPrice) != 0;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.indexes.PriceDistributionIndex;
+import com.project_final.product_service.indexes.PriceIndex;
+import com.project_final.product_service.indexes.PriceQuantileSketch;
+import com.project_final.product_service.model.PriceDistribution;
+import com.project_final.product_service.model.ProductSnapshot;
+import com.project_final.product_service.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cuantiles de precio a partir de los sketches mantenidos en memoria.
+ * Mientras no están cargados se construyen en un recorrido por páginas de la BD (memoria acotada).
+ */
+@Service
+public class PriceStatisticsService {
+
+    @Autowired
+    private PriceDistributionIndex priceDistributionIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${product.price-sketch.relative-accuracy:0.01}")
+    private double relativeAccuracy = 0.01;
+
+    @Value("${product.index.page-size:5000}")
+    private int pageSize = 5000;
+
+    public PriceDistribution getPriceDistribution(List<Double> quantiles) {
+        if (quantiles == null || quantiles.isEmpty()) {
+            throw new ProductValidationException("quantiles", "Debe indicarse al menos un cuantil");
+        }
+        for (Double q : quantiles) {
+            if (q == null || q < 0 || q > 1) {
+                throw new ProductValidationException("quantiles", "Los cuantiles deben estar entre 0 y 1");
+            }
+        }
+
+        PriceQuantileSketch all;
+        PriceQuantileSketch available;
+        if (priceDistributionIndex.isReady()) {
+            all = priceDistributionIndex.allPrices();
+            available = priceDistributionIndex.availablePrices();
+        } else {
+            all = new PriceQuantileSketch(relativeAccuracy);
+            available = new PriceQuantileSketch(relativeAccuracy);
+            streamFromDatabase(all, available);
+        }
+
+        return new PriceDistribution(all.getRelativeAccuracy(), summarize(all, quantiles), summarize(available, quantiles));
+    }
+
+    private void streamFromDatabase(PriceQuantileSketch all, PriceQuantileSketch available) {
+        Long afterId = 0L;
+        List<ProductSnapshot> page;
+        do {
+            page = productRepository.findSnapshotsAfter(afterId, PageRequest.of(0, pageSize));
+            for (ProductSnapshot snapshot : page) {
+                long cents = PriceIndex.toCents(snapshot.getPrice());
+                all.add(cents);
+                if (snapshot.isAvailable()) {
+                    available.add(cents);
+                }
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+    }
+
+    private PriceDistribution.Summary summarize(PriceQuantileSketch sketch, List<Double> quantiles) {
+        Map<String, BigDecimal> values = new LinkedHashMap<>();
+        for (Double q : quantiles) {
+            double cents = sketch.quantile(q);
+            values.put(labelOf(q), cents < 0 ? null
+                    : BigDecimal.valueOf(cents).movePointLeft(2).setScale(2, RoundingMode.HALF_UP));
+        }
+        return new PriceDistribution.Summary(sketch.count(), values);
+    }
+
+    // 0.5 -> "p50", 0.999 -> "p99.9"
+    private static String labelOf(double q) {
+        return "p" + BigDecimal.valueOf(q).movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+}
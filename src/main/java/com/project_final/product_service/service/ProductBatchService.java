@@ -0,0 +1,260 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.events.StockReducedEvent;
+import com.project_final.product_service.exceptions.InsufficientStockException;
+import com.project_final.product_service.exceptions.ProductNotFoundException;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductBatchRequest;
+import com.project_final.product_service.model.ProductBatchRequest.Operation;
+import com.project_final.product_service.model.ProductBatchResult;
+import com.project_final.product_service.model.ProductBatchResult.OperationResult;
+import com.project_final.product_service.repositories.ProductRepository;
+import com.project_final.product_service.service.PriceHistoryService.PriceChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lote de operaciones mixtas en una sola transacción. Los productos referenciados se cargan con
+ * una consulta, las operaciones se aplican en orden sobre las entidades gestionadas y la escritura
+ * se hace al final con un único flush: Hibernate agrupa los INSERT y los UPDATE en lotes JDBC
+ * (hibernate.jdbc.batch_size, order_inserts, order_updates) y los borrados van en un solo UPDATE.
+ */
+@Service
+public class ProductBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductBatchService.class);
+
+    static final int FAILED_DEPENDENCY = 424;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.batch.max-operations:1000}")
+    private int maxOperations = 1000;
+
+    public ProductBatchResult execute(ProductBatchRequest request) {
+        if (request == null || request.getOperations() == null || request.getOperations().isEmpty()
+                || request.getOperations().size() > maxOperations) {
+            throw new ProductValidationException("operations", "El lote debe tener entre 1 y " + maxOperations + " operaciones");
+        }
+
+        long start = System.currentTimeMillis();
+        List<Operation> operations = request.getOperations();
+        List<OperationResult> results = new ArrayList<>(operations.size());
+        boolean committed;
+
+        try {
+            committed = Boolean.TRUE.equals(new TransactionTemplate(transactionManager).execute(status -> {
+                Batch batch = new Batch(load(operations));
+                for (int i = 0; i < operations.size(); i++) {
+                    OperationResult result = apply(i, operations.get(i), batch);
+                    results.add(result);
+                    if (request.isAtomic() && !result.isSuccess()) {
+                        // Nada del lote se escribe: las anteriores se anulan y las siguientes no se ejecutan
+                        status.setRollbackOnly();
+                        skipRemaining(i, operations.size(), results);
+                        return false;
+                    }
+                }
+                batch.write();
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            // Fallo al escribir o confirmar (p. ej. una restricción de la BD): no se ha aplicado nada
+            logger.error("Error al confirmar el lote de {} operaciones", operations.size(), e);
+            for (OperationResult result : results) {
+                if (result.isSuccess()) {
+                    result.revert(500, "No aplicada: error al confirmar el lote");
+                }
+            }
+            committed = false;
+        }
+
+        int succeeded = 0;
+        for (OperationResult result : results) {
+            if (result.isSuccess()) {
+                succeeded++;
+            }
+        }
+        int failed = results.size() - succeeded;
+        long duration = System.currentTimeMillis() - start;
+        logger.info("Lote de {} operaciones: {} correctas, {} fallidas, confirmado={} en {} ms",
+                operations.size(), succeeded, failed, committed, duration);
+
+        return new ProductBatchResult(committed, succeeded, failed, results, duration);
+    }
+
+    // Una sola consulta para todos los productos que el lote referencia por id
+    private Map<Long, Product> load(List<Operation> operations) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Operation operation : operations) {
+            if (operation != null && operation.getId() != null) {
+                ids.add(operation.getId());
+            }
+        }
+        Map<Long, Product> products = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Product product : productRepository.findAllById(ids)) {
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
+    private OperationResult apply(int index, Operation operation, Batch batch) {
+        Long id = operation == null ? null : operation.getId();
+        try {
+            if (operation == null || operation.getOp() == null) {
+                throw new ProductValidationException("op", "La operación debe indicar su tipo");
+            }
+
+            if (operation.getOp() == Operation.Type.CREATE) {
+                Product product = operation.getProduct();
+                productService.validateProductData(product);
+                product.setId(null);
+                // Con el generador pooled el id se asigna aquí y el INSERT espera al flush
+                Product created = productRepository.save(product);
+                return new OperationResult(index, 201, created.getId(), created.getStock(), null);
+            }
+
+            Product product = batch.find(id);
+            switch (operation.getOp()) {
+                case UPDATE:
+                    batch.trackPrice(product);
+                    productService.applyUpdate(product, operation.getProduct());
+                    break;
+                case PATCH:
+                    productService.checkPatch(operation.getPatch());
+                    batch.trackPrice(product);
+                    productService.applyPatch(product, operation.getPatch());
+                    break;
+                case DELETE:
+                    batch.delete(product);
+                    return new OperationResult(index, 200, id, null, null);
+                case REDUCE_STOCK:
+                    if (!product.tryReduceStock(operation.getQuantity())) {
+                        return new OperationResult(index, 409, id, null, InsufficientStockException.message(
+                                id, product.getStock(), operation.getQuantity()));
+                    }
+                    // Se entrega tras el commit; si el lote se deshace no llega a publicarse
+                    eventPublisher.publishEvent(new StockReducedEvent(id, operation.getQuantity(), product.getStock()));
+                    break;
+                case INCREASE_STOCK:
+                    product.increaseStock(operation.getQuantity());
+                    break;
+                default:
+                    throw new ProductValidationException("op", "Operación no soportada: " + operation.getOp());
+            }
+            return new OperationResult(index, 200, id, product.getStock(), null);
+        } catch (ProductValidationException e) {
+            return new OperationResult(index, 400, id, null, e.getMessage());
+        } catch (ProductNotFoundException e) {
+            return new OperationResult(index, 404, id, null, e.getMessage());
+        } catch (InsufficientStockException e) {
+            return new OperationResult(index, 409, id, null, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Error en la operación {} del lote", index, e);
+            return new OperationResult(index, 500, id, null, "Error interno del servidor");
+        }
+    }
+
+    private static void skipRemaining(int failedIndex, int total, List<OperationResult> results) {
+        String cause = "falló la operación " + failedIndex;
+        for (OperationResult result : results) {
+            if (result.isSuccess()) {
+                result.revert(FAILED_DEPENDENCY, "No aplicada: " + cause);
+            }
+        }
+        for (int i = failedIndex + 1; i < total; i++) {
+            results.add(new OperationResult(i, FAILED_DEPENDENCY, null, null, "No ejecutada: " + cause));
+        }
+    }
+
+    // Estado del lote en curso: entidades vivas, borrados pendientes y precios de partida
+    private final class Batch {
+
+        private final Map<Long, Product> products;
+        private final Set<Long> deleted = new LinkedHashSet<>();
+        private final Map<Long, BigDecimal> originalPrices = new LinkedHashMap<>();
+
+        private Batch(Map<Long, Product> products) {
+            this.products = products;
+        }
+
+        Product find(Long id) {
+            if (id == null) {
+                throw new ProductValidationException("id", "El ID del producto no puede ser nulo");
+            }
+            Product product = products.get(id);
+            if (product == null) {
+                throw new ProductNotFoundException(id);
+            }
+            return product;
+        }
+
+        void trackPrice(Product product) {
+            originalPrices.putIfAbsent(product.getId(), product.getPrice());
+        }
+
+        void delete(Product product) {
+            products.remove(product.getId());
+            deleted.add(product.getId());
+        }
+
+        void write() {
+            // INSERT y UPDATE agrupados por Hibernate; los eventos salen del ProductEntityListener
+            productRepository.flush();
+
+            if (!deleted.isEmpty()) {
+                productRepository.softDeleteAllById(deleted, LocalDateTime.now());
+                // El UPDATE no pasa por el ciclo de vida JPA: se avisa a índices y cachés a mano
+                for (Long id : deleted) {
+                    eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+                }
+            }
+
+            // Un tramo de historial por producto, del precio inicial al final del lote
+            List<PriceChange> changes = new ArrayList<>();
+            for (Map.Entry<Long, BigDecimal> entry : originalPrices.entrySet()) {
+                Product product = products.get(entry.getKey());
+                if (product != null) {
+                    changes.add(new PriceChange(product.getId(), product.getCreatedAt(), entry.getValue(),
+                            product.getPrice(), product.getUpdatedAt()));
+                }
+            }
+            if (!changes.isEmpty()) {
+                priceHistoryService.recordPriceChanges(changes);
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.ProductChange;
+import com.project_final.product_service.model.ProductChangeFeed;
+import com.project_final.product_service.model.ProductSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Feed de cambios del catálogo para que las cachés de otros servicios se sincronicen de forma
+ * incremental. Cada cambio añade una entrada a product_changes en su misma transacción; leer
+ * desde un cursor recorre la clave primaria (seq), así que cuesta lo que los cambios y no lo que el catálogo.
+ * La compactación deja solo la última entrada de cada producto, de modo que el registro completo
+ * equivale a una copia del catálogo (más las lápidas) y cualquier cursor sigue siendo válido.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class ProductChangeFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeFeedService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product_changes (product_id, change_type, recorded_at) VALUES (?, ?, ?)";
+
+    // Las altas y cambios se devuelven con el estado actual del producto
+    private static final String CHANGES_SQL =
+            "SELECT c.seq, c.product_id, c.change_type, c.recorded_at, p.name, p.price, s.stock, p.updated_at " +
+            "FROM product_changes c " +
+            "LEFT JOIN products p ON p.id = c.product_id AND p.deleted_at IS NULL " +
+            "LEFT JOIN product_stock s ON s.product_id = c.product_id " +
+            "WHERE c.seq > ? ORDER BY c.seq LIMIT ?";
+
+    private static final String SEED_SQL =
+            "INSERT INTO product_changes (product_id, change_type, recorded_at) " +
+            "SELECT id, 'UPSERT', CURRENT_TIMESTAMP FROM products " +
+            "WHERE deleted_at IS NULL AND NOT EXISTS (SELECT 1 FROM product_changes) ORDER BY id";
+
+    private static final String SUPERSEDED_SQL =
+            "SELECT c.seq FROM product_changes c WHERE c.seq > ? AND EXISTS " +
+            "(SELECT 1 FROM product_changes n WHERE n.product_id = c.product_id AND n.seq > c.seq) " +
+            "ORDER BY c.seq LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${product.changes.max-page-size:5000}")
+    private int maxPageSize = 5000;
+
+    // Margen para que confirme una transacción que obtuvo su seq antes que otra ya visible
+    @Value("${product.changes.settle-ms:2000}")
+    private long settleMs = 2000;
+
+    @Value("${product.changes.compaction-chunk-size:1000}")
+    private int compactionChunkSize = 1000;
+
+    // Clave de los cambios pendientes de la transacción en curso
+    private final Object pendingKey = new Object();
+
+    // Primer arranque con el feed: una entrada por producto para que since=0 devuelva el catálogo entero.
+    // La comprobación va en la misma sentencia, así que dos instancias que arrancan a la vez no duplican
+    // la carga: la base de datos serializa las dos inserciones y la segunda ya no encuentra el feed vacío
+    @PostConstruct
+    public void seed() {
+        try {
+            int seeded = jdbcTemplate.update(SEED_SQL);
+            if (seeded > 0) {
+                logger.info("Feed de cambios inicializado con {} productos", seeded);
+            }
+        } catch (ConcurrencyFailureException e) {
+            // Interbloqueo con otra instancia que está haciendo la misma carga: la suya es la que queda
+            logger.warn("Inicialización del feed de cambios hecha por otra instancia: {}", e.getMessage());
+        }
+    }
+
+    // Dentro de una transacción los cambios se acumulan y se escriben juntos justo antes del commit, en
+    // la misma transacción: la entrada del feed se confirma o se deshace con el cambio del producto
+    // (y una importación o un lote de N productos es un único INSERT por lotes)
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Object[] change = {event.getProductId(),
+                (event.isDeletion() ? ProductChange.Type.DELETE : ProductChange.Type.UPSERT).name()};
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Sin transacción no hay commit al que esperar: se escribe ya y un fallo llega al llamante
+            record(List.<Object[]>of(change));
+            return;
+        }
+
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(pendingKey);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(pendingKey, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+            // Hibernate lo ejecuta tras el flush del commit (que publica los eventos de las entidades
+            // modificadas) y antes de confirmar la conexión
+            entityManager.unwrap(SessionImplementor.class).getActionQueue().registerProcess(pending);
+        }
+        pending.changes.add(change);
+    }
+
+    // En la transacción del cambio (si la hay): un fallo se propaga y el cambio del producto tampoco se confirma
+    private void record(List<Object[]> changes) {
+        Timestamp recordedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (Object[] change : changes) {
+            rows.add(new Object[]{change[0], change[1], recordedAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    public ProductChangeFeed getChanges(Long since, Integer limit) {
+        if (since == null || since < 0) {
+            throw new ProductValidationException("since", "El cursor no puede ser negativo");
+        }
+        if (limit == null || limit <= 0 || limit > maxPageSize) {
+            throw new ProductValidationException("limit", "El límite debe estar entre 1 y " + maxPageSize);
+        }
+
+        LocalDateTime settledBefore = LocalDateTime.now().minus(Duration.ofMillis(settleMs));
+        ProductChangeFeed feed = jdbcTemplate.query(CHANGES_SQL, (ResultSetExtractor<ProductChangeFeed>) rs -> {
+            List<ProductChangeFeed.Change> changes = new ArrayList<>();
+            long cursor = since;
+            int read = 0;
+            while (rs.next()) {
+                long seq = rs.getLong(1);
+                // Un hueco reciente puede ser un cambio aún sin confirmar: se para antes para no saltarlo
+                if (seq != cursor + 1 && rs.getTimestamp(4).toLocalDateTime().isAfter(settledBefore)) {
+                    return new ProductChangeFeed(changes, cursor, false);
+                }
+                cursor = seq;
+                read++;
+
+                long productId = rs.getLong(2);
+                if (ProductChange.Type.DELETE.name().equals(rs.getString(3))) {
+                    changes.add(ProductChangeFeed.Change.tombstone(seq, productId));
+                } else if (rs.getString(5) != null) {
+                    Timestamp updatedAt = rs.getTimestamp(8);
+                    changes.add(ProductChangeFeed.Change.upsert(seq, new ProductSnapshot(productId, rs.getString(5),
+                            rs.getBigDecimal(6), rs.getObject(7, Integer.class),
+                            updatedAt != null ? updatedAt.toLocalDateTime() : null)));
+                }
+                // Si el producto ya no existe, su lápida llega más adelante en el feed
+            }
+            return new ProductChangeFeed(changes, cursor, read == limit);
+        }, since, limit);
+
+        if (feed.getChanges().isEmpty() && since > 0) {
+            // La entrada más reciente nunca se compacta, así que un cursor posterior no lo ha dado este feed
+            Long head = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM product_changes", Long.class);
+            if (head != null && since > head) {
+                throw new ProductValidationException("since", "Cursor desconocido: vuelva a sincronizar desde 0");
+            }
+        }
+        return feed;
+    }
+
+    @Scheduled(cron = "${product.changes.compaction-cron:0 */10 * * * *}")
+    public void compact() {
+        compactSuperseded();
+    }
+
+    // Elimina las entradas que tienen otra más reciente del mismo producto; devuelve cuántas
+    public int compactSuperseded() {
+        long start = System.currentTimeMillis();
+        long afterSeq = 0;
+        int compacted = 0;
+        while (true) {
+            List<Long> seqs = jdbcTemplate.queryForList(SUPERSEDED_SQL, Long.class, afterSeq, compactionChunkSize);
+            if (seqs.isEmpty()) {
+                break;
+            }
+
+            String in = String.join(", ", Collections.nCopies(seqs.size(), "?"));
+            compacted += jdbcTemplate.update("DELETE FROM product_changes WHERE seq IN (" + in + ")", seqs.toArray());
+            afterSeq = seqs.get(seqs.size() - 1);
+
+            if (seqs.size() < compactionChunkSize) {
+                break;
+            }
+        }
+
+        if (compacted > 0) {
+            logger.info("Feed de cambios compactado: {} entradas eliminadas en {} ms",
+                    compacted, System.currentTimeMillis() - start);
+        }
+        return compacted;
+    }
+
+    // Cambios de una transacción; se suelta al suspenderla para que una REQUIRES_NEW interna lleve los suyos
+    private final class PendingChanges implements TransactionSynchronization, BeforeTransactionCompletionProcess {
+
+        private final List<Object[]> changes = new ArrayList<>();
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (!changes.isEmpty()) {
+                record(changes);
+            }
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(pendingKey);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(pendingKey, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(pendingKey);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.project_final.product_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.ImportResult;
+import com.project_final.product_service.model.ImportResult.RowError;
+import com.project_final.product_service.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Importación masiva de productos desde NDJSON (un objeto JSON por línea) o CSV con cabecera.
+ * El cuerpo se lee línea a línea y se inserta en lotes de tamaño fijo (inserciones JDBC agrupadas
+ * por Hibernate gracias a los ids por bloques de ProductIdGenerator): la memoria no depende del
+ * tamaño del fichero y, como no se lee la siguiente línea hasta insertar el lote, un cliente más
+ * rápido que la BD simplemente espera (contrapresión del propio socket).
+ * Cada lote va en su propia transacción; si la BD rechaza uno, se reintenta fila a fila para
+ * insertar las válidas y señalar la línea exacta que falla.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${product.import.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${product.import.max-errors:1000}")
+    private int maxErrors = 1000;
+
+    // No debe llamarse dentro de una transacción: cada lote confirma la suya
+    public ImportResult importProducts(InputStream input, Format format) {
+        long start = System.currentTimeMillis();
+        Progress progress = new Progress();
+        List<Row> chunk = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            CsvColumns columns = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                progress.linesRead++;
+                if (progress.linesRead == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                // La primera línea no vacía de un CSV es la cabecera; si no es válida se rechaza todo
+                if (format == Format.CSV && columns == null) {
+                    columns = CsvColumns.fromHeader(line);
+                    continue;
+                }
+
+                try {
+                    Product product = format == Format.CSV ? columns.toProduct(line) : parseJson(line);
+                    productService.validateProductData(product);
+                    chunk.add(new Row(progress.linesRead, product));
+                } catch (ProductValidationException e) {
+                    progress.reject(progress.linesRead, e.getField(), e.getMessage());
+                }
+
+                if (chunk.size() >= batchSize) {
+                    insertChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(chunk, progress);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error leyendo el fichero de importación en la línea " + progress.linesRead, e);
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        logger.info("Importación {}: {} líneas, {} productos insertados, {} rechazados en {} ms",
+                format, progress.linesRead, progress.imported, progress.rejected, duration);
+
+        return new ImportResult(format.name(), progress.linesRead, progress.imported, progress.rejected,
+                progress.errors, progress.rejected > progress.errors.size(), duration);
+    }
+
+    private void insertChunk(List<Row> chunk, Progress progress) {
+        try {
+            persist(chunk);
+            progress.imported += chunk.size();
+        } catch (RuntimeException e) {
+            logger.warn("Lote de {} productos rechazado por la BD, se reintenta fila a fila: {}",
+                    chunk.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (Row row : chunk) {
+                try {
+                    persist(List.of(row));
+                    progress.imported++;
+                } catch (RuntimeException rowError) {
+                    progress.reject(row.line, null,
+                            "Error de base de datos: " + NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    // Un lote = una transacción; con hibernate.jdbc.batch_size los INSERT salen agrupados en el flush.
+    // Los eventos de alta los publica ProductEntityListener y solo se entregan si el lote se confirma
+    private void persist(List<Row> rows) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (Row row : rows) {
+                // Un intento anterior fallido pudo dejarle un id asignado
+                row.product.setId(null);
+                entityManager.persist(row.product);
+            }
+            entityManager.flush();
+            // Sin esto el contexto de persistencia de la petición crecería con cada lote
+            entityManager.clear();
+        });
+    }
+
+    private Product parseJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new ProductValidationException("JSON inválido: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new ProductValidationException("Cada línea debe ser un objeto JSON");
+        }
+
+        Product product = new Product();
+        product.setName(text(node.get("name")));
+        product.setDescription(text(node.get("description")));
+        product.setPrice(parsePrice(text(node.get("price"))));
+        product.setStock(parseStock(text(node.get("stock"))));
+        return product;
+    }
+
+    private static String text(JsonNode value) {
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static BigDecimal parsePrice(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw ProductValidationException.invalidPrice(value);
+        }
+    }
+
+    private static Integer parseStock(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ProductValidationException("stock", "Stock inválido: " + value);
+        }
+    }
+
+    // Posición de cada columna según la cabecera del CSV (sin distinguir mayúsculas ni orden)
+    private static final class CsvColumns {
+
+        private final int name;
+        private final int description;
+        private final int price;
+        private final int stock;
+
+        private CsvColumns(int name, int description, int price, int stock) {
+            this.name = name;
+            this.description = description;
+            this.price = price;
+            this.stock = stock;
+        }
+
+        static CsvColumns fromHeader(String header) {
+            Map<String, Integer> positions = new HashMap<>();
+            List<String> names = split(header);
+            for (int i = 0; i < names.size(); i++) {
+                positions.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : List.of("name", "price", "stock")) {
+                if (!positions.containsKey(required)) {
+                    throw new ProductValidationException(required, "La cabecera del CSV debe incluir la columna " + required);
+                }
+            }
+            return new CsvColumns(positions.get("name"), positions.getOrDefault("description", -1),
+                    positions.get("price"), positions.get("stock"));
+        }
+
+        Product toProduct(String line) {
+            List<String> values = split(line);
+            Product product = new Product();
+            product.setName(value(values, name));
+            String descriptionValue = value(values, description);
+            product.setDescription(descriptionValue == null || descriptionValue.isEmpty() ? null : descriptionValue);
+            product.setPrice(parsePrice(value(values, price)));
+            product.setStock(parseStock(value(values, stock)));
+            return product;
+        }
+
+        private static String value(List<String> values, int position) {
+            return position >= 0 && position < values.size() ? values.get(position) : null;
+        }
+
+        // Separación por comas con campos entre comillas ("" dentro de comillas es una comilla)
+        static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (quoted) {
+                throw new ProductValidationException("Comillas sin cerrar en la línea CSV");
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+
+    private static final class Row {
+
+        private final long line;
+        private final Product product;
+
+        private Row(long line, Product product) {
+            this.line = line;
+            this.product = product;
+        }
+    }
+
+    private final class Progress {
+
+        private long linesRead;
+        private long imported;
+        private long rejected;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void reject(long line, String field, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(line, field, message));
+            }
+        }
+    }
+}
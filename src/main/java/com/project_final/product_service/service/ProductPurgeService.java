@@ -0,0 +1,93 @@
+package com.project_final.product_service.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Purga en segundo plano de los productos con borrado lógico. Se ejecuta fuera de horas punta
+ * (product.purge.cron) y elimina las filas en tramos pequeños, cada uno en su transacción y con
+ * una pausa entre tramos, para no retener bloqueos ni saturar el log de la BD. Con el historial
+ * de precios y la fila de stock del producto se hace lo mismo.
+ */
+@Service
+public class ProductPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductPurgeService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Tiempo que se conserva la lápida antes de eliminar la fila
+    @Value("${product.purge.retention-hours:24}")
+    private long retentionHours = 24;
+
+    @Value("${product.purge.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${product.purge.pause-ms:200}")
+    private long pauseMs = 200;
+
+    @Scheduled(cron = "${product.purge.cron:0 30 3 * * *}")
+    public void purge() {
+        purgeDeletedBefore(LocalDateTime.now().minusHours(retentionHours));
+    }
+
+    // Devuelve el número de productos eliminados físicamente
+    public int purgeDeletedBefore(LocalDateTime cutoff) {
+        long start = System.currentTimeMillis();
+        int purged = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM products WHERE deleted_at IS NOT NULL " +
+                    "AND deleted_at < ? ORDER BY id LIMIT ?", Long.class, Timestamp.valueOf(cutoff), chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM product_price_history WHERE product_id IN (" + in + ")", ids.toArray());
+                jdbcTemplate.update("DELETE FROM product_stock WHERE product_id IN (" + in + ")", ids.toArray());
+                jdbcTemplate.update("DELETE FROM products WHERE id IN (" + in + ")", ids.toArray());
+            });
+            purged += ids.size();
+
+            if (ids.size() < chunkSize || !pause()) {
+                break;
+            }
+        }
+
+        if (purged > 0) {
+            logger.info("Purga de productos borrados: {} filas eliminadas en {} ms", purged, System.currentTimeMillis() - start);
+        }
+        return purged;
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            // Parada de la aplicación: lo que quede se purgará en la siguiente ejecución
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
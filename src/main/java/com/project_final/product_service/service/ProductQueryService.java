@@ -0,0 +1,328 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.indexes.LongArrayBuilder;
+import com.project_final.product_service.indexes.PriceIndex;
+import com.project_final.product_service.indexes.ProductBitmapIndex;
+import com.project_final.product_service.indexes.SearchText;
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductFields;
+import com.project_final.product_service.model.ProductQuery;
+import com.project_final.product_service.model.ProductQueryResult;
+import com.project_final.product_service.repositories.ProductRepository;
+import com.project_final.product_service.repositories.ProductSpecifications;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consulta combinada de productos (nombre, precio, stock, disponibilidad).
+ * Con los índices cargados, cada predicado es un bitmap y el planificador los interseca
+ * empezando por el más selectivo; el total se obtiene de la cardinalidad sin cargar productos.
+ */
+@Service
+public class ProductQueryService {
+
+    @Autowired
+    private ProductBitmapIndex productBitmapIndex;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${product.query.max-page-size:500}")
+    private int maxPageSize = 500;
+
+    // Si los candidatos son muchos menos que el rango de precios, se comprueba el precio de cada uno
+    private static final int PROBE_RATIO = 8;
+
+    public ProductQueryResult query(ProductQuery query) {
+        validate(query);
+        List<String> nameTerms = nameTermsOf(query);
+
+        if (productBitmapIndex.isReady() && priceIndex.isReady()) {
+            return queryIndexes(query, nameTerms);
+        }
+        return queryDatabase(query, nameTerms);
+    }
+
+    private ProductQueryResult queryIndexes(ProductQuery query, List<String> nameTerms) {
+        List<Filter> filters = planFilters(query, nameTerms);
+        filters.sort(Comparator.comparingLong(Filter::estimate));
+
+        List<String> plan = new ArrayList<>();
+        Roaring64Bitmap matches = null;
+        for (Filter filter : filters) {
+            plan.add(filter.describe());
+            matches = matches == null ? filter.bitmap() : filter.intersect(matches);
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+        if (matches == null) {
+            plan.add("all");
+            matches = productBitmapIndex.all();
+        }
+
+        long count = matches.getLongCardinality();
+        List<?> products;
+        if (query.isCountOnly()) {
+            products = new ArrayList<>();
+        } else if (query.getFields() != null) {
+            products = findFieldsSortedById(query.getFields(), pageOf(matches, query.getPage(), query.getSize()));
+        } else {
+            products = findAllSortedById(pageOf(matches, query.getPage(), query.getSize()));
+        }
+
+        return new ProductQueryResult(count, products, ProductQueryResult.SOURCE_INDEX, plan);
+    }
+
+    private ProductQueryResult queryDatabase(ProductQuery query, List<String> nameTerms) {
+        List<String> plan = List.of("sql");
+        if (query.isCountOnly()) {
+            long count = productRepository.count(ProductSpecifications.matching(query, nameTerms));
+            return new ProductQueryResult(count, new ArrayList<>(), ProductQueryResult.SOURCE_DATABASE, plan);
+        }
+
+        if (query.getFields() != null) {
+            // Solo las columnas pedidas: el total sale de un COUNT aparte, como haría la página de JPA
+            Specification<Product> spec = ProductSpecifications.matching(query, nameTerms);
+            long count = productRepository.count(spec);
+            int offset = (int) Math.min((long) query.getPage() * query.getSize(), Integer.MAX_VALUE);
+            List<Map<String, Object>> rows = productRepository.findFields(query.getFields(), spec, Sort.by("id"),
+                    offset, query.getSize());
+            return new ProductQueryResult(count, rows, ProductQueryResult.SOURCE_DATABASE, plan);
+        }
+
+        Page<Product> page = productRepository.findAll(ProductSpecifications.matching(query, nameTerms),
+                PageRequest.of(query.getPage(), query.getSize(), Sort.by("id")));
+        return new ProductQueryResult(page.getTotalElements(), page.getContent(),
+                ProductQueryResult.SOURCE_DATABASE, plan);
+    }
+
+    // Un filtro por cada predicado presente, con su cardinalidad estimada
+    private List<Filter> planFilters(ProductQuery query, List<String> nameTerms) {
+        List<Filter> filters = new ArrayList<>();
+
+        for (String term : nameTerms) {
+            // El bitmap del término hace falta de todos modos: se calcula ya y su tamaño es la estimación
+            Roaring64Bitmap bitmap = productBitmapIndex.nameTerm(term);
+            filters.add(new Filter("name:" + term, bitmap.getLongCardinality()) {
+                @Override
+                Roaring64Bitmap bitmap() {
+                    return bitmap;
+                }
+            });
+        }
+
+        if (query.getMinPrice() != null || query.getMaxPrice() != null) {
+            long minCents = query.getMinPrice() != null ? PriceIndex.toCentsCeiling(query.getMinPrice()) : 0L;
+            long maxCents = query.getMaxPrice() != null ? PriceIndex.toCentsFloor(query.getMaxPrice()) : Long.MAX_VALUE;
+            filters.add(new PriceFilter(minCents, maxCents, priceIndex.count(minCents, maxCents, false)));
+        }
+
+        if (query.getMinStock() != null || query.getMaxStock() != null) {
+            int minStock = query.getMinStock() != null ? query.getMinStock() : 0;
+            int maxStock = query.getMaxStock() != null ? query.getMaxStock() : Integer.MAX_VALUE;
+            filters.add(new Filter("stock", productBitmapIndex.countStockRange(minStock, maxStock)) {
+                @Override
+                Roaring64Bitmap bitmap() {
+                    return productBitmapIndex.stockRange(minStock, maxStock);
+                }
+            });
+        }
+
+        if (query.getAvailable() != null) {
+            boolean available = query.getAvailable();
+            filters.add(new Filter(available ? "available" : "out-of-stock",
+                    productBitmapIndex.countAvailability(available)) {
+                @Override
+                Roaring64Bitmap bitmap() {
+                    return productBitmapIndex.availability(available);
+                }
+            });
+        }
+
+        return filters;
+    }
+
+    // IDs de la página pedida, en orden ascendente (el orden natural del bitmap)
+    private long[] pageOf(Roaring64Bitmap matches, int page, int size) {
+        long offset = (long) page * size;
+        if (offset >= matches.getLongCardinality()) {
+            return new long[0];
+        }
+
+        PeekableLongIterator iterator = matches.getLongIteratorFrom(matches.select(offset));
+
+        LongArrayBuilder ids = new LongArrayBuilder();
+        while (iterator.hasNext() && ids.size() < size) {
+            ids.add(iterator.next());
+        }
+        return ids.toArray();
+    }
+
+    private List<Product> findAllSortedById(long[] ids) {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+
+        List<Product> products = new ArrayList<>(productRepository.findAllById(idList));
+        products.sort(Comparator.comparing(Product::getId));
+        return products;
+    }
+
+    private List<Map<String, Object>> findFieldsSortedById(ProductFields fields, long[] ids) {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(productRepository.findFieldsByIdIn(fields, idList));
+        rows.sort(Comparator.comparing(row -> (Long) row.get(ProductFields.ID)));
+        return rows;
+    }
+
+    private List<String> nameTermsOf(ProductQuery query) {
+        if (!query.hasName()) {
+            return new ArrayList<>();
+        }
+
+        String normalized = SearchText.normalize(query.getName());
+        List<String> terms = new ArrayList<>();
+        for (String term : normalized.split(" ")) {
+            if (!term.isEmpty() && !terms.contains(term)) {
+                terms.add(term);
+            }
+        }
+
+        if (terms.isEmpty()) {
+            throw new ProductValidationException("name", "El nombre de búsqueda no contiene términos válidos");
+        }
+        return terms;
+    }
+
+    private void validate(ProductQuery query) {
+        if (query == null) {
+            throw new ProductValidationException("Los criterios de la consulta no pueden ser nulos");
+        }
+
+        BigDecimal minPrice = query.getMinPrice();
+        BigDecimal maxPrice = query.getMaxPrice();
+        if ((minPrice != null && minPrice.compareTo(BigDecimal.ZERO) < 0)
+                || (maxPrice != null && maxPrice.compareTo(BigDecimal.ZERO) < 0)) {
+            throw new ProductValidationException("Los precios no pueden ser negativos");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw ProductValidationException.invalidPriceRange();
+        }
+
+        Integer minStock = query.getMinStock();
+        Integer maxStock = query.getMaxStock();
+        if ((minStock != null && minStock < 0) || (maxStock != null && maxStock < 0)) {
+            throw new ProductValidationException("stock", "El stock no puede ser negativo");
+        }
+        if (minStock != null && maxStock != null && minStock > maxStock) {
+            throw new ProductValidationException("stock", "El stock mínimo no puede ser mayor que el máximo");
+        }
+
+        if (query.getPage() < 0) {
+            throw new ProductValidationException("page", "La página no puede ser negativa");
+        }
+        if (query.getSize() <= 0 || query.getSize() > maxPageSize) {
+            throw new ProductValidationException("size", "El tamaño de página debe estar entre 1 y " + maxPageSize);
+        }
+    }
+
+    private abstract static class Filter {
+
+        private final String name;
+        private final long estimate;
+
+        Filter(String name, long estimate) {
+            this.name = name;
+            this.estimate = estimate;
+        }
+
+        long estimate() {
+            return estimate;
+        }
+
+        String describe() {
+            return name + "(" + estimate + ")";
+        }
+
+        // Bitmap propio del predicado; el llamante puede modificarlo
+        abstract Roaring64Bitmap bitmap();
+
+        Roaring64Bitmap intersect(Roaring64Bitmap candidates) {
+            candidates.and(bitmap());
+            return candidates;
+        }
+    }
+
+    private final class PriceFilter extends Filter {
+
+        private final long minCents;
+        private final long maxCents;
+
+        PriceFilter(long minCents, long maxCents, long estimate) {
+            super("price", estimate);
+            this.minCents = minCents;
+            this.maxCents = maxCents;
+        }
+
+        @Override
+        Roaring64Bitmap bitmap() {
+            Roaring64Bitmap bitmap = new Roaring64Bitmap();
+            for (long id : priceIndex.range(minCents, maxCents, false, Integer.MAX_VALUE)) {
+                bitmap.addLong(id);
+            }
+            return bitmap;
+        }
+
+        // Pocos candidatos frente a un rango amplio: se consulta el precio de cada candidato
+        // en lugar de materializar todo el rango como bitmap
+        @Override
+        Roaring64Bitmap intersect(Roaring64Bitmap candidates) {
+            if (candidates.getLongCardinality() * PROBE_RATIO >= estimate()) {
+                return super.intersect(candidates);
+            }
+
+            Roaring64Bitmap result = new Roaring64Bitmap();
+            LongIterator iterator = candidates.getLongIterator();
+            while (iterator.hasNext()) {
+                long id = iterator.next();
+                long cents = priceIndex.priceCentsOf(id);
+                if (cents >= minCents && cents <= maxCents) {
+                    result.addLong(id);
+                }
+            }
+            return result;
+        }
+    }
+}
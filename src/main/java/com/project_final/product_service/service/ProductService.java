@@ -1,15 +1,44 @@
 package com.project_final.product_service.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.events.StockReducedEvent;
 import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductFields;
+import com.project_final.product_service.model.ProductPatchResult;
+import com.project_final.product_service.model.ProductSnapshot;
+import com.project_final.product_service.model.StockOperationResult;
 import com.project_final.product_service.repositories.ProductRepository;
+import com.project_final.product_service.repositories.ProductSpecifications;
 import com.project_final.product_service.exceptions.*;
+import com.project_final.product_service.indexes.CatalogCounters;
+import com.project_final.product_service.indexes.LowStockMonitor;
+import com.project_final.product_service.indexes.PriceIndex;
+import com.project_final.product_service.indexes.SearchResultCache;
+import com.project_final.product_service.indexes.SearchResultCache.SearchMode;
+import com.project_final.product_service.indexes.TrigramSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 @Service
 public class ProductService {
@@ -17,15 +46,49 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private TrigramSearchIndex trigramSearchIndex;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+
+    @Autowired
+    private CatalogCounters catalogCounters;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Value("${product.top.max-limit:100}")
+    private int maxTopLimit = 100;
+
+    // Máximo representable en la columna price (precision 10, scale 2)
+    static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    // Campos que admite PATCH; id y fechas los gestiona el servicio
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("name", "description", "price", "stock");
+
     // Crear producto
     public Product createProduct(Product product) {
         validateProductData(product);
         return productRepository.save(product);
     }
 
-    // Obtener todos los productos
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    // Obtener todos los productos (listado: sin descripción)
+    public List<ProductSnapshot> getAllProducts() {
+        return productRepository.findAllSnapshots();
+    }
+
+    public List<Map<String, Object>> getAllProducts(ProductFields fields) {
+        return productRepository.findFields(fields, null, Sort.unsorted(), 0, ProductRepository.NO_LIMIT);
     }
 
     // Obtener producto por ID
@@ -33,85 +96,313 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
-    // Actualizar producto
+    // Obtener producto por ID con solo los campos pedidos
+    public Optional<Map<String, Object>> getProductById(Long id, ProductFields fields) {
+        return productRepository.findFieldsByIdIn(fields, List.of(id)).stream().findFirst();
+    }
+
+    // Actualizar producto (el cambio de precio queda en el historial en la misma transacción)
+    @Transactional
     public Product updateProduct(Long id, Product productDetails) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
 
+        BigDecimal previousPrice = product.getPrice();
+        applyUpdate(product, productDetails);
+
+        Product savedProduct = productRepository.save(product);
+        priceHistoryService.recordPriceChange(product, previousPrice);
+        return savedProduct;
+    }
+
+    // Actualización parcial (JSON Merge Patch, RFC 7396): solo se tocan los campos que cambian y,
+    // con @DynamicUpdate, el UPDATE lleva solo esas columnas; si nada cambia no se escribe
+    @Transactional
+    public ProductPatchResult patchProduct(Long id, JsonNode patch) {
+        checkPatch(patch);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+
+        BigDecimal previousPrice = product.getPrice();
+        List<String> changedFields = applyPatch(product, patch);
+        if (changedFields.isEmpty()) {
+            return new ProductPatchResult(product, changedFields);
+        }
+
+        Product savedProduct = productRepository.save(product);
+        priceHistoryService.recordPriceChange(product, previousPrice);
+        return new ProductPatchResult(savedProduct, changedFields);
+    }
+
+    // Valida los datos y los copia al producto; no modifica nada si no son válidos
+    void applyUpdate(Product product, Product productDetails) {
         validateProductData(productDetails);
 
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setPrice(productDetails.getPrice());
         product.setStock(productDetails.getStock());
+    }
 
-        return productRepository.save(product);
+    void checkPatch(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new ProductValidationException("El cuerpo debe ser un objeto JSON (JSON Merge Patch)");
+        }
+        Iterator<String> fields = patch.fieldNames();
+        while (fields.hasNext()) {
+            String field = fields.next();
+            if (!PATCHABLE_FIELDS.contains(field)) {
+                throw new ProductValidationException(field, "El campo " + field + " no se puede modificar");
+            }
+        }
     }
 
-    // Eliminar producto
+    // Aplica un parche ya comprobado con checkPatch y devuelve los campos que cambiaron
+    List<String> applyPatch(Product product, JsonNode patch) {
+        // Un campo ausente conserva su valor; null lo borra (solo admisible en la descripción)
+        String name = patch.has("name") ? patchText(patch.get("name"), "name") : product.getName();
+        String description = patch.has("description")
+                ? patchText(patch.get("description"), "description")
+                : product.getDescription();
+        BigDecimal price = patch.has("price") ? patchPrice(patch.get("price")) : product.getPrice();
+        Integer stock = patch.has("stock") ? patchStock(patch.get("stock")) : product.getStock();
+        validateProductData(new Product(name, description, price, stock));
+
+        // Los setters actualizan updatedAt, así que solo se llaman para los valores distintos
+        List<String> changedFields = new ArrayList<>();
+        if (!name.equals(product.getName())) {
+            product.setName(name);
+            changedFields.add("name");
+        }
+        if (!Objects.equals(description, product.getDescription())) {
+            product.setDescription(description);
+            changedFields.add("description");
+        }
+        if (price.compareTo(product.getPrice()) != 0) {
+            product.setPrice(price);
+            changedFields.add("price");
+        }
+        if (!stock.equals(product.getStock())) {
+            product.setStock(stock);
+            changedFields.add("stock");
+        }
+        return changedFields;
+    }
+
+    // Eliminar producto (borrado lógico en una sola sentencia, sin leerlo antes)
+    @Transactional
     public void deleteProduct(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException(id));
+        if (productRepository.softDeleteById(id, LocalDateTime.now()) == 0) {
+            throw new ProductNotFoundException(id);
+        }
 
-        productRepository.delete(product);
+        // El UPDATE no pasa por el ciclo de vida JPA: se avisa a índices y cachés a mano
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
     // Buscar productos por nombre
-    public List<Product> searchProductsByName(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            throw new ProductValidationException("name", "El nombre de búsqueda no puede estar vacío");
-        }
-        return productRepository.findByNameContaining(name);
+    public List<ProductSnapshot> searchProductsByName(String name) {
+        return searchByName(name, snapshots(), () -> productRepository.findByNameContaining(name));
+    }
+
+    public List<Map<String, Object>> searchProductsByName(String name, ProductFields fields) {
+        return searchByName(name, fieldsOf(fields), () -> productRepository.findFields(fields,
+                ProductSpecifications.nameContains(name), Sort.unsorted(), 0, ProductRepository.NO_LIMIT));
+    }
+
+    // Búsqueda tolerante a errores tipográficos sobre el índice de trigramas
+    public List<ProductSnapshot> fuzzySearchProductsByName(String name) {
+        return fuzzySearchByName(name, snapshots(), () -> productRepository.findByNameContaining(name));
+    }
+
+    public List<Map<String, Object>> fuzzySearchProductsByName(String name, ProductFields fields) {
+        return fuzzySearchByName(name, fieldsOf(fields), () -> productRepository.findFields(fields,
+                ProductSpecifications.nameContains(name), Sort.unsorted(), 0, ProductRepository.NO_LIMIT));
     }
 
     // Obtener productos disponibles (con stock)
-    public List<Product> getAvailableProducts() {
+    public List<ProductSnapshot> getAvailableProducts() {
         return productRepository.findAvailableProducts();
     }
 
+    public List<Map<String, Object>> getAvailableProducts(ProductFields fields) {
+        return productRepository.findFields(fields, ProductSpecifications.available(),
+                Sort.unsorted(), 0, ProductRepository.NO_LIMIT);
+    }
+
     // Buscar productos por rango de precio
-    public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        if (minPrice == null || maxPrice == null) {
-            throw new ProductValidationException("Los precios mínimo y máximo son obligatorios");
+    public List<ProductSnapshot> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return getProductsByPriceRange(minPrice, maxPrice, false);
+    }
+
+    // Buscar productos por rango de precio, opcionalmente solo los que tienen stock
+    public List<ProductSnapshot> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly) {
+        return byPriceRange(minPrice, maxPrice, availableOnly, snapshots(), () -> availableOnly
+                ? productRepository.findAvailableByPriceRange(minPrice, maxPrice)
+                : productRepository.findByPriceRange(minPrice, maxPrice));
+    }
+
+    public List<Map<String, Object>> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly,
+                                                             ProductFields fields) {
+        return byPriceRange(minPrice, maxPrice, availableOnly, fieldsOf(fields), () -> productRepository.findFields(fields,
+                ProductSpecifications.priceBetween(minPrice, maxPrice, availableOnly),
+                Sort.unsorted(), 0, ProductRepository.NO_LIMIT));
+    }
+
+    // Top-N más baratos (el índice de precios ya está ordenado; si no está cargado, ORDER BY price LIMIT n)
+    public List<ProductSnapshot> getCheapestProducts(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly, Integer limit) {
+        return cheapest(minPrice, maxPrice, availableOnly, limit, snapshots(), (min, max, n) ->
+                productRepository.findCheapest(min, max, availableOnly, PageRequest.of(0, n)));
+    }
+
+    public List<Map<String, Object>> getCheapestProducts(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly,
+                                                         Integer limit, ProductFields fields) {
+        return cheapest(minPrice, maxPrice, availableOnly, limit, fieldsOf(fields), (min, max, n) ->
+                productRepository.findFields(fields, ProductSpecifications.priceBetween(min, max, availableOnly),
+                        Sort.by("price", "id"), 0, n));
+    }
+
+    // Top-N con más stock (ORDER BY stock DESC LIMIT n sobre idx_product_stock_stock, en product_stock)
+    public List<ProductSnapshot> getMostStockedProducts(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly, Integer limit) {
+        return top(minPrice, maxPrice, limit, (min, max, n) ->
+                productRepository.findMostStocked(min, max, availableOnly, PageRequest.of(0, n)));
+    }
+
+    public List<Map<String, Object>> getMostStockedProducts(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly,
+                                                            Integer limit, ProductFields fields) {
+        return top(minPrice, maxPrice, limit, (min, max, n) ->
+                productRepository.findFields(fields, ProductSpecifications.priceBetween(min, max, availableOnly),
+                        Sort.by(Sort.Direction.DESC, "stock").and(Sort.by("id")), 0, n));
+    }
+
+    // Top-N modificados más recientemente, contando los cambios de stock (ORDER BY GREATEST(updated_at, stock.updated_at)).
+    // Al ordenar por una expresión no se usa índice: la base de datos hace un top-N sobre las filas del rango
+    public List<ProductSnapshot> getRecentlyUpdatedProducts(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly, Integer limit) {
+        return top(minPrice, maxPrice, limit, (min, max, n) ->
+                productRepository.findRecentlyUpdated(min, max, availableOnly, PageRequest.of(0, n)));
+    }
+
+    public List<Map<String, Object>> getRecentlyUpdatedProducts(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly,
+                                                                Integer limit, ProductFields fields) {
+        return top(minPrice, maxPrice, limit, (min, max, n) ->
+                productRepository.findFields(fields, ProductSpecifications.priceBetween(min, max, availableOnly),
+                        Sort.by(Sort.Direction.DESC, ProductRepository.LAST_MODIFIED, "id"), 0, n));
+    }
+
+    // Obtener productos con stock bajo
+    public List<ProductSnapshot> getLowStockProducts(Integer threshold) {
+        return lowStock(threshold, snapshots(), productRepository::findLowStockProducts);
+    }
+
+    public List<Map<String, Object>> getLowStockProducts(Integer threshold, ProductFields fields) {
+        return lowStock(threshold, fieldsOf(fields), below -> productRepository.findFields(fields,
+                ProductSpecifications.stockBelow(below), Sort.unsorted(), 0, ProductRepository.NO_LIMIT));
+    }
+
+    // Cada lectura pública tiene dos formas de fila (listado o ?fields=); la validación, los valores por
+    // defecto y la elección entre índice en memoria y BD se hacen una sola vez, en estos métodos
+
+    private <T> List<T> searchByName(String name, Projection<T> projection, Supplier<List<T>> query) {
+        validateSearchName(name);
+
+        // La versión se lee antes de consultar para no dar por válido un resultado ya desfasado
+        long version = searchResultCache.getVersion();
+        long[] cachedIds = searchResultCache.lookup(SearchMode.EXACT, name);
+        if (cachedIds != null) {
+            return projection.inOrder(cachedIds);
         }
 
-        if (minPrice.compareTo(BigDecimal.ZERO) < 0 || maxPrice.compareTo(BigDecimal.ZERO) < 0) {
-            throw new ProductValidationException("Los precios no pueden ser negativos");
+        List<T> rows = query.get();
+        searchResultCache.store(SearchMode.EXACT, name, version, projection.idsOf(rows));
+        return rows;
+    }
+
+    private <T> List<T> fuzzySearchByName(String name, Projection<T> projection, Supplier<List<T>> exactQuery) {
+        validateSearchName(name);
+
+        // Mientras el índice se carga, se responde con la búsqueda exacta
+        if (!trigramSearchIndex.isReady()) {
+            return exactQuery.get();
         }
 
-        if (minPrice.compareTo(maxPrice) > 0) {
-            throw ProductValidationException.invalidPriceRange();
+        long version = searchResultCache.getVersion();
+        long[] ids = searchResultCache.lookup(SearchMode.FUZZY, name);
+        if (ids == null) {
+            ids = trigramSearchIndex.search(name);
+            searchResultCache.store(SearchMode.FUZZY, name, version, ids);
         }
+        return projection.inOrder(ids);
+    }
 
-        return productRepository.findByPriceRange(minPrice, maxPrice);
+    private <T> List<T> byPriceRange(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly,
+                                     Projection<T> projection, Supplier<List<T>> query) {
+        validatePriceRange(minPrice, maxPrice);
+
+        // Con el índice cargado basta una búsqueda binaria y un recorrido del tramo
+        if (priceIndex.isReady()) {
+            return projection.inOrder(priceIndex.range(minPrice, maxPrice, availableOnly));
+        }
+        return query.get();
     }
 
-    // Obtener productos con stock bajo
-    public List<Product> getLowStockProducts(Integer threshold) {
-        if (threshold == null || threshold < 0) {
-            threshold = 10; // valor por defecto
+    private <T> List<T> cheapest(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly, Integer limit,
+                                 Projection<T> projection, TopQuery<T> query) {
+        return top(minPrice, maxPrice, limit, (min, max, n) -> priceIndex.isReady()
+                ? projection.inOrder(priceIndex.range(PriceIndex.toCentsCeiling(min), PriceIndex.toCentsFloor(max),
+                        availableOnly, n))
+                : query.find(min, max, n));
+    }
+
+    // Top-N: límite validado y, si no se indica, el rango de precios del catálogo entero
+    private <T> List<T> top(BigDecimal minPrice, BigDecimal maxPrice, Integer limit, TopQuery<T> query) {
+        int n = validateTopLimit(limit);
+        BigDecimal min = minPrice != null ? minPrice : BigDecimal.ZERO;
+        BigDecimal max = maxPrice != null ? maxPrice : MAX_PRICE;
+        validateOptionalPriceRange(min, max);
+
+        return query.find(min, max, n);
+    }
+
+    private <T> List<T> lowStock(Integer threshold, Projection<T> projection, IntFunction<List<T>> query) {
+        int below = lowStockThreshold(threshold);
+
+        // El monitor solo recorre los grupos de stock por debajo del umbral
+        if (lowStockMonitor.isReady()) {
+            return projection.inOrder(lowStockMonitor.below(below));
         }
-        return productRepository.findLowStockProducts(threshold);
+        return query.apply(below);
     }
 
     // Reducir stock de un producto (usado por Order Service)
     @Transactional
     public boolean reduceStock(Long productId, Integer quantity) {
-        if (productId == null) {
-            throw new ProductValidationException("productId", "El ID del producto no puede ser nulo");
+        StockOperationResult result = tryReduceStock(productId, quantity);
+        if (!result.isSuccess()) {
+            throw StockOperationException.reductionFailed(productId, result.toException());
         }
+        return true;
+    }
 
-        if (quantity == null || quantity <= 0) {
-            throw new ProductValidationException("quantity", "La cantidad debe ser mayor que cero");
-        }
+    // Reducir stock sin excepciones para los fallos esperados (stock insuficiente, producto inexistente)
+    @Transactional
+    public StockOperationResult tryReduceStock(Long productId, Integer quantity) {
+        validateStockOperation(productId, quantity);
 
         try {
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ProductNotFoundException(productId));
-
-            product.reduceStock(quantity);
+            Optional<Product> found = productRepository.findById(productId);
+            if (found.isEmpty()) {
+                return StockOperationResult.notFound(productId, quantity);
+            }
+
+            Product product = found.get();
+            if (!product.tryReduceStock(quantity)) {
+                return StockOperationResult.insufficientStock(productId, quantity, product.getStock());
+            }
             productRepository.save(product);
-            return true;
+
+            // Alimenta el cálculo del ritmo de ventas (se aplica tras el commit)
+            eventPublisher.publishEvent(new StockReducedEvent(productId, quantity, product.getStock()));
+            return StockOperationResult.success(productId, quantity, product.getStock());
         } catch (ProductServiceException e) {
             // Re-lanzar excepciones del servicio de productos
             throw e;
@@ -123,21 +414,28 @@ public class ProductService {
     // Aumentar stock de un producto (para cancelaciones)
     @Transactional
     public boolean increaseStock(Long productId, Integer quantity) {
-        if (productId == null) {
-            throw new ProductValidationException("productId", "El ID del producto no puede ser nulo");
+        StockOperationResult result = tryIncreaseStock(productId, quantity);
+        if (!result.isSuccess()) {
+            throw StockOperationException.increaseFailed(productId, result.toException());
         }
+        return true;
+    }
 
-        if (quantity == null || quantity <= 0) {
-            throw new ProductValidationException("quantity", "La cantidad debe ser mayor que cero");
-        }
+    // Aumentar stock sin excepción si el producto no existe
+    @Transactional
+    public StockOperationResult tryIncreaseStock(Long productId, Integer quantity) {
+        validateStockOperation(productId, quantity);
 
         try {
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ProductNotFoundException(productId));
+            Optional<Product> found = productRepository.findById(productId);
+            if (found.isEmpty()) {
+                return StockOperationResult.notFound(productId, quantity);
+            }
 
+            Product product = found.get();
             product.increaseStock(quantity);
             productRepository.save(product);
-            return true;
+            return StockOperationResult.success(productId, quantity, product.getStock());
         } catch (ProductServiceException e) {
             // Re-lanzar excepciones del servicio de productos
             throw e;
@@ -146,6 +444,16 @@ public class ProductService {
         }
     }
 
+    private void validateStockOperation(Long productId, Integer quantity) {
+        if (productId == null) {
+            throw new ProductValidationException("productId", "El ID del producto no puede ser nulo");
+        }
+
+        if (quantity == null || quantity <= 0) {
+            throw new ProductValidationException("quantity", "La cantidad debe ser mayor que cero");
+        }
+    }
+
     // Verificar stock disponible
     public boolean hasEnoughStock(Long productId, Integer quantity) {
         if (productId == null) {
@@ -160,17 +468,155 @@ public class ProductService {
         return hasStock != null && hasStock;
     }
 
-    // Obtener estadísticas
+    // Obtener estadísticas (desde los contadores materializados en cuanto están cargados)
     public Long getTotalProducts() {
+        if (catalogCounters.isReady()) {
+            return catalogCounters.getTotal();
+        }
         return productRepository.countAllProducts();
     }
 
     public Long getAvailableProductsCount() {
+        if (catalogCounters.isReady()) {
+            return catalogCounters.getAvailable();
+        }
         return productRepository.countAvailableProducts();
     }
 
-    // Método privado para validar datos del producto
-    private void validateProductData(Product product) {
+    // Proyección de listado (sin descripción)
+    private Projection<ProductSnapshot> snapshots() {
+        return new Projection<>(productRepository::findSnapshotsByIdIn, ProductSnapshot::getId);
+    }
+
+    // Solo los campos pedidos (?fields=), siempre con el ID
+    private Projection<Map<String, Object>> fieldsOf(ProductFields fields) {
+        return new Projection<>(ids -> productRepository.findFieldsByIdIn(fields, ids),
+                row -> (Long) row.get(ProductFields.ID));
+    }
+
+    // Forma de las filas de una lectura: cómo cargar unos IDs y cómo leer el ID de cada fila
+    private static final class Projection<T> {
+
+        private final Function<List<Long>, List<T>> loader;
+        private final ToLongFunction<T> idOf;
+
+        private Projection(Function<List<Long>, List<T>> loader, ToLongFunction<T> idOf) {
+            this.loader = loader;
+            this.idOf = idOf;
+        }
+
+        // Carga las filas de los IDs indicados respetando su orden (los que ya no existen se omiten)
+        List<T> inOrder(long[] ids) {
+            if (ids.length == 0) {
+                return new ArrayList<>();
+            }
+
+            List<Long> idList = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                idList.add(id);
+            }
+
+            Map<Long, T> byId = new HashMap<>();
+            for (T row : loader.apply(idList)) {
+                byId.put(idOf.applyAsLong(row), row);
+            }
+
+            List<T> ordered = new ArrayList<>(ids.length);
+            for (Long id : idList) {
+                T row = byId.get(id);
+                if (row != null) {
+                    ordered.add(row);
+                }
+            }
+            return ordered;
+        }
+
+        long[] idsOf(List<T> rows) {
+            return rows.stream()
+                    .mapToLong(idOf)
+                    .toArray();
+        }
+    }
+
+    // Consulta Top-N con el rango de precios y el límite ya validados
+    @FunctionalInterface
+    private interface TopQuery<T> {
+        List<T> find(BigDecimal minPrice, BigDecimal maxPrice, int limit);
+    }
+
+    private void validateSearchName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new ProductValidationException("name", "El nombre de búsqueda no puede estar vacío");
+        }
+    }
+
+    private void validatePriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null || maxPrice == null) {
+            throw new ProductValidationException("Los precios mínimo y máximo son obligatorios");
+        }
+        validateOptionalPriceRange(minPrice, maxPrice);
+    }
+
+    private static int lowStockThreshold(Integer threshold) {
+        if (threshold == null || threshold < 0) {
+            return 10; // valor por defecto
+        }
+        return threshold;
+    }
+
+    private int validateTopLimit(Integer limit) {
+        if (limit == null || limit <= 0 || limit > maxTopLimit) {
+            throw new ProductValidationException("limit", "El límite debe estar entre 1 y " + maxTopLimit);
+        }
+        return limit;
+    }
+
+    private void validateOptionalPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice.compareTo(BigDecimal.ZERO) < 0 || maxPrice.compareTo(BigDecimal.ZERO) < 0) {
+            throw new ProductValidationException("Los precios no pueden ser negativos");
+        }
+
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw ProductValidationException.invalidPriceRange();
+        }
+    }
+
+    private static String patchText(JsonNode value, String field) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new ProductValidationException(field, "El campo " + field + " debe ser un texto");
+        }
+        return value.asText();
+    }
+
+    private static BigDecimal patchPrice(JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (value.isNumber()) {
+            return value.decimalValue();
+        }
+        try {
+            return new BigDecimal(value.asText().trim());
+        } catch (NumberFormatException e) {
+            throw ProductValidationException.invalidPrice(value.asText());
+        }
+    }
+
+    private static Integer patchStock(JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isIntegralNumber() || !value.canConvertToInt()) {
+            throw new ProductValidationException("stock", "Stock inválido: " + value.asText());
+        }
+        return value.intValue();
+    }
+
+    // Validación de los datos del producto (también la aplica la importación masiva)
+    void validateProductData(Product product) {
         if (product == null) {
             throw new ProductValidationException("Los datos del producto no pueden ser nulos");
         }
@@ -0,0 +1,49 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.exceptions.ProductNotFoundException;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.indexes.SalesVelocityTracker;
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.SalesVelocity;
+import com.project_final.product_service.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Ritmo de ventas y previsión de roturas de stock a partir de SalesVelocityTracker
+ */
+@Service
+public class SalesVelocityService {
+
+    @Autowired
+    private SalesVelocityTracker salesVelocityTracker;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${product.velocity.max-results:500}")
+    private int maxResults = 500;
+
+    public SalesVelocity getVelocity(Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+
+        return new SalesVelocity(productId, salesVelocityTracker.unitsPerDay(productId),
+                product.getStock(), LocalDate.now());
+    }
+
+    public List<SalesVelocity> getStockoutForecast(Integer days, Integer limit) {
+        if (days == null || days <= 0 || days > 365) {
+            throw new ProductValidationException("days", "El horizonte debe estar entre 1 y 365 días");
+        }
+        if (limit == null || limit <= 0 || limit > maxResults) {
+            throw new ProductValidationException("limit", "El límite debe estar entre 1 y " + maxResults);
+        }
+
+        return salesVelocityTracker.projectStockouts(days, limit);
+    }
+}
@@ -0,0 +1,14 @@
+-- Migración de product_price_history.id de AUTO_INCREMENT a la secuencia price_history_seq
+-- (generador pooled de Hibernate, como product_seq). Ejecutar con la aplicación parada;
+-- ProductIdSequenceAligner hace el mismo ajuste al arrancar.
+
+-- 1. Tabla de la secuencia (ddl-auto=update también la crea)
+CREATE TABLE IF NOT EXISTS price_history_seq (next_val BIGINT);
+
+-- 2. Siguiente valor por encima del mayor id existente, con un bloque de margen
+--    (50 = PriceHistorySegment.ALLOCATION_SIZE)
+DELETE FROM price_history_seq;
+INSERT INTO price_history_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 + 1 FROM product_price_history;
+
+-- 3. Opcional: retirar AUTO_INCREMENT
+-- ALTER TABLE product_price_history MODIFY id BIGINT NOT NULL;
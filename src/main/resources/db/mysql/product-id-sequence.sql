@@ -0,0 +1,15 @@
+-- Migración de products.id de AUTO_INCREMENT a la secuencia product_seq (generador pooled de Hibernate).
+-- MySQL no tiene secuencias: Hibernate usa una tabla de una fila con el siguiente valor.
+-- Ejecutar con la aplicación parada. ProductIdSequenceAligner hace el mismo ajuste al arrancar,
+-- así que el script solo es imprescindible si se quiere retirar AUTO_INCREMENT (paso 3).
+
+-- 1. Tabla de la secuencia (ddl-auto=update también la crea)
+CREATE TABLE IF NOT EXISTS product_seq (next_val BIGINT);
+
+-- 2. Siguiente valor por encima del mayor id existente, con un bloque de margen
+--    (50 = spring.jpa.properties.product.id.allocation-size)
+DELETE FROM product_seq;
+INSERT INTO product_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 + 1 FROM products;
+
+-- 3. Opcional: cuando ningún otro cliente inserte productos sin id, retirar AUTO_INCREMENT
+-- ALTER TABLE products MODIFY id BIGINT NOT NULL;
@@ -0,0 +1,27 @@
+-- Migración del stock a la tabla estrecha product_stock (una fila por producto).
+-- Los descuentos de stock bloquean y reescriben solo esa fila, sin tocar la fila ancha de products.
+-- Ejecutar con la aplicación parada. ProductStockTableMigrator hace los pasos 1 a 3 al arrancar,
+-- así que el script solo es imprescindible para retirar la columna antigua (paso 4).
+
+-- 1. Tabla de stock (ddl-auto=update también la crea)
+CREATE TABLE IF NOT EXISTS product_stock (
+    product_id BIGINT NOT NULL PRIMARY KEY,
+    stock INT NOT NULL,
+    updated_at DATETIME(6),
+    CONSTRAINT fk_product_stock_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+CREATE INDEX idx_product_stock_stock ON product_stock (stock);
+
+-- 2. Copia del stock actual, incluidos los productos con borrado lógico pendientes de purga
+INSERT INTO product_stock (product_id, stock, updated_at)
+SELECT p.id, COALESCE(p.stock, 0), p.updated_at
+FROM products p
+LEFT JOIN product_stock s ON s.product_id = p.id
+WHERE s.product_id IS NULL;
+
+-- 3. Las inserciones ya no escriben products.stock
+ALTER TABLE products MODIFY stock INT NULL;
+
+-- 4. Opcional: cuando ninguna instancia antigua siga escribiendo products.stock, retirar la columna
+-- DROP INDEX idx_products_stock ON products;
+-- ALTER TABLE products DROP COLUMN stock;
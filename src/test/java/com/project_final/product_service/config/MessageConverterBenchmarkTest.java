@@ -0,0 +1,127 @@
+package com.project_final.product_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.product_service.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comparativa JSON / CBOR / Smile con las cargas típicas del Order Service: un listado de productos
+ * y la respuesta de reduce-stock. Comprueba el tamaño y deja en el log el coste medio de codificar
+ * y decodificar (sin umbrales de tiempo, que dependen de la máquina).
+ */
+class MessageConverterBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageConverterBenchmarkTest.class);
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 500;
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private ObjectMapper smileMapper;
+
+    private List<Product> products;
+    private Map<String, Object> stockResponse;
+
+    @BeforeEach
+    void setUp() {
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+
+        products = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            Product product = new Product("Producto " + i, "Descripción del producto " + i,
+                    new BigDecimal("19.99").add(BigDecimal.valueOf(i)), (int) (i * 7));
+            product.setId(i);
+            products.add(product);
+        }
+
+        stockResponse = new HashMap<>();
+        stockResponse.put("success", true);
+        stockResponse.put("message", "Stock reducido correctamente");
+        stockResponse.put("productId", 1L);
+        stockResponse.put("quantityReduced", 2);
+        stockResponse.put("timestamp", LocalDateTime.now());
+    }
+
+    @Test
+    void productList_BinaryFormatsAreSmallerThanJson() throws Exception {
+        // Act
+        int json = jsonMapper.writeValueAsBytes(products).length;
+        int cbor = cborMapper.writeValueAsBytes(products).length;
+        int smile = smileMapper.writeValueAsBytes(products).length;
+        logger.info("Listado de 100 productos: JSON {} B, CBOR {} B, Smile {} B", json, cbor, smile);
+
+        // Assert
+        assertTrue(cbor < json);
+        assertTrue(smile < json);
+    }
+
+    @Test
+    void stockResponse_BinaryFormatsAreSmallerThanJson() throws Exception {
+        // Act
+        int json = jsonMapper.writeValueAsBytes(stockResponse).length;
+        int cbor = cborMapper.writeValueAsBytes(stockResponse).length;
+        int smile = smileMapper.writeValueAsBytes(stockResponse).length;
+        logger.info("Respuesta de reduce-stock: JSON {} B, CBOR {} B, Smile {} B", json, cbor, smile);
+
+        // Assert
+        assertTrue(cbor < json);
+        assertTrue(smile < json);
+    }
+
+    @Test
+    void productList_RoundTripInEveryFormat() throws Exception {
+        for (ObjectMapper mapper : List.of(jsonMapper, cborMapper, smileMapper)) {
+            // Act
+            String format = mapper.getFactory().getFormatName();
+            long encodeNanos = measureEncode(mapper);
+            long decodeNanos = measureDecode(mapper, mapper.writeValueAsBytes(products));
+            logger.info("{}: codificar {} µs, decodificar {} µs por listado",
+                    format, encodeNanos / 1_000, decodeNanos / 1_000);
+
+            // Assert
+            Product[] decoded = mapper.readValue(mapper.writeValueAsBytes(products), Product[].class);
+            assertEquals(products.size(), decoded.length);
+            assertEquals("Producto 100", decoded[99].getName());
+            assertEquals(0, products.get(99).getPrice().compareTo(decoded[99].getPrice()));
+        }
+    }
+
+    // Tiempo medio por iteración tras el calentamiento
+    private long measureEncode(ObjectMapper mapper) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            mapper.writeValueAsBytes(products);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            mapper.writeValueAsBytes(products);
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+
+    private long measureDecode(ObjectMapper mapper, byte[] payload) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            mapper.readValue(payload, Product[].class);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            mapper.readValue(payload, Product[].class);
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+}
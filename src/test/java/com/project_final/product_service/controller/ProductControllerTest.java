@@ -1,7 +1,40 @@
 package com.project_final.product_service.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.product_service.model.BulkDeleteRequest;
+import com.project_final.product_service.model.BulkDeleteResult;
+import com.project_final.product_service.model.BulkPriceUpdateRequest;
+import com.project_final.product_service.model.BulkPriceUpdateResult;
+import com.project_final.product_service.model.BulkStockAdjustmentRequest;
+import com.project_final.product_service.model.BulkStockAdjustmentResult;
+import com.project_final.product_service.model.ImportResult;
+import com.project_final.product_service.model.InventoryDashboard;
+import com.project_final.product_service.model.PriceDistribution;
+import com.project_final.product_service.model.PricePoint;
+import com.project_final.product_service.model.PricesAt;
+import com.project_final.product_service.model.SalesVelocity;
 import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductBatchRequest;
+import com.project_final.product_service.model.ProductBatchResult;
+import com.project_final.product_service.model.ProductChangeFeed;
+import com.project_final.product_service.model.ProductFields;
+import com.project_final.product_service.model.ProductPatchResult;
+import com.project_final.product_service.model.ProductQuery;
+import com.project_final.product_service.model.ProductQueryResult;
+import com.project_final.product_service.model.ProductSnapshot;
+import com.project_final.product_service.model.StockOperationResult;
+import com.project_final.product_service.service.BulkDeleteService;
+import com.project_final.product_service.service.BulkPriceUpdateService;
+import com.project_final.product_service.service.BulkStockAdjustmentService;
+import com.project_final.product_service.service.InventoryDashboardService;
+import com.project_final.product_service.service.PriceHistoryService;
+import com.project_final.product_service.service.PriceStatisticsService;
+import com.project_final.product_service.service.ProductBatchService;
+import com.project_final.product_service.service.ProductChangeFeedService;
+import com.project_final.product_service.service.ProductImportService;
+import com.project_final.product_service.service.SalesVelocityService;
+import com.project_final.product_service.service.ProductQueryService;
 import com.project_final.product_service.service.ProductService;
 import com.project_final.product_service.exceptions.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,18 +43,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 @WebMvcTest(ProductController.class)
 class ProductControllerTest {
@@ -32,11 +71,45 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductQueryService productQueryService;
+
+    @MockBean
+    private InventoryDashboardService inventoryDashboardService;
+
+    @MockBean
+    private PriceStatisticsService priceStatisticsService;
+
+    @MockBean
+    private SalesVelocityService salesVelocityService;
+
+    @MockBean
+    private PriceHistoryService priceHistoryService;
+
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private BulkPriceUpdateService bulkPriceUpdateService;
+
+    @MockBean
+    private BulkStockAdjustmentService bulkStockAdjustmentService;
+
+    @MockBean
+    private BulkDeleteService bulkDeleteService;
+
+    @MockBean
+    private ProductBatchService productBatchService;
+
+    @MockBean
+    private ProductChangeFeedService productChangeFeedService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Product testProduct;
     private Product testProductWithId;
+    private ProductSnapshot testSnapshot;
 
     @BeforeEach
     void setUp() {
@@ -54,6 +127,7 @@ class ProductControllerTest {
         testProductWithId.setStock(50);
         testProductWithId.setCreatedAt(LocalDateTime.now());
         testProductWithId.setUpdatedAt(LocalDateTime.now());
+        testSnapshot = ProductSnapshot.from(testProductWithId);
     }
 
     //  TESTS POST /api/products
@@ -78,6 +152,22 @@ class ProductControllerTest {
         verify(productService).createProduct(any(Product.class));
     }
 
+    @Test
+    void createProduct_PreferMinimal_ReturnsLocationWithoutBody() throws Exception {
+        // Arrange
+        when(productService.createProduct(any(Product.class))).thenReturn(testProductWithId);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products")
+                        .header("Prefer", "return=minimal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testProduct)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/products/1"))
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void createProduct_InvalidProduct_ReturnsBadRequest() throws Exception {
         // Arrange
@@ -100,18 +190,49 @@ class ProductControllerTest {
     @Test
     void getAllProducts_ReturnsProductList() throws Exception {
         // Arrange
-        List<Product> products = Arrays.asList(testProductWithId, testProductWithId);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot, testSnapshot);
         when(productService.getAllProducts()).thenReturn(products);
 
         // Act & Assert
         mockMvc.perform(get("/api/products"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].name").value("Test Product"));
+                .andExpect(jsonPath("$[0].name").value("Test Product"))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
 
         verify(productService).getAllProducts();
     }
 
+    @Test
+    void getAllProducts_WithFields_ReturnsOnlyRequestedFields() throws Exception {
+        // Arrange
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("price", new BigDecimal("99.99"));
+        row.put("stock", 50);
+        when(productService.getAllProducts(any(ProductFields.class))).thenReturn(List.of(row));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products").param("fields", "price,stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].price").value(99.99))
+                .andExpect(jsonPath("$[0].stock").value(50))
+                .andExpect(jsonPath("$[0].name").doesNotExist());
+
+        verify(productService).getAllProducts(argThat(fields -> fields.getNames().equals(List.of("id", "price", "stock"))));
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void getAllProducts_UnknownField_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products").param("fields", "name,secret"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productService);
+    }
+
     //  TESTS GET /api/products/{id}
 
     @Test
@@ -128,6 +249,74 @@ class ProductControllerTest {
         verify(productService).getProductById(1L);
     }
 
+    @Test
+    void getProductById_AcceptCbor_ReturnsCbor() throws Exception {
+        // Arrange
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProductWithId));
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+        // Act
+        byte[] body = mockMvc.perform(get("/api/products/1")
+                        .accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        JsonNode product = cborMapper.readTree(body);
+        assertEquals(1, product.get("id").asLong());
+        assertEquals("Test Product", product.get("name").asText());
+    }
+
+    @Test
+    void getProductById_NoAccept_DefaultsToJson() throws Exception {
+        // Arrange
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProductWithId));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/1")
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void reduceStock_SmileRequest_ReturnsSmile() throws Exception {
+        // Arrange
+        when(productService.tryReduceStock(1L, 10)).thenReturn(StockOperationResult.success(1L, 10, 40));
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+
+        // Act
+        byte[] body = mockMvc.perform(put("/api/products/1/reduce-stock")
+                        .accept("application/x-jackson-smile")
+                        .param("quantity", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        JsonNode response = smileMapper.readTree(body);
+        assertTrue(response.get("success").asBoolean());
+        assertEquals(10, response.get("quantityReduced").asInt());
+    }
+
+    @Test
+    void createProduct_CborBody_ReturnsCreatedProduct() throws Exception {
+        // Arrange
+        when(productService.createProduct(any(Product.class))).thenReturn(testProductWithId);
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products")
+                        .contentType("application/cbor")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(cborMapper.writeValueAsBytes(testProduct)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.product.name").value("Test Product"));
+
+        verify(productService).createProduct(argThat(product -> "Test Product".equals(product.getName())));
+    }
+
     @Test
     void getProductById_NonExistingId_ReturnsNotFound() throws Exception {
         // Arrange
@@ -140,6 +329,23 @@ class ProductControllerTest {
         verify(productService).getProductById(999L);
     }
 
+    @Test
+    void getProductById_WithFields_ReturnsOnlyRequestedFields() throws Exception {
+        // Arrange
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("name", "Test Product");
+        when(productService.getProductById(eq(1L), any(ProductFields.class))).thenReturn(Optional.of(row));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/1").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Test Product"))
+                .andExpect(jsonPath("$.description").doesNotExist());
+
+        verify(productService, never()).getProductById(1L);
+    }
+
     //  TESTS PUT /api/products/{id}
 
     @Test
@@ -166,6 +372,20 @@ class ProductControllerTest {
         verify(productService).updateProduct(eq(1L), any(Product.class));
     }
 
+    @Test
+    void updateProduct_PreferMinimal_ReturnsNoContent() throws Exception {
+        // Arrange
+        when(productService.updateProduct(eq(1L), any(Product.class))).thenReturn(testProductWithId);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/products/1")
+                        .header("Prefer", "return=minimal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testProduct)))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Preference-Applied", "return=minimal"));
+    }
+
     @Test
     void updateProduct_NonExistingId_ReturnsNotFound() throws Exception {
         // Arrange
@@ -183,12 +403,54 @@ class ProductControllerTest {
         verify(productService).updateProduct(eq(999L), any(Product.class));
     }
 
+    //  TESTS PATCH /api/products/{id}
+
+    @Test
+    void patchProduct_MergePatch_ReturnsChangedFields() throws Exception {
+        // Arrange
+        when(productService.patchProduct(eq(1L), any())).thenReturn(new ProductPatchResult(testProductWithId, List.of("price")));
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"price\": 89.99}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(true))
+                .andExpect(jsonPath("$.changedFields[0]").value("price"))
+                .andExpect(jsonPath("$.productId").value(1));
+    }
+
+    @Test
+    void patchProduct_NoChanges_ReportsNotUpdated() throws Exception {
+        // Arrange
+        when(productService.patchProduct(eq(1L), any())).thenReturn(new ProductPatchResult(testProductWithId, List.of()));
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stock\": 50}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(false))
+                .andExpect(jsonPath("$.message").value("Sin cambios"));
+    }
+
+    @Test
+    void patchProduct_NonExistingId_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(productService.patchProduct(eq(999L), any())).thenThrow(new ProductNotFoundException(999L));
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/products/999")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"stock\": 1}"))
+                .andExpect(status().isNotFound());
+    }
+
     // TESTS DELETE /api/products/{id}
 
     @Test
     void deleteProduct_ExistingId_ReturnsSuccessMessage() throws Exception {
         // Arrange
-        when(productService.getProductById(1L)).thenReturn(Optional.of(testProductWithId));
         doNothing().when(productService).deleteProduct(1L);
 
         // Act & Assert
@@ -198,13 +460,15 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.message").value("Producto eliminado correctamente"))
                 .andExpect(jsonPath("$.productId").value(1));
 
+        // Una sola llamada al servicio, sin leer antes el producto
         verify(productService).deleteProduct(1L);
+        verify(productService, never()).getProductById(anyLong());
     }
 
     @Test
     void deleteProduct_NonExistingId_ReturnsNotFound() throws Exception {
-        // Arrange - El controlador llama primero a getProductById y luego a deleteProduct
-        when(productService.getProductById(999L)).thenReturn(Optional.empty());
+        // Arrange
+        doThrow(new ProductNotFoundException(999L)).when(productService).deleteProduct(999L);
 
         // Act & Assert
         mockMvc.perform(delete("/api/products/999"))
@@ -212,10 +476,42 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Producto no encontrado"))
                 .andExpect(jsonPath("$.productId").value(999));
+    }
 
-        // Verificar que solo se llamó a getProductById, no a deleteProduct
-        verify(productService).getProductById(999L);
-        verify(productService, never()).deleteProduct(999L);
+    @Test
+    void deleteProducts_Bulk_ReturnsSummary() throws Exception {
+        // Arrange
+        when(bulkDeleteService.deleteProducts(any(BulkDeleteRequest.class)))
+                .thenReturn(new BulkDeleteResult(3, 2, 1, List.of(99L), false, 4));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2,99]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2))
+                .andExpect(jsonPath("$.notFoundIds[0]").value(99));
+    }
+
+    //  TESTS POST /api/products/batch
+
+    @Test
+    void executeBatch_ReturnsOneResultPerOperation() throws Exception {
+        // Arrange
+        when(productBatchService.execute(any(ProductBatchRequest.class))).thenReturn(new ProductBatchResult(true, 1, 1,
+                List.of(new ProductBatchResult.OperationResult(0, 201, 7L, 5, null),
+                        new ProductBatchResult.OperationResult(1, 404, 99L, null, "Producto con ID 99 no encontrado")), 3));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[{\"op\":\"CREATE\",\"product\":{\"name\":\"Nuevo\",\"price\":1.5,\"stock\":5}},"
+                                + "{\"op\":\"REDUCE_STOCK\",\"id\":99,\"quantity\":1}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed").value(true))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[0].error").doesNotExist())
+                .andExpect(jsonPath("$.results[1].status").value(404));
     }
 
     //  TESTS GET /api/products/search
@@ -223,7 +519,7 @@ class ProductControllerTest {
     @Test
     void searchProducts_ValidName_ReturnsMatchingProducts() throws Exception {
         // Arrange
-        List<Product> products = Arrays.asList(testProductWithId);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
         when(productService.searchProductsByName("Test")).thenReturn(products);
 
         // Act & Assert
@@ -236,12 +532,73 @@ class ProductControllerTest {
         verify(productService).searchProductsByName("Test");
     }
 
+    @Test
+    void searchProducts_FuzzyMode_UsesFuzzySearch() throws Exception {
+        // Arrange
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
+        when(productService.fuzzySearchProductsByName("Tset")).thenReturn(products);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/search")
+                        .param("name", "Tset")
+                        .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Test Product"));
+
+        verify(productService).fuzzySearchProductsByName("Tset");
+        verify(productService, never()).searchProductsByName(any());
+    }
+
+    // TESTS GET /api/products/query
+
+    @Test
+    void queryProducts_WithFilters_ReturnsCountAndPage() throws Exception {
+        // Arrange
+        ProductQueryResult result = new ProductQueryResult(1L, Arrays.asList(testProductWithId),
+                ProductQueryResult.SOURCE_INDEX, Arrays.asList("name:test(1)", "available(3)"));
+        when(productQueryService.query(any(ProductQuery.class))).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/query")
+                        .param("name", "test")
+                        .param("maxPrice", "150.00")
+                        .param("available", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.products[0].name").value("Test Product"))
+                .andExpect(jsonPath("$.source").value("index"))
+                .andExpect(jsonPath("$.plan.length()").value(2));
+
+        verify(productQueryService).query(argThat(query ->
+                "test".equals(query.getName())
+                        && new BigDecimal("150.00").equals(query.getMaxPrice())
+                        && Boolean.TRUE.equals(query.getAvailable())
+                        && query.getMinPrice() == null));
+    }
+
+    @Test
+    void queryProducts_CountOnly_OmitsProducts() throws Exception {
+        // Arrange
+        ProductQueryResult result = new ProductQueryResult(42L, List.of(),
+                ProductQueryResult.SOURCE_INDEX, List.of("out-of-stock(42)"));
+        when(productQueryService.query(any(ProductQuery.class))).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/query")
+                        .param("available", "false")
+                        .param("countOnly", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(42))
+                .andExpect(jsonPath("$.products").doesNotExist());
+    }
+
     // TESTS GET /api/products/available
 
     @Test
     void getAvailableProducts_ReturnsAvailableProducts() throws Exception {
         // Arrange
-        List<Product> products = Arrays.asList(testProductWithId);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
         when(productService.getAvailableProducts()).thenReturn(products);
 
         // Act & Assert
@@ -257,7 +614,7 @@ class ProductControllerTest {
     @Test
     void getProductsByPriceRange_ValidRange_ReturnsProducts() throws Exception {
         // Arrange
-        List<Product> products = Arrays.asList(testProductWithId);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
         when(productService.getProductsByPriceRange(any(BigDecimal.class), any(BigDecimal.class)))
                 .thenReturn(products);
 
@@ -271,12 +628,288 @@ class ProductControllerTest {
         verify(productService).getProductsByPriceRange(any(BigDecimal.class), any(BigDecimal.class));
     }
 
+    @Test
+    void getProductsByPriceRange_AvailableOnly_ReturnsAvailableProducts() throws Exception {
+        // Arrange
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
+        when(productService.getProductsByPriceRange(any(BigDecimal.class), any(BigDecimal.class), eq(true)))
+                .thenReturn(products);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/price-range")
+                        .param("minPrice", "50.00")
+                        .param("maxPrice", "150.00")
+                        .param("available", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        verify(productService).getProductsByPriceRange(any(BigDecimal.class), any(BigDecimal.class), eq(true));
+    }
+
+    // TESTS GET /api/products/top/*
+
+    @Test
+    void getCheapestProducts_WithFilters_ReturnsProducts() throws Exception {
+        // Arrange
+        when(productService.getCheapestProducts(null, new BigDecimal("150.00"), true, 5))
+                .thenReturn(Arrays.asList(testSnapshot));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/top/cheapest")
+                        .param("limit", "5")
+                        .param("maxPrice", "150.00")
+                        .param("available", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        verify(productService).getCheapestProducts(null, new BigDecimal("150.00"), true, 5);
+    }
+
+    @Test
+    void getMostStockedProducts_DefaultLimit_ReturnsProducts() throws Exception {
+        // Arrange
+        when(productService.getMostStockedProducts(null, null, false, 10))
+                .thenReturn(Arrays.asList(testSnapshot));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/top/most-stocked"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].stock").value(50));
+
+        verify(productService).getMostStockedProducts(null, null, false, 10);
+    }
+
+    @Test
+    void getRecentlyUpdatedProducts_ReturnsProducts() throws Exception {
+        // Arrange
+        when(productService.getRecentlyUpdatedProducts(null, null, false, 3))
+                .thenReturn(Arrays.asList(testSnapshot));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/top/recently-updated")
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    // TESTS DE RITMO DE VENTAS
+
+    @Test
+    void getSalesVelocity_ExistingProduct_ReturnsVelocity() throws Exception {
+        // Arrange
+        SalesVelocity velocity = new SalesVelocity(1L, 5.0, 50, LocalDate.of(2024, 1, 1));
+        when(salesVelocityService.getVelocity(1L)).thenReturn(velocity);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/1/velocity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unitsPerDay").value(5.0))
+                .andExpect(jsonPath("$.daysOfCover").value(10.0))
+                .andExpect(jsonPath("$.projectedStockout").value("2024-01-11"));
+    }
+
+    @Test
+    void getSalesVelocity_ProductNotFound_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(salesVelocityService.getVelocity(999L)).thenThrow(new ProductNotFoundException(999L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/999/velocity"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getStockoutForecast_ReturnsProjections() throws Exception {
+        // Arrange
+        when(salesVelocityService.getStockoutForecast(3, 50))
+                .thenReturn(List.of(new SalesVelocity(1L, 10.0, 20, LocalDate.of(2024, 1, 1))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/stockout-forecast")
+                        .param("days", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].daysOfCover").value(2.0));
+    }
+
+    // TESTS DE IMPORTACIÓN MASIVA
+
+    @Test
+    void importProducts_Ndjson_ReturnsSummary() throws Exception {
+        // Arrange
+        ImportResult result = new ImportResult("NDJSON", 3, 2, 1,
+                List.of(new ImportResult.RowError(2, "name", "El nombre del producto no puede estar vacío")), false, 15);
+        when(productImportService.importProducts(any(InputStream.class), eq(ProductImportService.Format.NDJSON)))
+                .thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\":\"A\",\"price\":1,\"stock\":1}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].field").value("name"));
+    }
+
+    @Test
+    void importProducts_Csv_UsesCsvFormat() throws Exception {
+        // Arrange
+        when(productImportService.importProducts(any(InputStream.class), eq(ProductImportService.Format.CSV)))
+                .thenReturn(new ImportResult("CSV", 2, 1, 0, List.of(), false, 5));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/import")
+                        .contentType("text/csv")
+                        .content("name,price,stock\nLaptop,999.99,5\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.format").value("CSV"));
+    }
+
+    // TESTS DE CAMBIO MASIVO DE PRECIOS
+
+    @Test
+    void updatePrices_WithRule_ReturnsSummary() throws Exception {
+        // Arrange
+        BulkPriceUpdateResult result = new BulkPriceUpdateResult("PERCENTAGE", 3, 2, 0, 1, 0,
+                List.of(new BulkPriceUpdateResult.Rejection(7L, "Precio inválido: 0.00. El precio debe ser mayor que cero")),
+                false, 12);
+        when(bulkPriceUpdateService.updatePrices(any(BulkPriceUpdateRequest.class))).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/bulk/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rule\":{\"type\":\"PERCENTAGE\",\"amount\":10,\"maxPrice\":100}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("PERCENTAGE"))
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.rejections[0].productId").value(7));
+    }
+
+    @Test
+    void updatePrices_InvalidRequest_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(bulkPriceUpdateService.updatePrices(any(BulkPriceUpdateRequest.class)))
+                .thenThrow(new ProductValidationException("Debe indicarse una lista de precios o una regla, pero no ambas"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/bulk/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // TESTS DE AJUSTE MASIVO DE STOCK
+
+    @Test
+    void adjustStock_ReturnsPerLineOutcome() throws Exception {
+        // Arrange
+        BulkStockAdjustmentResult result = new BulkStockAdjustmentResult(true, 1, 1, 1, List.of(
+                new BulkStockAdjustmentResult.LineResult(1, 1L, 20, BulkStockAdjustmentResult.Status.APPLIED, 70, null),
+                new BulkStockAdjustmentResult.LineResult(2, 2L, -5, BulkStockAdjustmentResult.Status.INSUFFICIENT_STOCK, 3,
+                        "Stock insuficiente: disponible 3, solicitado 5")), 8);
+        when(bulkStockAdjustmentService.adjustStock(any(BulkStockAdjustmentRequest.class))).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/bulk/stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lines\":[{\"id\":1,\"delta\":20},{\"id\":2,\"delta\":-5}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed").value(true))
+                .andExpect(jsonPath("$.lines[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$.lines[0].stock").value(70))
+                .andExpect(jsonPath("$.lines[1].status").value("INSUFFICIENT_STOCK"));
+    }
+
+    // TESTS DE HISTORIAL DE PRECIOS
+
+    @Test
+    void getPriceHistory_WithRange_ReturnsPricePoints() throws Exception {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        when(priceHistoryService.getPriceHistory(1L, from, to)).thenReturn(List.of(
+                new PricePoint(LocalDateTime.of(2023, 12, 20, 10, 0), new BigDecimal("99.99")),
+                new PricePoint(LocalDateTime.of(2024, 1, 15, 10, 0), new BigDecimal("89.99"))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/1/price-history")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].price").value(89.99));
+    }
+
+    @Test
+    void getPriceHistory_ProductNotFound_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(priceHistoryService.getPriceHistory(999L, null, null)).thenThrow(new ProductNotFoundException(999L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/999/price-history"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getPricesAt_ReturnsPageWithCursor() throws Exception {
+        // Arrange
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+        prices.put(1L, new BigDecimal("99.99"));
+        prices.put(2L, new BigDecimal("10.00"));
+        when(priceHistoryService.getPricesAt(at, 0L, 2)).thenReturn(new PricesAt(at, prices, 2L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/prices-at")
+                        .param("at", "2024-01-01T12:00:00")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.prices['1']").value(99.99))
+                .andExpect(jsonPath("$.nextAfterId").value(2));
+    }
+
+    //  TESTS GET /api/products/changes
+
+    @Test
+    void getChanges_ReturnsUpsertsAndTombstonesWithCursor() throws Exception {
+        // Arrange
+        ProductChangeFeed feed = new ProductChangeFeed(List.of(
+                ProductChangeFeed.Change.upsert(11L, testSnapshot),
+                ProductChangeFeed.Change.tombstone(12L, 2L)), 12L, false);
+        when(productChangeFeedService.getChanges(10L, 500)).thenReturn(feed);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/changes")
+                        .param("since", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].type").value("UPSERT"))
+                .andExpect(jsonPath("$.changes[0].product.name").value("Test Product"))
+                .andExpect(jsonPath("$.changes[1].type").value("DELETE"))
+                .andExpect(jsonPath("$.changes[1].productId").value(2))
+                .andExpect(jsonPath("$.cursor").value(12))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void getChanges_InvalidCursor_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(productChangeFeedService.getChanges(-1L, 500))
+                .thenThrow(new ProductValidationException("since", "El cursor no puede ser negativo"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/changes")
+                        .param("since", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
     //  TESTS GET /api/products/low-stock
 
     @Test
     void getLowStockProducts_ReturnsLowStockProducts() throws Exception {
         // Arrange
-        List<Product> products = Arrays.asList(testProductWithId);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
         when(productService.getLowStockProducts(10)).thenReturn(products);
 
         // Act & Assert
@@ -293,7 +926,7 @@ class ProductControllerTest {
     @Test
     void reduceStock_ValidOperation_ReturnsSuccessResponse() throws Exception {
         // Arrange
-        when(productService.reduceStock(1L, 10)).thenReturn(true);
+        when(productService.tryReduceStock(1L, 10)).thenReturn(StockOperationResult.success(1L, 10, 40));
 
         // Act & Assert
         mockMvc.perform(put("/api/products/1/reduce-stock")
@@ -302,14 +935,57 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Stock reducido correctamente"));
 
-        verify(productService).reduceStock(1L, 10);
+        verify(productService).tryReduceStock(1L, 10);
+    }
+
+    @Test
+    void reduceStock_PreferMinimal_ReturnsNoContent() throws Exception {
+        // Arrange
+        when(productService.tryReduceStock(1L, 10)).thenReturn(StockOperationResult.success(1L, 10, 40));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/products/1/reduce-stock")
+                        .header("Prefer", "handling=strict, return=minimal")
+                        .param("quantity", "10"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andExpect(content().string(""));
+
+        verify(productService).tryReduceStock(1L, 10);
+    }
+
+    @Test
+    void reduceStock_PreferMinimalWithSpaces_ReturnsNoContent() throws Exception {
+        // Arrange
+        when(productService.tryReduceStock(1L, 10)).thenReturn(StockOperationResult.success(1L, 10, 40));
+
+        // Act & Assert: la sintaxis de Prefer admite espacios alrededor del '='
+        mockMvc.perform(put("/api/products/1/reduce-stock")
+                        .header("Prefer", "return = minimal; foo=bar")
+                        .param("quantity", "10"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Preference-Applied", "return=minimal"));
+    }
+
+    @Test
+    void reduceStock_PreferMinimalWithError_KeepsErrorBody() throws Exception {
+        // Arrange
+        when(productService.tryReduceStock(1L, 100))
+                .thenReturn(StockOperationResult.insufficientStock(1L, 100, 50));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/products/1/reduce-stock")
+                        .header("Prefer", "return=minimal")
+                        .param("quantity", "100"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
     }
 
     @Test
     void reduceStock_InsufficientStock_ReturnsBadRequest() throws Exception {
         // Arrange
-        when(productService.reduceStock(1L, 100))
-                .thenThrow(new InsufficientStockException(1L, 50, 100));
+        when(productService.tryReduceStock(1L, 100))
+                .thenReturn(StockOperationResult.insufficientStock(1L, 100, 50));
 
         // Act & Assert
         mockMvc.perform(put("/api/products/1/reduce-stock")
@@ -318,7 +994,20 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Error al reducir stock"));
 
-        verify(productService).reduceStock(1L, 100);
+        verify(productService).tryReduceStock(1L, 100);
+    }
+
+    @Test
+    void reduceStock_ProductNotFound_ReturnsBadRequestWithMessage() throws Exception {
+        // Arrange
+        when(productService.tryReduceStock(999L, 5)).thenReturn(StockOperationResult.notFound(999L, 5));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/products/999/reduce-stock")
+                        .param("quantity", "5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error").value("Producto con ID 999 no encontrado"));
     }
 
     //  TESTS PUT /api/products/{id}/increase-stock
@@ -326,7 +1015,7 @@ class ProductControllerTest {
     @Test
     void increaseStock_ValidOperation_ReturnsSuccessResponse() throws Exception {
         // Arrange
-        when(productService.increaseStock(1L, 20)).thenReturn(true);
+        when(productService.tryIncreaseStock(1L, 20)).thenReturn(StockOperationResult.success(1L, 20, 70));
 
         // Act & Assert
         mockMvc.perform(put("/api/products/1/increase-stock")
@@ -335,7 +1024,19 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Stock aumentado correctamente"));
 
-        verify(productService).increaseStock(1L, 20);
+        verify(productService).tryIncreaseStock(1L, 20);
+    }
+
+    @Test
+    void increaseStock_PreferMinimal_ReturnsNoContent() throws Exception {
+        // Arrange
+        when(productService.tryIncreaseStock(1L, 20)).thenReturn(StockOperationResult.success(1L, 20, 70));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/products/1/increase-stock")
+                        .header("Prefer", "return=minimal")
+                        .param("quantity", "20"))
+                .andExpect(status().isNoContent());
     }
 
     //  TESTS GET /api/products/{id}/check-stock
@@ -395,4 +1096,50 @@ class ProductControllerTest {
 
         verify(productService).getAvailableProductsCount();
     }
+
+    @Test
+    void getInventoryDashboard_ReturnsAggregates() throws Exception {
+        // Arrange
+        InventoryDashboard dashboard = new InventoryDashboard(5, 3, 2, 10, new BigDecimal("499.95"),
+                List.of(new InventoryDashboard.PriceBucket(new BigDecimal("0"), new BigDecimal("100"), 4),
+                        new InventoryDashboard.PriceBucket(new BigDecimal("100"), null, 1)),
+                LocalDateTime.now());
+        when(inventoryDashboardService.getDashboard()).thenReturn(dashboard);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/stats/dashboard"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.available").value(3))
+                .andExpect(jsonPath("$.outOfStock").value(2))
+                .andExpect(jsonPath("$.lowStock").value(2))
+                .andExpect(jsonPath("$.inventoryValue").value(499.95))
+                .andExpect(jsonPath("$.priceHistogram.length()").value(2))
+                .andExpect(jsonPath("$.priceHistogram[1].count").value(1));
+
+        verify(inventoryDashboardService).getDashboard();
+    }
+
+    @Test
+    void getPriceDistribution_DefaultQuantiles_ReturnsSummaries() throws Exception {
+        // Arrange
+        Map<String, BigDecimal> quantiles = new LinkedHashMap<>();
+        quantiles.put("p50", new BigDecimal("19.99"));
+        quantiles.put("p90", new BigDecimal("89.90"));
+        quantiles.put("p99", new BigDecimal("249.00"));
+        PriceDistribution distribution = new PriceDistribution(0.01,
+                new PriceDistribution.Summary(100, quantiles),
+                new PriceDistribution.Summary(80, quantiles));
+        when(priceStatisticsService.getPriceDistribution(List.of(0.5, 0.9, 0.99))).thenReturn(distribution);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/stats/prices"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.relativeAccuracy").value(0.01))
+                .andExpect(jsonPath("$.overall.count").value(100))
+                .andExpect(jsonPath("$.overall.quantiles.p90").value(89.90))
+                .andExpect(jsonPath("$.available.count").value(80));
+
+        verify(priceStatisticsService).getPriceDistribution(List.of(0.5, 0.9, 0.99));
+    }
 }
\ No newline at end of file
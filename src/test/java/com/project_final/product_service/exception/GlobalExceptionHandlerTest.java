@@ -4,7 +4,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.project_final.product_service.controller.ProductController;
 import com.project_final.product_service.exceptions.*;
 import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.StockOperationResult;
+import com.project_final.product_service.service.BulkDeleteService;
+import com.project_final.product_service.service.BulkPriceUpdateService;
+import com.project_final.product_service.service.BulkStockAdjustmentService;
+import com.project_final.product_service.service.InventoryDashboardService;
+import com.project_final.product_service.service.PriceHistoryService;
+import com.project_final.product_service.service.PriceStatisticsService;
+import com.project_final.product_service.service.ProductBatchService;
+import com.project_final.product_service.service.ProductChangeFeedService;
+import com.project_final.product_service.service.ProductImportService;
+import com.project_final.product_service.service.ProductQueryService;
 import com.project_final.product_service.service.ProductService;
+import com.project_final.product_service.service.SalesVelocityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +26,6 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
-import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +41,39 @@ class GlobalExceptionHandlerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductQueryService productQueryService;
+
+    @MockBean
+    private InventoryDashboardService inventoryDashboardService;
+
+    @MockBean
+    private PriceStatisticsService priceStatisticsService;
+
+    @MockBean
+    private SalesVelocityService salesVelocityService;
+
+    @MockBean
+    private PriceHistoryService priceHistoryService;
+
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private BulkPriceUpdateService bulkPriceUpdateService;
+
+    @MockBean
+    private BulkStockAdjustmentService bulkStockAdjustmentService;
+
+    @MockBean
+    private BulkDeleteService bulkDeleteService;
+
+    @MockBean
+    private ProductBatchService productBatchService;
+
+    @MockBean
+    private ProductChangeFeedService productChangeFeedService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -91,9 +135,8 @@ class GlobalExceptionHandlerTest {
     void handleProductNotFoundException_OnDelete_ShouldReturnNotFound() throws Exception {
         // Given
         Long productId = 999L;
-        // El controlador llama a getProductById primero, no a deleteProduct
-        when(productService.getProductById(productId))
-                .thenReturn(Optional.empty());
+        // El controlador borra directamente; el servicio lanza si no existe
+        doThrow(new ProductNotFoundException(productId)).when(productService).deleteProduct(productId);
 
         // When & Then
         mockMvc.perform(delete("/api/products/{id}", productId))
@@ -103,9 +146,9 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.productId").value(999))
                 .andExpect(jsonPath("$.timestamp").exists());
 
-        // Verificar que solo se llamó a getProductById, no a deleteProduct
-        verify(productService).getProductById(productId);
-        verify(productService, never()).deleteProduct(productId);
+        // Una sola llamada al servicio, sin leer antes el producto
+        verify(productService).deleteProduct(productId);
+        verify(productService, never()).getProductById(anyLong());
     }
 
     //  TESTS PARA ProductValidationException
@@ -193,8 +236,8 @@ class GlobalExceptionHandlerTest {
         Integer availableStock = 10;
         Integer requestedQuantity = 50;
 
-        when(productService.reduceStock(productId, requestedQuantity))
-                .thenThrow(new InsufficientStockException(productId, availableStock, requestedQuantity));
+        when(productService.tryReduceStock(productId, requestedQuantity))
+                .thenReturn(StockOperationResult.insufficientStock(productId, requestedQuantity, availableStock));
 
         // When & Then
         mockMvc.perform(put("/api/products/{id}/reduce-stock", productId)
@@ -205,7 +248,7 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.error").value("Stock insuficiente para el producto con ID 1. Stock disponible: 10, cantidad solicitada: 50"))
                 .andExpect(jsonPath("$.productId").value(1));
 
-        verify(productService).reduceStock(productId, requestedQuantity);
+        verify(productService).tryReduceStock(productId, requestedQuantity);
     }
 
     //  TESTS PARA StockOperationException
@@ -217,7 +260,7 @@ class GlobalExceptionHandlerTest {
         Integer quantity = 10;
         RuntimeException cause = new RuntimeException("Database connection failed");
 
-        when(productService.reduceStock(productId, quantity))
+        when(productService.tryReduceStock(productId, quantity))
                 .thenThrow(StockOperationException.reductionFailed(productId, cause));
 
         // When & Then
@@ -229,7 +272,7 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.error").value("Error al reducir stock del producto con ID 1"))
                 .andExpect(jsonPath("$.productId").value(1));
 
-        verify(productService).reduceStock(productId, quantity);
+        verify(productService).tryReduceStock(productId, quantity);
     }
 
     @Test
@@ -239,7 +282,7 @@ class GlobalExceptionHandlerTest {
         Integer quantity = 20;
         RuntimeException cause = new RuntimeException("Database connection failed");
 
-        when(productService.increaseStock(productId, quantity))
+        when(productService.tryIncreaseStock(productId, quantity))
                 .thenThrow(StockOperationException.increaseFailed(productId, cause));
 
         // When & Then
@@ -251,7 +294,7 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.error").value("Error al aumentar stock del producto con ID 1"))
                 .andExpect(jsonPath("$.productId").value(1));
 
-        verify(productService).increaseStock(productId, quantity);
+        verify(productService).tryIncreaseStock(productId, quantity);
     }
 
     //  TESTS PARA EXCEPCIONES GENERALES
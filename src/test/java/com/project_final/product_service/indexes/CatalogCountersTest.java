@@ -0,0 +1,93 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogCountersTest {
+
+    private CatalogCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new CatalogCounters();
+
+        ProductIndex.Builder builder = counters.newBuilder();
+        builder.add(snapshot(1L, 5));
+        builder.add(snapshot(2L, 0));
+        builder.add(snapshot(3L, 12));
+        builder.publish();
+    }
+
+    @Test
+    void publish_LoadsCounts() {
+        assertTrue(counters.isReady());
+        assertEquals(3L, counters.getTotal());
+        assertEquals(2L, counters.getAvailable());
+    }
+
+    @Test
+    void upsert_NewProductAndStockCrossingZero_UpdateCounters() {
+        // Act
+        counters.upsert(snapshot(4L, 0));
+        counters.upsert(snapshot(2L, 7));
+        counters.upsert(snapshot(1L, 0));
+
+        // Assert
+        assertEquals(4L, counters.getTotal());
+        assertEquals(2L, counters.getAvailable());
+    }
+
+    @Test
+    void upsert_SameEventTwice_IsIdempotent() {
+        // Act
+        counters.upsert(snapshot(4L, 3));
+        counters.upsert(snapshot(4L, 3));
+        counters.upsert(snapshot(1L, 9));
+
+        // Assert
+        assertEquals(4L, counters.getTotal());
+        assertEquals(3L, counters.getAvailable());
+    }
+
+    @Test
+    void remove_DecrementsOnlyKnownProducts() {
+        // Act
+        counters.remove(1L);
+        counters.remove(1L);
+        counters.remove(2L);
+        counters.remove(99L);
+
+        // Assert
+        assertEquals(1L, counters.getTotal());
+        assertEquals(1L, counters.getAvailable());
+    }
+
+    @Test
+    void rebuild_WithIdsBeyondIntRange_CountsThem() {
+        // Arrange
+        long largeId = Integer.MAX_VALUE + 10L;
+        ProductIndex.Builder builder = counters.newBuilder();
+        builder.add(snapshot(1L, 5));
+        builder.add(snapshot(largeId, 4));
+        builder.publish();
+
+        // Act
+        counters.upsert(snapshot(largeId, 0));
+        counters.upsert(snapshot(largeId, 0));
+
+        // Assert
+        assertEquals(2L, counters.getTotal());
+        assertEquals(1L, counters.getAvailable());
+        counters.remove(largeId);
+        assertEquals(1L, counters.getTotal());
+    }
+
+    private ProductSnapshot snapshot(Long id, int stock) {
+        return new ProductSnapshot(id, "Producto " + id, new BigDecimal("10.00"), stock, null);
+    }
+}
@@ -0,0 +1,123 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.events.StockThresholdCrossedEvent;
+import com.project_final.product_service.events.StockThresholdCrossedEvent.Direction;
+import com.project_final.product_service.model.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LowStockMonitorTest {
+
+    private LowStockMonitor monitor;
+    private List<Object> publishedEvents;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new LowStockMonitor();
+        publishedEvents = new ArrayList<>();
+        ApplicationEventPublisher publisher = publishedEvents::add;
+        ReflectionTestUtils.setField(monitor, "eventPublisher", publisher);
+
+        ProductIndex.Builder builder = monitor.newBuilder();
+        builder.add(snapshot(1L, 25));
+        builder.add(snapshot(2L, 3));
+        builder.add(snapshot(3L, 0));
+        builder.add(snapshot(4L, 3));
+        builder.add(snapshot(5L, 9));
+        builder.publish();
+    }
+
+    @Test
+    void below_ReturnsIdsOrderedByStock() {
+        assertArrayEquals(new long[]{3L, 2L, 4L, 5L}, monitor.below(10));
+        assertArrayEquals(new long[]{3L}, monitor.below(1));
+        assertEquals(0, monitor.below(0).length);
+        assertEquals(5L, monitor.countBelow(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void upsert_MovesProductBetweenBuckets() {
+        // Act
+        monitor.upsert(snapshot(1L, 2));
+        monitor.upsert(snapshot(3L, 40));
+
+        // Assert
+        assertArrayEquals(new long[]{1L, 2L, 4L, 5L}, monitor.below(10));
+        assertEquals(3L, monitor.countBelow(4));
+    }
+
+    @Test
+    void upsert_CrossingBelowThreshold_PublishesEvent() {
+        // Act
+        monitor.upsert(snapshot(1L, 4));
+
+        // Assert
+        assertEquals(1, publishedEvents.size());
+        StockThresholdCrossedEvent event = (StockThresholdCrossedEvent) publishedEvents.get(0);
+        assertEquals(Direction.BELOW, event.getDirection());
+        assertEquals(25, event.getPreviousStock());
+        assertEquals(4, event.getCurrentStock());
+        assertEquals(10, event.getThreshold());
+    }
+
+    @Test
+    void upsert_Restock_PublishesRecoveredEvent() {
+        // Act
+        monitor.upsert(snapshot(3L, 50));
+
+        // Assert
+        assertEquals(1, publishedEvents.size());
+        assertEquals(Direction.RECOVERED, ((StockThresholdCrossedEvent) publishedEvents.get(0)).getDirection());
+    }
+
+    @Test
+    void upsert_WithoutCrossing_PublishesNothing() {
+        // Act
+        monitor.upsert(snapshot(1L, 11));
+        monitor.upsert(snapshot(2L, 1));
+        monitor.upsert(snapshot(6L, 2));
+
+        // Assert
+        assertTrue(publishedEvents.isEmpty());
+    }
+
+    @Test
+    void remove_DropsProduct() {
+        // Act
+        monitor.remove(2L);
+        monitor.remove(99L);
+
+        // Assert
+        assertArrayEquals(new long[]{3L, 4L, 5L}, monitor.below(10));
+    }
+
+    @Test
+    void idsBeyondIntRange_AreTrackedAndRemoved() {
+        // Arrange
+        long largeId = Integer.MAX_VALUE + 10L;
+        ProductIndex.Builder builder = monitor.newBuilder();
+        builder.add(snapshot(largeId, 3));
+        builder.add(snapshot(2L, 3));
+        builder.publish();
+
+        // Act
+        monitor.upsert(snapshot(largeId, 1));
+
+        // Assert
+        assertArrayEquals(new long[]{largeId, 2L}, monitor.below(10));
+        monitor.remove(largeId);
+        assertArrayEquals(new long[]{2L}, monitor.below(10));
+    }
+
+    private ProductSnapshot snapshot(Long id, int stock) {
+        return new ProductSnapshot(id, "Producto " + id, new BigDecimal("10.00"), stock, null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceDistributionIndexTest {
+
+    private PriceDistributionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PriceDistributionIndex();
+
+        ProductIndex.Builder builder = index.newBuilder();
+        builder.add(snapshot(1L, "10.00", 5));
+        builder.add(snapshot(2L, "20.00", 0));
+        builder.add(snapshot(3L, "30.00", 3));
+        builder.publish();
+    }
+
+    @Test
+    void publish_SplitsAllAndAvailable() {
+        assertEquals(3L, index.allPrices().count());
+        assertEquals(2L, index.availablePrices().count());
+        assertEquals(2000.0, index.allPrices().quantile(0.5), 2000 * 0.01);
+    }
+
+    @Test
+    void upsert_PriceChange_ReplacesPreviousContribution() {
+        // Act
+        index.upsert(snapshot(3L, "5000.00", 3));
+        index.upsert(snapshot(3L, "5000.00", 3));
+
+        // Assert
+        assertEquals(3L, index.allPrices().count());
+        assertEquals(500_000.0, index.availablePrices().quantile(1.0), 500_000 * 0.01);
+    }
+
+    @Test
+    void upsert_StockReachesZero_LeavesAvailableSketch() {
+        // Act
+        index.upsert(snapshot(1L, "10.00", 0));
+
+        // Assert
+        assertEquals(3L, index.allPrices().count());
+        assertEquals(1L, index.availablePrices().count());
+    }
+
+    @Test
+    void remove_RetractsProduct() {
+        // Act
+        index.remove(1L);
+        index.remove(99L);
+
+        // Assert
+        assertEquals(2L, index.allPrices().count());
+        assertEquals(1L, index.availablePrices().count());
+    }
+
+    private ProductSnapshot snapshot(Long id, String price, int stock) {
+        return new ProductSnapshot(id, "Producto " + id, new BigDecimal(price), stock, null);
+    }
+}
@@ -0,0 +1,96 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceIndexTest {
+
+    private PriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PriceIndex();
+
+        ProductIndex.Builder builder = index.newBuilder();
+        builder.add(snapshot(1L, "100.00", 5));
+        builder.add(snapshot(2L, "25.50", 0));
+        builder.add(snapshot(3L, "75.00", 2));
+        builder.add(snapshot(4L, "75.00", 8));
+        builder.publish();
+    }
+
+    @Test
+    void range_ReturnsIdsOrderedByPrice() {
+        assertArrayEquals(new long[]{2L, 3L, 4L},
+                index.range(new BigDecimal("20"), new BigDecimal("80"), false));
+    }
+
+    @Test
+    void range_AvailableOnly_SkipsOutOfStock() {
+        assertArrayEquals(new long[]{3L, 4L, 1L},
+                index.range(new BigDecimal("0.01"), new BigDecimal("1000"), true));
+    }
+
+    @Test
+    void range_BoundsAreInclusive() {
+        assertArrayEquals(new long[]{3L, 4L, 1L},
+                index.range(new BigDecimal("75.00"), new BigDecimal("100.00"), false));
+        assertEquals(0, index.range(new BigDecimal("100.001"), new BigDecimal("200"), false).length);
+    }
+
+    @Test
+    void upsert_PriceChange_MovesEntry() {
+        // Act
+        index.upsert(snapshot(1L, "10.00", 5));
+
+        // Assert
+        assertArrayEquals(new long[]{1L, 2L}, index.range(new BigDecimal("0"), new BigDecimal("50"), false));
+        assertEquals(1000L, index.priceCentsOf(1L));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void upsert_StockChange_UpdatesAvailability() {
+        // Act
+        index.upsert(snapshot(2L, "25.50", 3));
+
+        // Assert
+        assertArrayEquals(new long[]{2L}, index.range(new BigDecimal("0"), new BigDecimal("50"), true));
+    }
+
+    @Test
+    void remove_DeletesEntry() {
+        // Act
+        index.remove(3L);
+        index.remove(99L);
+
+        // Assert
+        assertEquals(3L, index.count(0, 100_000, false));
+        assertEquals(-1L, index.priceCentsOf(3L));
+    }
+
+    @Test
+    void manyInserts_SplitBlocksAndKeepOrder() {
+        // Arrange
+        PriceIndex large = new PriceIndex();
+        for (long id = 1; id <= 5000; id++) {
+            large.upsert(snapshot(id, String.valueOf(5001 - id), 1));
+        }
+
+        // Act
+        long[] ids = large.range(0, Long.MAX_VALUE, false, 10);
+
+        // Assert
+        assertEquals(5000L, large.count(0, Long.MAX_VALUE, false));
+        assertArrayEquals(new long[]{5000L, 4999L, 4998L, 4997L, 4996L, 4995L, 4994L, 4993L, 4992L, 4991L}, ids);
+    }
+
+    private ProductSnapshot snapshot(Long id, String price, int stock) {
+        return new ProductSnapshot(id, "Producto " + id, new BigDecimal(price), stock, null);
+    }
+}
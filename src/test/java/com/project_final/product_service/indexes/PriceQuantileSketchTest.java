@@ -0,0 +1,78 @@
+package com.project_final.product_service.indexes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceQuantileSketchTest {
+
+    private static final double ACCURACY = 0.01;
+
+    @Test
+    void quantile_StaysWithinRelativeError() {
+        // Arrange
+        PriceQuantileSketch sketch = new PriceQuantileSketch(ACCURACY);
+        Random random = new Random(42);
+        long[] prices = new long[20_000];
+        for (int i = 0; i < prices.length; i++) {
+            // Distribución sesgada: muchos precios bajos y una cola larga
+            prices[i] = 1 + (long) Math.exp(random.nextDouble() * 14);
+            sketch.add(prices[i]);
+        }
+        Arrays.sort(prices);
+
+        // Act & Assert
+        for (double q : new double[]{0.0, 0.25, 0.5, 0.9, 0.99, 1.0}) {
+            long exact = prices[(int) Math.floor(q * (prices.length - 1))];
+            double estimate = sketch.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= ACCURACY * exact,
+                    "q=" + q + " exacto=" + exact + " estimado=" + estimate);
+        }
+        assertEquals(20_000L, sketch.count());
+    }
+
+    @Test
+    void remove_UndoesAdd() {
+        // Arrange
+        PriceQuantileSketch sketch = new PriceQuantileSketch(ACCURACY);
+        sketch.add(1_000);
+        sketch.add(2_000);
+        sketch.add(900_000);
+
+        // Act
+        sketch.remove(900_000);
+
+        // Assert
+        assertEquals(2L, sketch.count());
+        assertTrue(sketch.quantile(1.0) < 2_100);
+    }
+
+    @Test
+    void merge_EqualsSketchOfUnion() {
+        // Arrange
+        PriceQuantileSketch left = new PriceQuantileSketch(ACCURACY);
+        PriceQuantileSketch right = new PriceQuantileSketch(ACCURACY);
+        PriceQuantileSketch union = new PriceQuantileSketch(ACCURACY);
+        for (long cents = 1; cents <= 5_000; cents++) {
+            (cents % 2 == 0 ? left : right).add(cents * 37);
+            union.add(cents * 37);
+        }
+
+        // Act
+        left.merge(right);
+
+        // Assert
+        assertEquals(union.count(), left.count());
+        for (double q : new double[]{0.1, 0.5, 0.95}) {
+            assertEquals(union.quantile(q), left.quantile(q));
+        }
+    }
+
+    @Test
+    void quantile_EmptySketch_ReturnsMinusOne() {
+        assertEquals(-1.0, new PriceQuantileSketch(ACCURACY).quantile(0.5));
+    }
+}
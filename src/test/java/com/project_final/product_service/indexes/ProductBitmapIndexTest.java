@@ -0,0 +1,118 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductBitmapIndexTest {
+
+    private ProductBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductBitmapIndex();
+
+        ProductIndex.Builder builder = index.newBuilder();
+        builder.add(snapshot(1L, "Teclado mecánico", 5));
+        builder.add(snapshot(2L, "Ratón inalámbrico", 0));
+        builder.add(snapshot(3L, "Teclado inalámbrico", 12));
+        builder.add(snapshot(4L, "Monitor 27 pulgadas", 5));
+        builder.publish();
+    }
+
+    @Test
+    void nameTerm_MatchesWordPrefixes() {
+        assertArrayEquals(new long[]{1, 3}, index.nameTerm("tecl").toArray());
+        assertArrayEquals(new long[]{2, 3}, index.nameTerm("inalambrico").toArray());
+        assertEquals(0L, index.nameTerm("clado").getLongCardinality());
+    }
+
+    @Test
+    void stockRange_AndCount_AreConsistent() {
+        assertArrayEquals(new long[]{1, 4}, index.stockRange(1, 10).toArray());
+        assertEquals(2L, index.countStockRange(1, 10));
+        assertEquals(4L, index.countStockRange(0, Integer.MAX_VALUE));
+        assertEquals(0L, index.countStockRange(10, 1));
+    }
+
+    @Test
+    void availability_SplitsByStock() {
+        assertArrayEquals(new long[]{1, 3, 4}, index.availability(true).toArray());
+        assertArrayEquals(new long[]{2}, index.availability(false).toArray());
+        assertEquals(1L, index.countAvailability(false));
+    }
+
+    @Test
+    void upsert_ChangedNameAndStock_ReplacesPreviousEntries() {
+        // Act
+        index.upsert(snapshot(1L, "Altavoz", 0));
+
+        // Assert
+        assertArrayEquals(new long[]{3}, index.nameTerm("teclado").toArray());
+        assertArrayEquals(new long[]{1}, index.nameTerm("alta").toArray());
+        assertArrayEquals(new long[]{4}, index.stockRange(5, 5).toArray());
+        assertArrayEquals(new long[]{1, 2}, index.availability(false).toArray());
+    }
+
+    @Test
+    void remove_ClearsEveryBitmap() {
+        // Act
+        index.remove(3L);
+        index.remove(99L);
+
+        // Assert
+        assertEquals(3, index.size());
+        assertArrayEquals(new long[]{1}, index.nameTerm("teclado").toArray());
+        assertEquals(0L, index.countStockRange(12, 12));
+        assertArrayEquals(new long[]{1, 4}, index.availability(true).toArray());
+    }
+
+    @Test
+    void idsBeyondIntRange_AreIndexedAndRemoved() {
+        // Arrange
+        long largeId = Integer.MAX_VALUE + 10L;
+
+        // Act
+        index.upsert(snapshot(largeId, "Teclado compacto", 0));
+
+        // Assert
+        assertArrayEquals(new long[]{1, 3, largeId}, index.nameTerm("teclado").toArray());
+        assertArrayEquals(new long[]{2, largeId}, index.availability(false).toArray());
+        index.remove(largeId);
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void rebuild_WithIdsBeyondIntRange_Publishes() {
+        // Arrange
+        long largeId = 5_000_000_000L;
+        ProductIndex.Builder builder = index.newBuilder();
+        builder.add(snapshot(largeId, "Monitor curvo", 3));
+
+        // Act
+        builder.publish();
+
+        // Assert
+        assertArrayEquals(new long[]{largeId}, index.stockRange(3, 3).toArray());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void returnedBitmaps_AreCopies() {
+        // Act
+        index.all().removeLong(1L);
+        index.availability(true).removeLong(1L);
+
+        // Assert
+        assertEquals(4, index.size());
+        assertEquals(3L, index.countAvailability(true));
+    }
+
+    private ProductSnapshot snapshot(Long id, String name, int stock) {
+        return new ProductSnapshot(id, name, new BigDecimal("10.00"), stock, null);
+    }
+}
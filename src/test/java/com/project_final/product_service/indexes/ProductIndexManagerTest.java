@@ -0,0 +1,76 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.model.ProductSnapshot;
+import com.project_final.product_service.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductIndexManagerTest {
+
+    private ProductIndexManager manager;
+    private SearchResultCache cache;
+    private ProductIndex trigramIndex;
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        cache = mock(SearchResultCache.class);
+        trigramIndex = mock(ProductIndex.class);
+        productRepository = mock(ProductRepository.class);
+
+        // La caché llega la primera, como podría inyectarla Spring
+        manager = new ProductIndexManager();
+        ReflectionTestUtils.setField(manager, "indexes", new ArrayList<>(List.of(cache, trigramIndex)));
+        ReflectionTestUtils.setField(manager, "searchResultCache", cache);
+        ReflectionTestUtils.setField(manager, "productRepository", productRepository);
+        ReflectionTestUtils.setField(manager, "pageSize", 100);
+        manager.orderIndexes();
+    }
+
+    @Test
+    void onProductChanged_AppliesToSearchCacheAfterOtherIndexes() {
+        // Arrange
+        ProductSnapshot snapshot = new ProductSnapshot(1L, "Portátil", new BigDecimal("999.99"), 5, LocalDateTime.now());
+
+        // Act
+        manager.onProductChanged(ProductChangedEvent.updated(snapshot));
+        manager.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        // Assert
+        InOrder inOrder = inOrder(trigramIndex, cache);
+        inOrder.verify(trigramIndex).upsert(snapshot);
+        inOrder.verify(cache).upsert(snapshot);
+        inOrder.verify(trigramIndex).remove(1L);
+        inOrder.verify(cache).remove(1L);
+    }
+
+    @Test
+    void rebuild_PublishesSearchCacheAfterOtherIndexes() {
+        // Arrange
+        ProductIndex.Builder cacheBuilder = mock(ProductIndex.Builder.class);
+        ProductIndex.Builder trigramBuilder = mock(ProductIndex.Builder.class);
+        when(cache.newBuilder()).thenReturn(cacheBuilder);
+        when(trigramIndex.newBuilder()).thenReturn(trigramBuilder);
+        when(productRepository.findSnapshotsAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        manager.rebuild();
+
+        // Assert
+        InOrder inOrder = inOrder(trigramBuilder, cacheBuilder);
+        inOrder.verify(trigramBuilder).publish();
+        inOrder.verify(cacheBuilder).publish();
+    }
+}
@@ -0,0 +1,138 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import com.project_final.product_service.model.SalesVelocity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesVelocityTrackerTest {
+
+    private SalesVelocityTracker tracker;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new SalesVelocityTracker();
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        ReflectionTestUtils.setField(tracker, "clock", clock);
+    }
+
+    @Test
+    void unitsPerDay_SteadySales_ConvergesToRate() {
+        // Act: 10 unidades al día durante 60 días (varias vidas medias)
+        for (int day = 0; day < 60; day++) {
+            tracker.record(1L, 10, 1000);
+            clock.advance(Duration.ofDays(1));
+        }
+
+        // Assert
+        assertEquals(10.0, tracker.unitsPerDay(1L), 0.6);
+        assertEquals(0.0, tracker.unitsPerDay(2L));
+    }
+
+    @Test
+    void unitsPerDay_NoRecentSales_DecaysByHalfLife() {
+        // Arrange
+        for (int day = 0; day < 60; day++) {
+            tracker.record(1L, 10, 1000);
+            clock.advance(Duration.ofDays(1));
+        }
+        double before = tracker.unitsPerDay(1L);
+
+        // Act
+        clock.advance(Duration.ofDays(7));
+
+        // Assert
+        assertEquals(before / 2, tracker.unitsPerDay(1L), 1e-9);
+    }
+
+    @Test
+    void projectStockouts_OrdersByDaysOfCover() {
+        // Arrange
+        for (int day = 0; day < 30; day++) {
+            tracker.record(1L, 10, 500);
+            tracker.record(2L, 10, 20);
+            tracker.record(3L, 1, 5);
+            clock.advance(Duration.ofDays(1));
+        }
+
+        // Act
+        List<SalesVelocity> projections = tracker.projectStockouts(7, 10);
+
+        // Assert: el 1 tiene stock para ~50 días y queda fuera
+        assertEquals(2, projections.size());
+        assertEquals(2L, projections.get(0).getProductId());
+        assertEquals(3L, projections.get(1).getProductId());
+        assertNotNull(projections.get(0).getProjectedStockout());
+    }
+
+    @Test
+    void upsert_Restock_UpdatesStockOfTrackedProduct() {
+        // Arrange
+        tracker.record(1L, 10, 5);
+        tracker.upsert(new ProductSnapshot(1L, "Producto", new BigDecimal("10.00"), 5000, null));
+        tracker.upsert(new ProductSnapshot(2L, "Sin ventas", new BigDecimal("10.00"), 1, null));
+
+        // Act
+        List<SalesVelocity> projections = tracker.projectStockouts(7, 10);
+
+        // Assert
+        assertTrue(projections.isEmpty());
+        assertEquals(1, tracker.trackedProducts());
+    }
+
+    @Test
+    void remove_CompactsSlots() {
+        // Arrange
+        tracker.record(1L, 1, 10);
+        tracker.record(2L, 2, 10);
+        tracker.record(3L, 3, 10);
+
+        // Act
+        tracker.remove(1L);
+
+        // Assert
+        assertEquals(2, tracker.trackedProducts());
+        assertEquals(0.0, tracker.unitsPerDay(1L));
+        assertTrue(tracker.unitsPerDay(3L) > tracker.unitsPerDay(2L));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.indexes.SearchResultCache.SearchMode;
+import com.project_final.product_service.model.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache();
+        ReflectionTestUtils.setField(cache, "trigramSearchIndex", new TrigramSearchIndex());
+    }
+
+    @Test
+    void lookup_UnknownQuery_ReturnsNullAndCountsMiss() {
+        assertNull(cache.lookup(SearchMode.EXACT, "phone"));
+        assertEquals(0.0, cache.getHitRatio());
+    }
+
+    @Test
+    void lookup_StoredQuery_ReturnsIds() {
+        // Arrange
+        cache.store(SearchMode.EXACT, "phone", cache.getVersion(), new long[]{3L, 1L});
+
+        // Act & Assert
+        assertArrayEquals(new long[]{3L, 1L}, cache.lookup(SearchMode.EXACT, "phone"));
+        assertEquals(1.0, cache.getHitRatio());
+    }
+
+    @Test
+    void lookup_UnrelatedChange_KeepsEntry() {
+        // Arrange
+        cache.store(SearchMode.EXACT, "phone", cache.getVersion(), new long[]{1L});
+
+        // Act - producto nuevo que no coincide y cambio de precio de uno que sigue coincidiendo
+        cache.upsert(snapshot(2L, "Laptop"));
+        cache.upsert(snapshot(1L, "Phone X"));
+
+        // Assert
+        assertArrayEquals(new long[]{1L}, cache.lookup(SearchMode.EXACT, "phone"));
+    }
+
+    @Test
+    void lookup_NewMatchingProduct_InvalidatesEntry() {
+        // Arrange
+        cache.store(SearchMode.EXACT, "phone", cache.getVersion(), new long[]{1L});
+
+        // Act
+        cache.upsert(snapshot(2L, "Smartphone"));
+
+        // Assert
+        assertNull(cache.lookup(SearchMode.EXACT, "phone"));
+    }
+
+    @Test
+    void lookup_ExactQueryWithLikeWildcards_InvalidatedByAnyRename() {
+        // Arrange: "ph_ne" y "usb%c" son patrones para LIKE, no texto literal
+        cache.store(SearchMode.EXACT, "ph_ne", cache.getVersion(), new long[]{1L});
+        cache.store(SearchMode.EXACT, "usb%c", cache.getVersion(), new long[]{3L});
+
+        // Act - "Phone" no contiene "ph ne" normalizado, pero sí casa con LIKE '%ph_ne%'
+        cache.upsert(snapshot(2L, "Phone"));
+
+        // Assert
+        assertNull(cache.lookup(SearchMode.EXACT, "ph_ne"));
+        assertNull(cache.lookup(SearchMode.EXACT, "usb%c"));
+    }
+
+    @Test
+    void lookup_ExactQueryWithSeveralWords_InvalidatedByAnyRename() {
+        // Arrange
+        cache.store(SearchMode.EXACT, "phone x", cache.getVersion(), new long[]{1L});
+
+        // Act - con varias palabras no se decide por el nombre normalizado ("Phone-X" lo contendría
+        // sin casar con LIKE '%phone x%'), así que invalida incluso un nombre sin relación
+        cache.upsert(snapshot(2L, "Laptop"));
+
+        // Assert
+        assertNull(cache.lookup(SearchMode.EXACT, "phone x"));
+    }
+
+    @Test
+    void lookup_RenamedOrDeletedResult_InvalidatesEntry() {
+        // Arrange
+        cache.store(SearchMode.EXACT, "phone", cache.getVersion(), new long[]{1L, 2L});
+        cache.store(SearchMode.EXACT, "tablet", cache.getVersion(), new long[]{3L});
+
+        // Act
+        cache.upsert(snapshot(1L, "Laptop"));
+        cache.remove(3L);
+
+        // Assert
+        assertNull(cache.lookup(SearchMode.EXACT, "phone"));
+        assertNull(cache.lookup(SearchMode.EXACT, "tablet"));
+    }
+
+    @Test
+    void lookup_FuzzyEntry_InvalidatedBySimilarName() {
+        // Arrange
+        cache.store(SearchMode.FUZZY, "telefno", cache.getVersion(), new long[0]);
+
+        // Act
+        cache.upsert(snapshot(5L, "Teléfono fijo"));
+
+        // Assert
+        assertNull(cache.lookup(SearchMode.FUZZY, "telefno"));
+    }
+
+    @Test
+    void lookup_StockOnlyChangeOfResult_KeepsEntry() {
+        // Arrange
+        cache.upsert(snapshot(1L, "Phone X"));
+        cache.store(SearchMode.EXACT, "phone", cache.getVersion(), new long[]{1L});
+        long version = cache.getVersion();
+
+        // Act - mismo nombre, otro stock
+        cache.upsert(new ProductSnapshot(1L, "Phone X", new BigDecimal("10.00"), 4, null));
+
+        // Assert
+        assertArrayEquals(new long[]{1L}, cache.lookup(SearchMode.EXACT, "phone"));
+        assertEquals(version, cache.getVersion());
+    }
+
+    @Test
+    void store_ResultComputedBeforeRebuild_IsDiscarded() {
+        // Arrange
+        long version = cache.getVersion();
+        cache.invalidateAll();
+
+        // Act
+        cache.store(SearchMode.EXACT, "phone", version, new long[]{1L});
+
+        // Assert
+        assertNull(cache.lookup(SearchMode.EXACT, "phone"));
+    }
+
+    private ProductSnapshot snapshot(Long id, String name) {
+        return new ProductSnapshot(id, name, new BigDecimal("10.00"), 5, null);
+    }
+}
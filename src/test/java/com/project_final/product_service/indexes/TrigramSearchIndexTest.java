@@ -0,0 +1,113 @@
+package com.project_final.product_service.indexes;
+
+import com.project_final.product_service.model.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramSearchIndexTest {
+
+    private TrigramSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramSearchIndex();
+
+        ProductIndex.Builder builder = index.newBuilder();
+        builder.add(snapshot(1L, "Teléfono móvil Samsung"));
+        builder.add(snapshot(2L, "Portátil HP Pavilion"));
+        builder.add(snapshot(3L, "Ratón inalámbrico"));
+        builder.publish();
+    }
+
+    @Test
+    void isReady_AfterPublish_ReturnsTrue() {
+        assertTrue(index.isReady());
+        assertFalse(new TrigramSearchIndex().isReady());
+    }
+
+    @Test
+    void search_Misspelling_FindsProduct() {
+        assertArrayEquals(new long[]{1L}, index.search("telefno"));
+        assertArrayEquals(new long[]{1L}, index.search("samsng"));
+    }
+
+    @Test
+    void search_WithoutAccents_FindsProduct() {
+        assertArrayEquals(new long[]{2L}, index.search("portatil"));
+        assertArrayEquals(new long[]{3L}, index.search("RATON"));
+    }
+
+    @Test
+    void search_PrefixOrSubstringOfLongerWord_FindsProduct() {
+        // Los trigramas de relleno de la consulta no están dentro de "portatil"
+        assertArrayEquals(new long[]{2L}, index.search("port"));
+        assertArrayEquals(new long[]{2L}, index.search("tati"));
+        assertArrayEquals(new long[]{3L}, index.search("ton"));
+    }
+
+    @Test
+    void search_WithoutEditsAllowed_StillFindsSubstring() {
+        // Arrange: sin ediciones toleradas se exigen todos los trigramas interiores
+        ReflectionTestUtils.setField(index, "maxEdits", 0);
+
+        // Act & Assert
+        assertArrayEquals(new long[]{2L}, index.search("port"));
+        assertArrayEquals(new long[]{1L}, index.search("elefon"));
+        assertEquals(0, index.search("portx").length);
+    }
+
+    @Test
+    void upsert_IdBeyondIntRange_IsIndexed() {
+        // Arrange
+        long id = Integer.MAX_VALUE + 10L;
+
+        // Act
+        index.upsert(snapshot(id, "Monitor curvo"));
+
+        // Assert
+        assertArrayEquals(new long[]{id}, index.search("monitr"));
+        index.remove(id);
+        assertEquals(0, index.search("monitor").length);
+    }
+
+    @Test
+    void search_UnrelatedQuery_ReturnsEmpty() {
+        assertEquals(0, index.search("impresora").length);
+        assertEquals(0, index.search("  ").length);
+    }
+
+    @Test
+    void upsert_RenamedProduct_ReplacesOldName() {
+        // Act
+        index.upsert(snapshot(2L, "Impresora láser"));
+
+        // Assert
+        assertEquals(0, index.search("portatil").length);
+        assertArrayEquals(new long[]{2L}, index.search("impresra"));
+    }
+
+    @Test
+    void remove_ExistingProduct_NoLongerFound() {
+        // Act
+        index.remove(1L);
+
+        // Assert
+        assertEquals(0, index.search("telefono").length);
+    }
+
+    @Test
+    void substringEditDistance_ComputesDistanceAgainstBestSubstring() {
+        assertEquals(0, SearchText.substringEditDistance("movil", "telefono movil", 2));
+        assertEquals(1, SearchText.substringEditDistance("telefno", "telefono movil", 2));
+        assertEquals(3, SearchText.substringEditDistance("xyz", "telefono", 2));
+    }
+
+    private ProductSnapshot snapshot(Long id, String name) {
+        return new ProductSnapshot(id, name, new BigDecimal("10.00"), 5, null);
+    }
+}
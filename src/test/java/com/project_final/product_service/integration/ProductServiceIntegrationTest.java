@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.project_final.product_service.ProductServiceApplication;
 import com.project_final.product_service.model.Product;
 import com.project_final.product_service.repositories.ProductRepository;
+import com.project_final.product_service.service.ProductChangeFeedService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
@@ -18,9 +19,11 @@ import org.springframework.http.*;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -53,6 +56,9 @@ public class ProductServiceIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductChangeFeedService productChangeFeedService;
+
     private String baseUrl;
     private Product testProduct;
     private HttpHeaders headers;
@@ -139,6 +145,8 @@ public class ProductServiceIntegrationTest {
                 .map(Product::getName)
                 .toList();
         assertThat(productNames).contains("Laptop Gaming", "Mouse Wireless");
+        // El listado no carga la descripción: solo la lectura de detalle la devuelve
+        assertThat(response.getBody()).allMatch(product -> product.getDescription() == null);
     }
 
     @Test
@@ -564,6 +572,223 @@ public class ProductServiceIntegrationTest {
         productRepository.deleteAll(savedProducts);
     }
 
+    @Test
+    @Order(19)
+    void getInventoryDashboard_ShouldAggregateInOnePass() {
+        // Given
+        productRepository.deleteAll();
+
+        Product cheap = createTestProduct("Barato", "Producto barato");
+        cheap.setPrice(new BigDecimal("5.00"));
+        cheap.setStock(4);
+        Product mid = createTestProduct("Medio", "Producto medio");
+        mid.setPrice(new BigDecimal("60.00"));
+        mid.setStock(20);
+        Product soldOut = createTestProduct("Agotado", "Producto agotado");
+        soldOut.setPrice(new BigDecimal("1500.00"));
+        soldOut.setStock(0);
+
+        productRepository.saveAll(List.of(cheap, mid, soldOut));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                baseUrl + "/stats/dashboard",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<Map<String, Object>>() {}
+        );
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(((Number) response.getBody().get("total")).longValue()).isEqualTo(3L);
+        assertThat(((Number) response.getBody().get("available")).longValue()).isEqualTo(2L);
+        assertThat(((Number) response.getBody().get("outOfStock")).longValue()).isEqualTo(1L);
+        assertThat(((Number) response.getBody().get("lowStock")).longValue()).isEqualTo(2L);
+        assertThat(new BigDecimal(response.getBody().get("inventoryValue").toString()))
+                .isEqualByComparingTo("1220.00");
+        assertThat((List<?>) response.getBody().get("priceHistogram")).hasSize(8);
+    }
+
+    @Test
+    @Order(20)
+    void updatePrice_ShouldRecordHistoryOnlyOnActualChanges() {
+        // Given
+        Product product = productRepository.save(createTestProduct("Con historial", "Producto con cambios de precio"));
+        Map<String, Object> update = Map.of(
+                "name", "Con historial",
+                "description", "Producto con cambios de precio",
+                "price", 89.99,
+                "stock", 100
+        );
+
+        // When: dos actualizaciones con el mismo precio nuevo, solo la primera lo cambia
+        for (int i = 0; i < 2; i++) {
+            restTemplate.exchange(baseUrl + "/" + product.getId(), HttpMethod.PUT,
+                    new HttpEntity<>(update, headers), new ParameterizedTypeReference<Map<String, Object>>() {});
+        }
+
+        ResponseEntity<List<Map<String, Object>>> history = restTemplate.exchange(
+                baseUrl + "/" + product.getId() + "/price-history",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+        );
+        ResponseEntity<Map<String, Object>> pricesAt = restTemplate.exchange(
+                baseUrl + "/prices-at?at=" + LocalDateTime.now().plusMinutes(1) + "&afterId=" + (product.getId() - 1) + "&limit=1",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<Map<String, Object>>() {}
+        );
+
+        // Then: precio de creación y un único cambio
+        assertThat(history.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(history.getBody()).hasSize(2);
+        assertThat(new BigDecimal(history.getBody().get(0).get("price").toString())).isEqualByComparingTo("99.99");
+        assertThat(new BigDecimal(history.getBody().get(1).get("price").toString())).isEqualByComparingTo("89.99");
+
+        assertThat(pricesAt.getStatusCode()).isEqualTo(HttpStatus.OK);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> prices = (Map<String, Object>) pricesAt.getBody().get("prices");
+        assertThat(new BigDecimal(prices.get(product.getId().toString()).toString())).isEqualByComparingTo("89.99");
+    }
+
+    @Test
+    @Order(21)
+    void bulkDelete_ShouldHideProductsFromQueries() {
+        // Given
+        Product first = productRepository.save(createTestProduct("Borrado masivo 1", "Producto a borrar"));
+        Product second = productRepository.save(createTestProduct("Borrado masivo 2", "Producto a borrar"));
+        long totalBefore = productRepository.countAllProducts();
+
+        // When
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                baseUrl + "/bulk/delete",
+                HttpMethod.POST,
+                new HttpEntity<>(Map.of("ids", List.of(first.getId(), second.getId(), 999999L)), headers),
+                new ParameterizedTypeReference<Map<String, Object>>() {}
+        );
+
+        // Then: la lápida los oculta de las lecturas JPA, aunque la fila siga en la tabla hasta la purga
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("deleted")).isEqualTo(2);
+        assertThat(response.getBody().get("notFound")).isEqualTo(1);
+        assertThat(productRepository.findById(first.getId())).isEmpty();
+        assertThat(restTemplate.getForEntity(baseUrl + "/" + second.getId(), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(productRepository.countAllProducts()).isEqualTo(totalBefore - 2);
+    }
+
+    @Test
+    @Order(22)
+    void reduceStock_ShouldOnlyWriteStockTable() {
+        // Given
+        Product product = productRepository.save(createTestProduct("Stock separado", "Producto con stock aparte"));
+        LocalDateTime contentUpdatedAt = productRepository.findById(product.getId()).orElseThrow().getUpdatedAt();
+        // Creado después: solo el cambio de stock puede volver a poner el primero delante
+        productRepository.save(createTestProduct("Stock separado posterior", "Producto creado más tarde"));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                baseUrl + "/" + product.getId() + "/reduce-stock?quantity=30",
+                HttpMethod.PUT,
+                null,
+                new ParameterizedTypeReference<Map<String, Object>>() {}
+        );
+
+        // Then: el stock se lee unido al producto, pero su updated_at (contenido) no cambia
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(reloaded.getStock()).isEqualTo(70);
+        assertThat(reloaded.getUpdatedAt()).isEqualTo(contentUpdatedAt);
+        assertThat(reloaded.getStockUpdatedAt()).isAfterOrEqualTo(contentUpdatedAt);
+
+        // El cambio de stock cuenta como modificación reciente, con y sin selección de campos
+        ResponseEntity<List<Map<String, Object>>> recent = restTemplate.exchange(
+                baseUrl + "/top/recently-updated?limit=1",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+        );
+        assertThat(recent.getBody()).hasSize(1);
+        assertThat(((Number) recent.getBody().get(0).get("id")).longValue()).isEqualTo(product.getId());
+
+        ResponseEntity<List<Map<String, Object>>> recentFields = restTemplate.exchange(
+                baseUrl + "/top/recently-updated?limit=1&fields=stock",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+        );
+        assertThat(recentFields.getBody()).hasSize(1);
+        assertThat(((Number) recentFields.getBody().get(0).get("id")).longValue()).isEqualTo(product.getId());
+    }
+
+    @Test
+    @Order(23)
+    void searchProducts_WithFields_ShouldReturnOnlyRequestedFields() {
+        // Given
+        productRepository.save(createTestProduct("Campos sueltos", "Descripción que no se pide"));
+
+        // When
+        ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+                baseUrl + "/search?name=Campos sueltos&fields=price,stock",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+        );
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(1);
+        assertThat(response.getBody().get(0)).containsOnlyKeys("id", "price", "stock");
+        assertThat(response.getBody().get(0).get("stock")).isEqualTo(100);
+    }
+
+    @Test
+    @Order(24)
+    @SuppressWarnings("unchecked")
+    void changes_ShouldReturnLatestStateAndTombstonesAfterCursor() {
+        // Given: sin margen de asentamiento, los huecos que deja la compactación no detienen la lectura
+        ReflectionTestUtils.setField(productChangeFeedService, "settleMs", 0L);
+        long cursor = 0;
+        Map<String, Object> page;
+        do {
+            page = changesSince(cursor);
+            cursor = ((Number) page.get("cursor")).longValue();
+        } while (Boolean.TRUE.equals(page.get("hasMore")));
+
+        Product kept = productRepository.save(createTestProduct("Feed conservado", "Producto que sigue en el catálogo"));
+        Product removed = productRepository.save(createTestProduct("Feed borrado", "Producto que se elimina"));
+        restTemplate.exchange(baseUrl + "/" + kept.getId() + "/reduce-stock?quantity=30",
+                HttpMethod.PUT, null, new ParameterizedTypeReference<Map<String, Object>>() {});
+        restTemplate.delete(baseUrl + "/" + removed.getId());
+
+        // When: compactar deja una sola entrada por producto
+        int compacted = productChangeFeedService.compactSuperseded();
+        Map<String, Object> changes = changesSince(cursor);
+
+        // Then: el producto conservado con su stock actual y la lápida del borrado
+        assertThat(compacted).isGreaterThanOrEqualTo(2);
+        List<Map<String, Object>> entries = (List<Map<String, Object>>) changes.get("changes");
+        assertThat(entries).hasSize(2);
+        assertThat(entries.get(0).get("type")).isEqualTo("UPSERT");
+        assertThat(((Map<String, Object>) entries.get(0).get("product")).get("stock")).isEqualTo(70);
+        assertThat(entries.get(1).get("type")).isEqualTo("DELETE");
+        assertThat(((Number) entries.get(1).get("productId")).longValue()).isEqualTo(removed.getId());
+        assertThat(((Number) changes.get("cursor")).longValue()).isGreaterThan(cursor);
+    }
+
+    private Map<String, Object> changesSince(long cursor) {
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                baseUrl + "/changes?since=" + cursor,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<Map<String, Object>>() {}
+        );
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+
     // Helper methods
     private Product createTestProduct() {
         return createTestProduct("Producto de Prueba", "Descripción del producto de prueba");
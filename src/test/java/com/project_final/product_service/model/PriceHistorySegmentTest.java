@@ -0,0 +1,92 @@
+package com.project_final.product_service.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceHistorySegmentTest {
+
+    @Test
+    void append_DecodesChangesInOrder() {
+        // Arrange
+        PriceHistorySegment segment = new PriceHistorySegment(1L, 1_000L, 9999L);
+        segment.append(86_401_000L, 8999L);
+        segment.append(172_801_000L, 12_500L);
+
+        // Act
+        List<long[]> entries = new ArrayList<>();
+        segment.forEach((millis, cents) -> entries.add(new long[]{millis, cents}));
+
+        // Assert
+        assertEquals(3, segment.getEntryCount());
+        assertEquals(3, entries.size());
+        assertArrayEquals(new long[]{1_000L, 9999L}, entries.get(0));
+        assertArrayEquals(new long[]{86_401_000L, 8999L}, entries.get(1));
+        assertArrayEquals(new long[]{172_801_000L, 12_500L}, entries.get(2));
+        assertEquals(172_801_000L, segment.getLastMillis());
+        assertEquals(12_500L, segment.getLastCents());
+    }
+
+    @Test
+    void append_SmallDeltasUseFewBytes() {
+        // Arrange
+        PriceHistorySegment segment = new PriceHistorySegment(1L, 1_700_000_000_000L, 1999L);
+
+        // Act: un día después, 1 € más barato
+        segment.append(1_700_086_400_000L, 1899L);
+
+        // Assert
+        assertTrue(segment.getDeltas().length <= 7);
+    }
+
+    @Test
+    void append_EarlierInstant_IsClampedToLastChange() {
+        // Arrange
+        PriceHistorySegment segment = new PriceHistorySegment(1L, 5_000L, 100L);
+
+        // Act
+        segment.append(4_000L, 200L);
+
+        // Assert
+        assertEquals(5_000L, segment.getLastMillis());
+        assertEquals(200L, segment.getLastCents());
+    }
+
+    @Test
+    void append_FullSegment_ThrowsException() {
+        // Arrange
+        PriceHistorySegment segment = new PriceHistorySegment(1L, 0L, 100L);
+        for (int i = 1; i < PriceHistorySegment.MAX_ENTRIES; i++) {
+            segment.append(i * 1_000L, 100L + i);
+        }
+
+        // Act & Assert
+        assertTrue(segment.isFull());
+        assertThrows(IllegalStateException.class, () -> segment.append(999_999L, 1L));
+    }
+
+    @Test
+    void priceAt_ReturnsPriceInEffectAtInstant() {
+        // Arrange
+        PriceHistorySegment segment = new PriceHistorySegment(1L, 1_000L, 500L);
+        segment.append(2_000L, 450L);
+        segment.append(3_000L, 600L);
+
+        // Act & Assert
+        assertEquals(-1L, priceAt(segment, 999L));
+        assertEquals(500L, priceAt(segment, 1_000L));
+        assertEquals(500L, priceAt(segment, 1_999L));
+        assertEquals(450L, priceAt(segment, 2_500L));
+        assertEquals(600L, priceAt(segment, 3_000L));
+        // Tras el último cambio no hace falta decodificar los deltas
+        assertEquals(600L, PriceHistorySegment.priceAt(1_000L, 500L, 3_000L, 600L, null, 3, 10_000L));
+    }
+
+    private static long priceAt(PriceHistorySegment segment, long atMillis) {
+        return PriceHistorySegment.priceAt(segment.getFirstMillis(), segment.getFirstCents(), segment.getLastMillis(),
+                segment.getLastCents(), segment.getDeltas(), segment.getEntryCount(), atMillis);
+    }
+}
@@ -0,0 +1,47 @@
+package com.project_final.product_service.model;
+
+import com.project_final.product_service.exceptions.ProductValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFieldsTest {
+
+    @Test
+    void parse_Null_ReturnsNull() {
+        assertNull(ProductFields.parse(null));
+    }
+
+    @Test
+    void parse_RequestedFields_AddsIdFirstAndKeepsOrder() {
+        // Act
+        ProductFields fields = ProductFields.parse(" price, stock ,price");
+
+        // Assert
+        assertEquals(List.of("id", "price", "stock"), fields.getNames());
+        assertFalse(fields.contains("description"));
+    }
+
+    @Test
+    void parse_OnlyId_ReturnsId() {
+        assertEquals(List.of("id"), ProductFields.parse("id").getNames());
+    }
+
+    @Test
+    void parse_UnknownField_ThrowsValidationException() {
+        // Act & Assert
+        ProductValidationException exception = assertThrows(ProductValidationException.class,
+                () -> ProductFields.parse("name,available"));
+
+        assertEquals("fields", exception.getField());
+        assertTrue(exception.getMessage().contains("available"));
+    }
+
+    @Test
+    void parse_Empty_ThrowsValidationException() {
+        assertThrows(ProductValidationException.class, () -> ProductFields.parse(""));
+        assertThrows(ProductValidationException.class, () -> ProductFields.parse(" , "));
+    }
+}
@@ -110,7 +110,8 @@ class ProductModelTest {
     void setStock_ValidStock_SetsSuccessfully() {
         // Arrange
         Integer validStock = 100;
-        LocalDateTime beforeUpdate = product.getUpdatedAt();
+        LocalDateTime beforeUpdate = product.getStockUpdatedAt();
+        LocalDateTime contentUpdatedAt = product.getUpdatedAt();
 
         // Act
         // Agregar una pequeña pausa para asegurar diferencia en timestamps
@@ -121,9 +122,10 @@ class ProductModelTest {
         }
         product.setStock(validStock);
 
-        // Assert
+        // Assert: el stock lleva su propia marca y no toca la del contenido
         assertEquals(validStock, product.getStock());
-        assertTrue(product.getUpdatedAt().isAfter(beforeUpdate));
+        assertTrue(product.getStockUpdatedAt().isAfter(beforeUpdate));
+        assertEquals(contentUpdatedAt, product.getUpdatedAt());
     }
 
     @Test
@@ -230,6 +232,21 @@ class ProductModelTest {
         assertTrue(exception.getMessage().contains(excessiveQuantity.toString()));
     }
 
+    @Test
+    void tryReduceStock_InsufficientStock_ReturnsFalseAndKeepsStock() {
+        // Arrange
+        Integer initialStock = product.getStock();
+
+        // Act
+        boolean reduced = product.tryReduceStock(initialStock + 1);
+
+        // Assert
+        assertFalse(reduced);
+        assertEquals(initialStock, product.getStock());
+        assertTrue(product.tryReduceStock(initialStock));
+        assertEquals(0, product.getStock());
+    }
+
     @Test
     void reduceStock_NullQuantity_ThrowsValidationException() {
         // Act & Assert
@@ -334,29 +351,13 @@ class ProductModelTest {
         assertFalse(product.hasEnoughStock(10));
     }
 
-    // TESTS DE MÉTODOS DE CICLO DE VIDA
-
-    @Test
-    void onUpdate_UpdatesTimestamp() throws InterruptedException {
-        // Arrange
-        LocalDateTime beforeUpdate = product.getUpdatedAt();
-
-        // Simular una pequeña pausa para asegurar diferencia en timestamps
-        Thread.sleep(10);
-
-        // Act
-        product.onUpdate(); // Llamada manual del método @PreUpdate
-
-        // Assert
-        assertTrue(product.getUpdatedAt().isAfter(beforeUpdate));
-    }
-
     // TESTS DE VALIDACIONES INTEGRADAS
 
     @Test
-    void stockOperations_UpdateTimestamp() throws InterruptedException {
+    void stockOperations_UpdateStockTimestampOnly() throws InterruptedException {
         // Arrange
-        LocalDateTime beforeOperation = product.getUpdatedAt();
+        LocalDateTime beforeOperation = product.getStockUpdatedAt();
+        LocalDateTime contentUpdatedAt = product.getUpdatedAt();
 
         // Simular una pequeña pausa para asegurar diferencia en timestamps
         Thread.sleep(10);
@@ -365,7 +366,8 @@ class ProductModelTest {
         product.reduceStock(10);
 
         // Assert
-        assertTrue(product.getUpdatedAt().isAfter(beforeOperation));
+        assertTrue(product.getStockUpdatedAt().isAfter(beforeOperation));
+        assertEquals(contentUpdatedAt, product.getUpdatedAt());
         assertEquals(40, product.getStock());
     }
 
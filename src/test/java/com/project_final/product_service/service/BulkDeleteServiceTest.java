@@ -0,0 +1,94 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.BulkDeleteRequest;
+import com.project_final.product_service.model.BulkDeleteResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkDeleteServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BulkDeleteService bulkDeleteService;
+
+    @Test
+    void deleteProducts_EmptyList_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> bulkDeleteService.deleteProducts(new BulkDeleteRequest(List.of())));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void deleteProducts_NullId_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> bulkDeleteService.deleteProducts(new BulkDeleteRequest(Arrays.asList(1L, null))));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void deleteProducts_TombstonesLiveProductsAndReportsMissing() {
+        // Arrange: el 5 no existe (o ya estaba borrado)
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(1L, 3L));
+
+        // Act
+        BulkDeleteResult result = bulkDeleteService.deleteProducts(new BulkDeleteRequest(List.of(5L, 3L, 1L, 3L)));
+
+        // Assert
+        assertEquals(3, result.getRequested());
+        assertEquals(2, result.getDeleted());
+        assertEquals(List.of(5L), result.getNotFoundIds());
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(startsWith("UPDATE products SET deleted_at = ?"), args.capture());
+        assertEquals(List.of(1L, 3L), List.of(args.getValue()).subList(1, 3));
+        verify(eventPublisher, times(2)).publishEvent(argThat((Object event) ->
+                event instanceof ProductChangedEvent changed && changed.isDeletion()));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void deleteProducts_SplitsLargeRequestsIntoChunksOfOneTransaction() {
+        // Arrange
+        ReflectionTestUtils.setField(bulkDeleteService, "chunkSize", 2);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of());
+
+        // Act
+        BulkDeleteResult result = bulkDeleteService.deleteProducts(new BulkDeleteRequest(List.of(1L, 2L, 3L)));
+
+        // Assert
+        assertEquals(2, result.getDeleted());
+        verify(jdbcTemplate, times(2)).queryForList(endsWith("FOR UPDATE"), eq(Long.class), any(Object[].class));
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+}
@@ -0,0 +1,212 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.BulkPriceUpdateRequest;
+import com.project_final.product_service.model.BulkPriceUpdateRequest.PriceRule;
+import com.project_final.product_service.model.BulkPriceUpdateResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkPriceUpdateServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PriceHistoryService priceHistoryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BulkPriceUpdateService bulkPriceUpdateService;
+
+    // TESTS DE VALIDACIÓN
+
+    @Test
+    void updatePrices_WithoutPricesOrRule_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> bulkPriceUpdateService.updatePrices(new BulkPriceUpdateRequest()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void updatePrices_DuplicatedId_ThrowsValidationException() {
+        // Arrange
+        BulkPriceUpdateRequest request = new BulkPriceUpdateRequest();
+        request.setPrices(List.of(new BulkPriceUpdateRequest.Item(1L, BigDecimal.TEN),
+                new BulkPriceUpdateRequest.Item(1L, BigDecimal.ONE)));
+
+        // Act & Assert
+        assertThrows(ProductValidationException.class, () -> bulkPriceUpdateService.updatePrices(request));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void updatePrices_PercentageOfMinus100_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> bulkPriceUpdateService.updatePrices(ruleRequest(PriceRule.Type.PERCENTAGE, "-100")));
+    }
+
+    // TESTS DE LISTA DE PRECIOS
+
+    @Test
+    void updatePrices_WithPrices_UpdatesChangedRowsInOneStatement() {
+        // Arrange: el 3 no existe, el 2 ya tiene ese precio y el 4 trae un precio inválido
+        BulkPriceUpdateRequest request = new BulkPriceUpdateRequest();
+        request.setPrices(List.of(
+                new BulkPriceUpdateRequest.Item(3L, new BigDecimal("5.00")),
+                new BulkPriceUpdateRequest.Item(1L, new BigDecimal("12.345")),
+                new BulkPriceUpdateRequest.Item(2L, new BigDecimal("20")),
+                new BulkPriceUpdateRequest.Item(4L, new BigDecimal("-1"))));
+        stubRows(List.of(row(1L, "10.00"), row(2L, "20.00")));
+
+        // Act
+        BulkPriceUpdateResult result = bulkPriceUpdateService.updatePrices(request);
+
+        // Assert
+        assertEquals(2, result.getMatched());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, result.getNotFound());
+        assertEquals(4L, result.getRejections().get(0).getProductId());
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(startsWith("UPDATE products SET price = CASE id WHEN ? THEN ?"), args.capture());
+        assertEquals(1L, args.getValue()[0]);
+        assertEquals(new BigDecimal("12.35"), args.getValue()[1]);
+        verify(priceHistoryService, times(1)).recordPriceChanges(argThat(changes -> changes.size() == 1));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void updatePrices_LocksRowsInIdOrder() {
+        // Arrange
+        BulkPriceUpdateRequest request = new BulkPriceUpdateRequest();
+        request.setPrices(List.of(new BulkPriceUpdateRequest.Item(9L, BigDecimal.TEN),
+                new BulkPriceUpdateRequest.Item(2L, BigDecimal.TEN)));
+        stubRows(List.of());
+
+        // Act
+        bulkPriceUpdateService.updatePrices(request);
+
+        // Assert
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(endsWith("FOR UPDATE"), anyRowMapper(), args.capture());
+        assertArrayEquals(new Object[]{2L, 9L}, args.getValue());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    // TESTS DE REGLAS
+
+    @Test
+    void updatePrices_PercentageRule_RejectsResultsOutOfRange() {
+        // Arrange: +50% deja el segundo producto por encima del precio máximo
+        stubRows(List.of(row(1L, "10.00"), row(2L, "80000000.00")));
+
+        // Act
+        BulkPriceUpdateResult result = bulkPriceUpdateService.updatePrices(ruleRequest(PriceRule.Type.PERCENTAGE, "50"));
+
+        // Assert
+        assertEquals("PERCENTAGE", result.getMode());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getRejected());
+        assertEquals(2L, result.getRejections().get(0).getProductId());
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(anyString(), args.capture());
+        assertEquals(new BigDecimal("15.00"), args.getValue()[1]);
+    }
+
+    @Test
+    void updatePrices_AbsoluteRule_WalksChunksByKeyset() {
+        // Arrange: el primer tramo viene lleno, así que se pide el siguiente a partir del último id
+        ReflectionTestUtils.setField(bulkPriceUpdateService, "chunkSize", 2);
+        stubRows(List.of(row(1L, "10.00"), row(5L, "20.00")), List.<Object[]>of(row(8L, "30.00")));
+
+        // Act
+        BulkPriceUpdateResult result = bulkPriceUpdateService.updatePrices(ruleRequest(PriceRule.Type.ABSOLUTE, "1.5"));
+
+        // Assert
+        assertEquals(3, result.getUpdated());
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).query(contains("id > ?"), anyRowMapper(), args.capture());
+        assertEquals(0L, args.getAllValues().get(0)[0]);
+        assertEquals(5L, args.getAllValues().get(1)[0]);
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+        verify(transactionManager, times(2)).commit(any());
+        verify(eventPublisher, times(3)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    private static BulkPriceUpdateRequest ruleRequest(PriceRule.Type type, String amount) {
+        PriceRule rule = new PriceRule();
+        rule.setType(type);
+        rule.setAmount(new BigDecimal(amount));
+        BulkPriceUpdateRequest request = new BulkPriceUpdateRequest();
+        request.setRule(rule);
+        return request;
+    }
+
+    // Cada llamada al SELECT devuelve el siguiente grupo de filas, pasadas por el RowMapper real
+    @SafeVarargs
+    private void stubRows(List<Object[]>... chunks) {
+        List<List<Object[]>> pending = new ArrayList<>(Arrays.asList(chunks));
+        when(jdbcTemplate.query(anyString(), anyRowMapper(), any(Object[].class))).thenAnswer(invocation -> {
+            RowMapper<?> mapper = invocation.getArgument(1);
+            List<Object> mapped = new ArrayList<>();
+            for (Object[] row : pending.isEmpty() ? List.<Object[]>of() : pending.remove(0)) {
+                mapped.add(mapper.mapRow(resultSet(row), mapped.size()));
+            }
+            return mapped;
+        });
+    }
+
+    private static Object[] row(long id, String price) {
+        return new Object[]{id, new BigDecimal(price)};
+    }
+
+    private static ResultSet resultSet(Object[] row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn((Long) row[0]);
+        when(rs.getString("name")).thenReturn("Producto " + row[0]);
+        when(rs.getBigDecimal("price")).thenReturn((BigDecimal) row[1]);
+        when(rs.getInt("stock")).thenReturn(10);
+        when(rs.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0)));
+        return rs;
+    }
+
+    // Comodín tipado para el RowMapper (any(RowMapper.class) es un tipo crudo)
+    private static RowMapper<Object> anyRowMapper() {
+        return any();
+    }
+}
@@ -0,0 +1,193 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.BulkStockAdjustmentRequest;
+import com.project_final.product_service.model.BulkStockAdjustmentRequest.Line;
+import com.project_final.product_service.model.BulkStockAdjustmentResult;
+import com.project_final.product_service.model.BulkStockAdjustmentResult.Status;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkStockAdjustmentServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BulkStockAdjustmentService bulkStockAdjustmentService;
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void adjustStock_EmptyRequest_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> bulkStockAdjustmentService.adjustStock(new BulkStockAdjustmentRequest()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void adjustStock_AppliesValidLinesWithOneUpdate() {
+        // Arrange: el 2 no tiene stock suficiente, el 9 no existe y la última línea es inválida
+        stubRows(row(1L, 10), row(2L, 3));
+        BulkStockAdjustmentRequest request = request(false,
+                new Line(1L, 20), new Line(2L, -5), new Line(9L, 4), new Line(1L, -25), new Line(2L, 0));
+
+        // Act
+        BulkStockAdjustmentResult result = bulkStockAdjustmentService.adjustStock(request);
+
+        // Assert
+        assertTrue(result.isCommitted());
+        assertEquals(2, result.getApplied());
+        assertEquals(3, result.getRejected());
+        assertEquals(1, result.getProductsUpdated());
+        assertEquals(List.of(Status.APPLIED, Status.INSUFFICIENT_STOCK, Status.NOT_FOUND, Status.APPLIED, Status.INVALID),
+                result.getLines().stream().map(BulkStockAdjustmentResult.LineResult::getStatus).toList());
+        assertEquals(30, result.getLines().get(0).getStock());
+        assertEquals(5, result.getLines().get(3).getStock());
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(startsWith("UPDATE product_stock SET stock = CASE product_id WHEN ? THEN ?"), args.capture());
+        assertEquals(1L, args.getValue()[0]);
+        assertEquals(5, args.getValue()[1]);
+
+        // El contenido del producto no cambia: el evento conserva su updated_at
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(5, event.getValue().getSnapshot().getStock());
+        assertEquals(UPDATED_AT, event.getValue().getSnapshot().getUpdatedAt());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void adjustStock_DeletedProduct_IsNotFound() {
+        // Arrange: el 2 tiene fila de stock pero su producto tiene borrado lógico
+        stubRows(List.of(row(1L, 10), row(2L, 3)), List.<Object[]>of(row(1L, 10)));
+
+        // Act
+        BulkStockAdjustmentResult result = bulkStockAdjustmentService.adjustStock(
+                request(false, new Line(2L, 1)));
+
+        // Assert
+        assertEquals(Status.NOT_FOUND, result.getLines().get(0).getStatus());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void adjustStock_LocksProductsOnceInIdOrder() {
+        // Arrange
+        stubRows(row(3L, 1), row(7L, 1));
+
+        // Act
+        bulkStockAdjustmentService.adjustStock(request(false, new Line(7L, 1), new Line(3L, 1), new Line(7L, 2)));
+
+        // Assert
+        // Solo se bloquean las filas de product_stock; la de products se lee sin bloquear
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).query(endsWith("FOR UPDATE"), any(RowCallbackHandler.class), args.capture());
+        assertArrayEquals(new Object[]{3L, 7L}, args.getValue());
+        verify(jdbcTemplate, never()).query(endsWith("FOR UPDATE"), anyRowMapper(), any(Object[].class));
+    }
+
+    @Test
+    void adjustStock_AllOrNothingWithRejection_WritesNothing() {
+        // Arrange
+        stubRows(row(1L, 10), row(2L, 3));
+
+        // Act
+        BulkStockAdjustmentResult result = bulkStockAdjustmentService.adjustStock(
+                request(true, new Line(1L, 5), new Line(2L, -4)));
+
+        // Assert
+        assertFalse(result.isCommitted());
+        assertEquals(0, result.getApplied());
+        assertEquals(1, result.getRejected());
+        assertEquals(Status.NOT_APPLIED, result.getLines().get(0).getStatus());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static BulkStockAdjustmentRequest request(boolean allOrNothing, Line... lines) {
+        BulkStockAdjustmentRequest request = new BulkStockAdjustmentRequest();
+        request.setLines(List.of(lines));
+        request.setAllOrNothing(allOrNothing);
+        return request;
+    }
+
+    private void stubRows(Object[]... rows) {
+        stubRows(List.of(rows), List.of(rows));
+    }
+
+    // El SELECT bloqueante de product_stock y la lectura de products devuelven las filas indicadas
+    private void stubRows(List<Object[]> stockRows, List<Object[]> productRows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] row : stockRows) {
+                handler.processRow(stockResultSet(row));
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM product_stock"), any(RowCallbackHandler.class), any(Object[].class));
+        when(jdbcTemplate.query(contains("FROM products"), anyRowMapper(), any(Object[].class))).thenAnswer(invocation -> {
+            RowMapper<?> mapper = invocation.getArgument(1);
+            List<Object> mapped = new ArrayList<>();
+            for (Object[] row : productRows) {
+                mapped.add(mapper.mapRow(productResultSet(row), mapped.size()));
+            }
+            return mapped;
+        });
+    }
+
+    private static Object[] row(long id, int stock) {
+        return new Object[]{id, stock};
+    }
+
+    private static ResultSet stockResultSet(Object[] row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("product_id")).thenReturn((Long) row[0]);
+        when(rs.getInt("stock")).thenReturn((Integer) row[1]);
+        return rs;
+    }
+
+    private static ResultSet productResultSet(Object[] row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn((Long) row[0]);
+        when(rs.getString("name")).thenReturn("Producto " + row[0]);
+        when(rs.getBigDecimal("price")).thenReturn(new BigDecimal("9.99"));
+        when(rs.getTimestamp("updated_at")).thenReturn(Timestamp.valueOf(UPDATED_AT));
+        return rs;
+    }
+
+    // Comodín tipado para el RowMapper (any(RowMapper.class) es un tipo crudo)
+    private static RowMapper<Object> anyRowMapper() {
+        return any();
+    }
+}
@@ -0,0 +1,107 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.model.InventoryDashboard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryDashboardServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private InventoryDashboardService inventoryDashboardService;
+
+    private InventoryDashboard dashboard;
+
+    @BeforeEach
+    void setUp() {
+        dashboard = new InventoryDashboard(10, 7, 3, 10, new BigDecimal("1234.50"),
+                List.of(), LocalDateTime.now());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getDashboard_WithinTtl_ServedFromCache() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(dashboard);
+
+        // Act
+        InventoryDashboard first = inventoryDashboardService.getDashboard();
+        InventoryDashboard second = inventoryDashboardService.getDashboard();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(3L, first.getOutOfStock());
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getDashboard_ConcurrentCallers_ShareOneQuery() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    queries.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return dashboard;
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // Act
+            List<Future<InventoryDashboard>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(inventoryDashboardService::getDashboard));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            for (Future<InventoryDashboard> result : results) {
+                assertSame(dashboard, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, queries.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getDashboard_QueryFails_PropagatesAndRetriesNextTime() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenThrow(new IllegalStateException("BD no disponible"))
+                .thenReturn(dashboard);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> inventoryDashboardService.getDashboard());
+        assertSame(dashboard, inventoryDashboardService.getDashboard());
+    }
+}
@@ -0,0 +1,260 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.exceptions.ProductNotFoundException;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.PriceHistorySegment;
+import com.project_final.product_service.model.PricePoint;
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.repositories.PriceHistorySegmentRepository;
+import com.project_final.product_service.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryServiceTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Mock
+    private PriceHistorySegmentRepository segmentRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PriceHistoryService priceHistoryService;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product("Test Product", "Test Description", new BigDecimal("99.99"), 50);
+        product.setId(1L);
+        product.setCreatedAt(CREATED_AT);
+    }
+
+    // TESTS DE REGISTRO DE CAMBIOS
+
+    @Test
+    void recordPriceChange_SamePrice_WritesNothing() {
+        // Act
+        priceHistoryService.recordPriceChange(product, new BigDecimal("99.990"));
+
+        // Assert
+        verifyNoInteractions(segmentRepository);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void recordPriceChange_LocksProductRowBeforeReadingLastSegment() {
+        // Arrange: sin tramos todavía, el bloqueo del tramo no protegería nada
+        product.setPrice(new BigDecimal("89.99"));
+        when(segmentRepository.findFirstByProductIdOrderByFirstMillisDesc(1L)).thenReturn(Optional.empty());
+
+        // Act
+        priceHistoryService.recordPriceChange(product, new BigDecimal("99.99"));
+
+        // Assert
+        InOrder inOrder = inOrder(productRepository, segmentRepository);
+        inOrder.verify(productRepository).lockAllById(List.of(1L));
+        inOrder.verify(segmentRepository).findFirstByProductIdOrderByFirstMillisDesc(1L);
+        inOrder.verify(segmentRepository).save(any(PriceHistorySegment.class));
+    }
+
+    @Test
+    void recordPriceChange_FirstChange_StoresPreviousPriceSinceCreation() {
+        // Arrange
+        product.setPrice(new BigDecimal("89.99"));
+        product.setUpdatedAt(CREATED_AT.plusDays(2));
+        when(segmentRepository.findFirstByProductIdOrderByFirstMillisDesc(1L)).thenReturn(Optional.empty());
+
+        // Act
+        priceHistoryService.recordPriceChange(product, new BigDecimal("99.99"));
+
+        // Assert
+        ArgumentCaptor<PriceHistorySegment> captor = ArgumentCaptor.forClass(PriceHistorySegment.class);
+        verify(segmentRepository).save(captor.capture());
+        PriceHistorySegment segment = captor.getValue();
+        assertEquals(2, segment.getEntryCount());
+        assertEquals(millis(CREATED_AT), segment.getFirstMillis());
+        assertEquals(9999L, segment.getFirstCents());
+        assertEquals(millis(CREATED_AT.plusDays(2)), segment.getLastMillis());
+        assertEquals(8999L, segment.getLastCents());
+    }
+
+    @Test
+    void recordPriceChange_ExistingSegment_AppendsChange() {
+        // Arrange
+        PriceHistorySegment existing = new PriceHistorySegment(1L, millis(CREATED_AT), 9999L);
+        existing.append(millis(CREATED_AT.plusDays(1)), 8999L);
+        product.setPrice(new BigDecimal("79.99"));
+        product.setUpdatedAt(CREATED_AT.plusDays(3));
+        when(segmentRepository.findFirstByProductIdOrderByFirstMillisDesc(1L)).thenReturn(Optional.of(existing));
+
+        // Act
+        priceHistoryService.recordPriceChange(product, new BigDecimal("89.99"));
+
+        // Assert
+        verify(segmentRepository).save(existing);
+        assertEquals(3, existing.getEntryCount());
+        assertEquals(7999L, existing.getLastCents());
+    }
+
+    @Test
+    void recordPriceChange_FullSegment_StartsNewSegment() {
+        // Arrange
+        PriceHistorySegment full = new PriceHistorySegment(1L, 0L, 100L);
+        for (int i = 1; i < PriceHistorySegment.MAX_ENTRIES; i++) {
+            full.append(i, 100L + i);
+        }
+        product.setPrice(new BigDecimal("5.00"));
+        when(segmentRepository.findFirstByProductIdOrderByFirstMillisDesc(1L)).thenReturn(Optional.of(full));
+
+        // Act
+        priceHistoryService.recordPriceChange(product, new BigDecimal("2.27"));
+
+        // Assert
+        ArgumentCaptor<PriceHistorySegment> captor = ArgumentCaptor.forClass(PriceHistorySegment.class);
+        verify(segmentRepository).save(captor.capture());
+        assertNotSame(full, captor.getValue());
+        assertEquals(1, captor.getValue().getEntryCount());
+        assertEquals(500L, captor.getValue().getFirstCents());
+    }
+
+    @Test
+    void recordPriceChanges_LoadsLatestSegmentsOnceAndSavesInBatch() {
+        // Arrange: el producto 1 ya tiene historial, el 2 no; el 3 no cambia de precio
+        PriceHistorySegment existing = new PriceHistorySegment(1L, millis(CREATED_AT), 9999L);
+        when(segmentRepository.findLatestForProducts(List.of(1L, 2L))).thenReturn(List.of(existing));
+        LocalDateTime changedAt = CREATED_AT.plusDays(1);
+
+        // Act
+        priceHistoryService.recordPriceChanges(List.of(
+                new PriceHistoryService.PriceChange(1L, CREATED_AT, new BigDecimal("99.99"), new BigDecimal("89.99"), changedAt),
+                new PriceHistoryService.PriceChange(2L, CREATED_AT, new BigDecimal("10.00"), new BigDecimal("12.00"), changedAt),
+                new PriceHistoryService.PriceChange(3L, CREATED_AT, new BigDecimal("5.00"), new BigDecimal("5.00"), changedAt)));
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<PriceHistorySegment>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(segmentRepository).saveAll(captor.capture());
+        List<PriceHistorySegment> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        assertEquals(2, saved.size());
+        assertSame(existing, saved.get(0));
+        assertEquals(8999L, existing.getLastCents());
+        assertEquals(1000L, saved.get(1).getFirstCents());
+        assertEquals(1200L, saved.get(1).getLastCents());
+        verify(segmentRepository, never()).findFirstByProductIdOrderByFirstMillisDesc(anyLong());
+        InOrder inOrder = inOrder(productRepository, segmentRepository);
+        inOrder.verify(productRepository).lockAllById(List.of(1L, 2L));
+        inOrder.verify(segmentRepository).findLatestForProducts(List.of(1L, 2L));
+    }
+
+    // TESTS DE CONSULTA
+
+    @Test
+    void getPriceHistory_NeverChanged_ReturnsCreationPrice() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(segmentRepository.findOverlapping(eq(1L), anyLong(), anyLong())).thenReturn(List.of());
+        when(segmentRepository.existsByProductId(1L)).thenReturn(false);
+
+        // Act
+        List<PricePoint> history = priceHistoryService.getPriceHistory(1L, null, null);
+
+        // Assert
+        assertEquals(1, history.size());
+        assertEquals(CREATED_AT, history.get(0).getChangedAt());
+        assertEquals(new BigDecimal("99.99"), history.get(0).getPrice());
+    }
+
+    @Test
+    void getPriceHistory_WithRange_StartsWithPriceInEffect() {
+        // Arrange
+        PriceHistorySegment segment = new PriceHistorySegment(1L, millis(CREATED_AT), 9999L);
+        segment.append(millis(CREATED_AT.plusDays(1)), 8999L);
+        segment.append(millis(CREATED_AT.plusDays(5)), 7999L);
+        segment.append(millis(CREATED_AT.plusDays(10)), 6999L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(segmentRepository.findOverlapping(eq(1L), anyLong(), anyLong())).thenReturn(List.of(segment));
+
+        // Act
+        List<PricePoint> history = priceHistoryService.getPriceHistory(1L, CREATED_AT.plusDays(2), CREATED_AT.plusDays(6));
+
+        // Assert
+        assertEquals(2, history.size());
+        assertEquals(CREATED_AT.plusDays(1), history.get(0).getChangedAt());
+        assertEquals(new BigDecimal("89.99"), history.get(0).getPrice());
+        assertEquals(CREATED_AT.plusDays(5), history.get(1).getChangedAt());
+        assertEquals(new BigDecimal("79.99"), history.get(1).getPrice());
+    }
+
+    @Test
+    void getPriceHistory_RangeAfterLastSegment_UsesPreviousSegment() {
+        // Arrange
+        PriceHistorySegment previous = new PriceHistorySegment(1L, millis(CREATED_AT), 9999L);
+        previous.append(millis(CREATED_AT.plusDays(1)), 8999L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(segmentRepository.findOverlapping(eq(1L), anyLong(), anyLong())).thenReturn(List.of());
+        when(segmentRepository.findFirstByProductIdAndLastMillisLessThanOrderByLastMillisDesc(eq(1L), anyLong()))
+                .thenReturn(Optional.of(previous));
+
+        // Act
+        List<PricePoint> history = priceHistoryService.getPriceHistory(1L, CREATED_AT.plusDays(30), null);
+
+        // Assert
+        assertEquals(1, history.size());
+        assertEquals(new BigDecimal("89.99"), history.get(0).getPrice());
+    }
+
+    @Test
+    void getPriceHistory_FromAfterTo_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> priceHistoryService.getPriceHistory(1L, CREATED_AT.plusDays(1), CREATED_AT));
+        verifyNoInteractions(productRepository, segmentRepository);
+    }
+
+    @Test
+    void getPriceHistory_ProductNotFound_ThrowsNotFoundException() {
+        // Arrange
+        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class, () -> priceHistoryService.getPriceHistory(999L, null, null));
+    }
+
+    @Test
+    void getPricesAt_InvalidLimit_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> priceHistoryService.getPricesAt(CREATED_AT, 0L, 0));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,178 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.events.StockReducedEvent;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductBatchRequest;
+import com.project_final.product_service.model.ProductBatchRequest.Operation;
+import com.project_final.product_service.model.ProductBatchResult;
+import com.project_final.product_service.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBatchServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    // Validaciones reales de ProductService (no usan sus dependencias)
+    @Spy
+    private ProductService productService = new ProductService();
+
+    @Mock
+    private PriceHistoryService priceHistoryService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProductBatchService productBatchService;
+
+    @Test
+    void execute_EmptyBatch_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ProductValidationException.class, () -> productBatchService.execute(new ProductBatchRequest()));
+        verifyNoInteractions(productRepository, transactionManager);
+    }
+
+    @Test
+    void execute_AppliesOperationsInOrderAndWritesOnce() {
+        // Arrange: el 2 no tiene stock suficiente y el 3 se borra antes de modificarlo
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(1L, 10), product(2L, 1), product(3L, 4)));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
+            Product created = invocation.getArgument(0);
+            created.setId(100L);
+            return created;
+        });
+        ProductBatchRequest request = request(false,
+                create("Nuevo", "3.50", 7),
+                update(1L, "Producto 1", "12.00", 10),
+                stock(Operation.Type.REDUCE_STOCK, 2L, 5),
+                delete(3L),
+                stock(Operation.Type.INCREASE_STOCK, 3L, 1),
+                stock(Operation.Type.INCREASE_STOCK, 2L, 4));
+
+        // Act
+        ProductBatchResult result = productBatchService.execute(request);
+
+        // Assert
+        assertTrue(result.isCommitted());
+        assertEquals(4, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(201, 200, 409, 200, 404, 200),
+                result.getResults().stream().map(ProductBatchResult.OperationResult::getStatus).toList());
+        assertEquals(100L, result.getResults().get(0).getId());
+        assertEquals(5, result.getResults().get(5).getStock());
+
+        // Una consulta de carga, un flush, un UPDATE para los borrados y un historial de precios
+        verify(productRepository, times(1)).findAllById(any());
+        verify(productRepository, times(1)).flush();
+        verify(productRepository, times(1)).softDeleteAllById(eq(Set.of(3L)), any());
+        verify(priceHistoryService, times(1)).recordPriceChanges(argThat(changes -> changes.size() == 1));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+        verify(eventPublisher, never()).publishEvent(any(StockReducedEvent.class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void execute_AtomicWithFailure_RollsBackAndSkipsTheRest() {
+        // Arrange
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(1L, 10)));
+
+        // Act
+        ProductBatchResult result = productBatchService.execute(request(true,
+                stock(Operation.Type.REDUCE_STOCK, 1L, 2),
+                stock(Operation.Type.REDUCE_STOCK, 9L, 1),
+                delete(1L)));
+
+        // Assert
+        assertFalse(result.isCommitted());
+        assertEquals(0, result.getSucceeded());
+        assertEquals(List.of(424, 404, 424),
+                result.getResults().stream().map(ProductBatchResult.OperationResult::getStatus).toList());
+        assertTrue(status.isRollbackOnly());
+        verify(productRepository, never()).flush();
+        verify(productRepository, never()).softDeleteAllById(any(), any());
+    }
+
+    @Test
+    void execute_WriteFails_ReportsNothingApplied() {
+        // Arrange
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(1L, 10)));
+        doThrow(new DataIntegrityViolationException("duplicado")).when(productRepository).flush();
+
+        // Act
+        ProductBatchResult result = productBatchService.execute(request(false,
+                stock(Operation.Type.INCREASE_STOCK, 1L, 2)));
+
+        // Assert
+        assertFalse(result.isCommitted());
+        assertEquals(0, result.getSucceeded());
+        assertEquals(500, result.getResults().get(0).getStatus());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    private static ProductBatchRequest request(boolean atomic, Operation... operations) {
+        ProductBatchRequest request = new ProductBatchRequest();
+        request.setAtomic(atomic);
+        request.setOperations(List.of(operations));
+        return request;
+    }
+
+    private static Operation create(String name, String price, int stock) {
+        Operation operation = new Operation();
+        operation.setOp(Operation.Type.CREATE);
+        operation.setProduct(new Product(name, null, new BigDecimal(price), stock));
+        return operation;
+    }
+
+    private static Operation update(Long id, String name, String price, int stock) {
+        Operation operation = create(name, price, stock);
+        operation.setOp(Operation.Type.UPDATE);
+        operation.setId(id);
+        return operation;
+    }
+
+    private static Operation delete(Long id) {
+        Operation operation = new Operation();
+        operation.setOp(Operation.Type.DELETE);
+        operation.setId(id);
+        return operation;
+    }
+
+    private static Operation stock(Operation.Type type, Long id, int quantity) {
+        Operation operation = delete(id);
+        operation.setOp(type);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+
+    private static Product product(Long id, int stock) {
+        Product product = new Product("Producto " + id, null, new BigDecimal("10.00"), stock);
+        product.setId(id);
+        return product;
+    }
+}
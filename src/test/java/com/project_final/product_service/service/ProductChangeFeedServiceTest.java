@@ -0,0 +1,227 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.ProductSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeFeedServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SessionImplementor session;
+
+    @Mock
+    private ActionQueue actionQueue;
+
+    @InjectMocks
+    private ProductChangeFeedService productChangeFeedService;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> rowsCaptor;
+
+    @Captor
+    private ArgumentCaptor<BeforeTransactionCompletionProcess> processCaptor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productChangeFeedService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(productChangeFeedService, "compactionChunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    // Simula una transacción en curso con la sesión de Hibernate del EntityManager
+    private void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(session.getActionQueue()).thenReturn(actionQueue);
+    }
+
+    @Test
+    void onProductChanged_WithoutTransaction_RecordsUpsertImmediately() {
+        // Arrange
+        ProductSnapshot snapshot = new ProductSnapshot(7L, "Producto", new BigDecimal("9.99"), 3, LocalDateTime.now());
+
+        // Act
+        productChangeFeedService.onProductChanged(ProductChangedEvent.updated(snapshot));
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO product_changes"), rowsCaptor.capture());
+        assertEquals(1, rowsCaptor.getValue().size());
+        assertEquals(7L, rowsCaptor.getValue().get(0)[0]);
+        assertEquals("UPSERT", rowsCaptor.getValue().get(0)[1]);
+        assertInstanceOf(Timestamp.class, rowsCaptor.getValue().get(0)[2]);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void onProductChanged_Deletion_RecordsTombstone() {
+        // Act
+        productChangeFeedService.onProductChanged(ProductChangedEvent.deleted(7L));
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO product_changes"), rowsCaptor.capture());
+        assertEquals("DELETE", rowsCaptor.getValue().get(0)[1]);
+    }
+
+    @Test
+    void onProductChanged_InsideTransaction_RecordsAllChangesInOneBatchBeforeCommit() {
+        // Arrange
+        beginTransaction();
+
+        // Act
+        productChangeFeedService.onProductChanged(ProductChangedEvent.deleted(7L));
+        productChangeFeedService.onProductChanged(ProductChangedEvent.deleted(8L));
+        productChangeFeedService.onProductChanged(ProductChangedEvent.deleted(9L));
+        verifyNoInteractions(jdbcTemplate);
+        verify(actionQueue).registerProcess(processCaptor.capture());
+        processCaptor.getValue().doBeforeTransactionCompletion(session);
+
+        // Assert: un único lote, escrito en la propia transacción antes de confirmarla
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO product_changes"), rowsCaptor.capture());
+        assertEquals(List.of(7L, 8L, 9L), rowsCaptor.getValue().stream().map(row -> row[0]).toList());
+    }
+
+    @Test
+    void onProductChanged_TransactionRolledBack_NextTransactionStartsEmpty() {
+        // Arrange
+        beginTransaction();
+        productChangeFeedService.onProductChanged(ProductChangedEvent.deleted(7L));
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        productChangeFeedService.onProductChanged(ProductChangedEvent.deleted(8L));
+        verify(actionQueue, times(2)).registerProcess(processCaptor.capture());
+        processCaptor.getValue().doBeforeTransactionCompletion(session);
+
+        // Assert: la transacción deshecha no deja cambios pendientes en la siguiente
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO product_changes"), rowsCaptor.capture());
+        assertEquals(List.of(8L), rowsCaptor.getValue().stream().map(row -> row[0]).toList());
+    }
+
+    @Test
+    void onProductChanged_InsertFails_PropagatesSoTheTransactionRollsBack() {
+        // Arrange: perder la entrada del feed dejaría a los consumidores sin el cambio para siempre
+        beginTransaction();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new CannotAcquireLockException("bloqueo"));
+        productChangeFeedService.onProductChanged(ProductChangedEvent.deleted(7L));
+        verify(actionQueue).registerProcess(processCaptor.capture());
+
+        // Act & Assert
+        assertThrows(CannotAcquireLockException.class,
+                () -> processCaptor.getValue().doBeforeTransactionCompletion(session));
+    }
+
+    @Test
+    void seed_InsertsOnlyWhenFeedIsEmptyInTheSameStatement() {
+        // Act
+        productChangeFeedService.seed();
+
+        // Assert: sin un COUNT previo que dos instancias podrían leer a la vez
+        verify(jdbcTemplate).update(contains("NOT EXISTS (SELECT 1 FROM product_changes)"));
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    void seed_ConcurrentSeedByAnotherInstance_DoesNotFailStartup() {
+        // Arrange
+        when(jdbcTemplate.update(anyString())).thenThrow(new CannotAcquireLockException("interbloqueo"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> productChangeFeedService.seed());
+    }
+
+    @Test
+    void getChanges_NegativeCursor_ThrowsValidationException() {
+        // Act & Assert
+        ProductValidationException exception = assertThrows(ProductValidationException.class,
+                () -> productChangeFeedService.getChanges(-1L, 10));
+
+        assertEquals("since", exception.getField());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void getChanges_LimitAboveMaximum_ThrowsValidationException() {
+        // Act & Assert
+        ProductValidationException exception = assertThrows(ProductValidationException.class,
+                () -> productChangeFeedService.getChanges(0L, 101));
+
+        assertEquals("limit", exception.getField());
+    }
+
+    @Test
+    void compactSuperseded_NothingSuperseded_DeletesNothing() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of());
+
+        // Act
+        int compacted = productChangeFeedService.compactSuperseded();
+
+        // Assert
+        assertEquals(0, compacted);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void compactSuperseded_DeletesInChunksFromLastPosition() {
+        // Arrange: un tramo lleno y otro parcial, tras el cual ya no se vuelve a consultar
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(3L, 5L))
+                .thenReturn(List.of(9L));
+        when(jdbcTemplate.update(startsWith("DELETE FROM product_changes"), any(Object[].class))).thenReturn(2, 1);
+
+        // Act
+        int compacted = productChangeFeedService.compactSuperseded();
+
+        // Assert
+        assertEquals(3, compacted);
+        verify(jdbcTemplate).queryForList(contains("n.seq > c.seq"), eq(Long.class), eq(0L), eq(2));
+        verify(jdbcTemplate).queryForList(contains("n.seq > c.seq"), eq(Long.class), eq(5L), eq(2));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM product_changes"), eq(3L), eq(5L));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM product_changes"), eq(9L));
+    }
+}
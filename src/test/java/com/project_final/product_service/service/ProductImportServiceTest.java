@@ -0,0 +1,197 @@
+package com.project_final.product_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.model.ImportResult;
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.service.ProductImportService.Format;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductService productService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        // Reglas de validación reales del servicio de productos
+        lenient().doCallRealMethod().when(productService).validateProductData(any());
+    }
+
+    // TESTS NDJSON
+
+    @Test
+    void importProducts_Ndjson_InsertsValidLinesAndReportsInvalidOnes() {
+        // Arrange
+        String body = """
+                {"name":"Laptop","description":"Portátil","price":999.99,"stock":5}
+                {"name":"","price":10,"stock":1}
+
+                {"name":"Mouse","price":"19.90","stock":100}
+                {"name":"Teclado","price":-5,"stock":3}
+                no es json
+                """;
+
+        // Act
+        ImportResult result = productImportService.importProducts(stream(body), Format.NDJSON);
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(List.of(2L, 5L, 6L), result.getErrors().stream().map(ImportResult.RowError::getLine).toList());
+        assertEquals("name", result.getErrors().get(0).getField());
+        assertFalse(result.isErrorsTruncated());
+        verify(entityManager, times(2)).persist(any(Product.class));
+        verify(entityManager, times(1)).flush();
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void importProducts_ClearsPersistenceContextAfterEachChunk() {
+        // Arrange
+        ReflectionTestUtils.setField(productImportService, "batchSize", 1);
+
+        // Act
+        productImportService.importProducts(stream("""
+                {"name":"A","price":1,"stock":1}
+                {"name":"B","price":2,"stock":1}
+                """), Format.NDJSON);
+
+        // Assert: flush y clear por lote, de modo que la memoria no crece con el fichero
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager).persist(any(Product.class));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).clear();
+        inOrder.verify(entityManager).persist(any(Product.class));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).clear();
+    }
+
+    @Test
+    void importProducts_InsertsInChunksOfBatchSize() {
+        // Arrange
+        ReflectionTestUtils.setField(productImportService, "batchSize", 2);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            body.append("{\"name\":\"Producto ").append(i).append("\",\"price\":1.50,\"stock\":1}\n");
+        }
+
+        // Act
+        ImportResult result = productImportService.importProducts(stream(body.toString()), Format.NDJSON);
+
+        // Assert
+        assertEquals(5, result.getImported());
+        verify(entityManager, times(5)).persist(any(Product.class));
+        verify(entityManager, times(3)).flush();
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void importProducts_RejectedBatch_RetriesRowByRow() {
+        // Arrange: el lote falla y, fila a fila, solo la segunda vuelve a fallar
+        PersistenceException tooLong = new PersistenceException("Data too long for column 'price'");
+        doThrow(tooLong).doNothing().doThrow(tooLong).doNothing().when(entityManager).flush();
+        String body = """
+                {"name":"A","price":1,"stock":1}
+                {"name":"B","price":100000000,"stock":1}
+                {"name":"C","price":3,"stock":1}
+                """;
+
+        // Act
+        ImportResult result = productImportService.importProducts(stream(body), Format.NDJSON);
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void importProducts_TooManyErrors_TruncatesErrorList() {
+        // Arrange
+        ReflectionTestUtils.setField(productImportService, "maxErrors", 2);
+
+        // Act
+        ImportResult result = productImportService.importProducts(stream("x\ny\nz\n"), Format.NDJSON);
+
+        // Assert
+        assertEquals(3, result.getRejected());
+        assertEquals(2, result.getErrors().size());
+        assertTrue(result.isErrorsTruncated());
+        verifyNoInteractions(entityManager);
+    }
+
+    // TESTS CSV
+
+    @Test
+    void importProducts_Csv_ParsesHeaderAndQuotedFields() {
+        // Arrange
+        String body = """
+                stock,price,name,description
+                5,999.99,"Laptop, 15""\",Portátil
+                abc,10,Cable,
+                100,19.90,Mouse,
+                """;
+
+        // Act
+        ImportResult result = productImportService.importProducts(stream(body), Format.CSV);
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(3L, result.getErrors().get(0).getLine());
+        assertEquals("stock", result.getErrors().get(0).getField());
+        ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
+        verify(entityManager, times(2)).persist(captor.capture());
+        assertEquals("Laptop, 15\"", captor.getAllValues().get(0).getName());
+        assertNull(captor.getAllValues().get(1).getDescription());
+    }
+
+    @Test
+    void importProducts_CsvWithoutRequiredColumn_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> productImportService.importProducts(stream("name,stock\nLaptop,5\n"), Format.CSV));
+        verifyNoInteractions(entityManager);
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
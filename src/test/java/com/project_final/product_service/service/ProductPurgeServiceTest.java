@@ -0,0 +1,77 @@
+package com.project_final.product_service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPurgeServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ProductPurgeService productPurgeService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productPurgeService, "chunkSize", 2);
+        ReflectionTestUtils.setField(productPurgeService, "pauseMs", 0L);
+    }
+
+    @Test
+    void purgeDeletedBefore_NothingToPurge_DeletesNothing() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of());
+
+        // Act
+        int purged = productPurgeService.purgeDeletedBefore(LocalDateTime.now());
+
+        // Assert
+        assertEquals(0, purged);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void purgeDeletedBefore_RemovesRowsInChunks() {
+        // Arrange: un tramo lleno y otro parcial, tras el cual ya no se vuelve a consultar
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(7L));
+
+        // Act
+        int purged = productPurgeService.purgeDeletedBefore(LocalDateTime.now());
+
+        // Assert
+        assertEquals(3, purged);
+        verify(jdbcTemplate, times(2)).queryForList(contains("deleted_at < ?"), eq(Long.class), any(Object[].class));
+        verify(transactionManager, times(2)).commit(any());
+
+        // El historial de precios y el stock se borran antes que el producto, en la misma transacción
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM product_price_history"), eq(1L), eq(2L));
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM product_stock"), eq(1L), eq(2L));
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM products"), eq(1L), eq(2L));
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM product_price_history"), eq(7L));
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM product_stock"), eq(7L));
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM products"), eq(7L));
+    }
+}
@@ -0,0 +1,272 @@
+package com.project_final.product_service.service;
+
+import com.project_final.product_service.exceptions.ProductValidationException;
+import com.project_final.product_service.indexes.PriceIndex;
+import com.project_final.product_service.indexes.ProductBitmapIndex;
+import com.project_final.product_service.indexes.ProductIndex;
+import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductFields;
+import com.project_final.product_service.model.ProductQuery;
+import com.project_final.product_service.model.ProductQueryResult;
+import com.project_final.product_service.model.ProductSnapshot;
+import com.project_final.product_service.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductQueryServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Spy
+    private ProductBitmapIndex productBitmapIndex = new ProductBitmapIndex();
+
+    @Spy
+    private PriceIndex priceIndex = new PriceIndex();
+
+    @InjectMocks
+    private ProductQueryService productQueryService;
+
+    private final List<Product> catalog = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        catalog.add(product(1L, "Teclado mecánico", "59.90", 5));
+        catalog.add(product(2L, "Ratón inalámbrico", "19.90", 0));
+        catalog.add(product(3L, "Teclado inalámbrico", "39.90", 12));
+        catalog.add(product(4L, "Monitor 27 pulgadas", "249.00", 3));
+    }
+
+    //  TESTS CON LOS ÍNDICES CARGADOS
+
+    @Test
+    void query_CombinedFilters_IntersectsIndexes() {
+        // Arrange
+        loadIndexes();
+        when(productRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(catalog.get(2)));
+
+        ProductQuery query = new ProductQuery();
+        query.setName("teclado");
+        query.setMaxPrice(new BigDecimal("50.00"));
+        query.setAvailable(true);
+
+        // Act
+        ProductQueryResult result = productQueryService.query(query);
+
+        // Assert
+        assertEquals(1L, result.getCount());
+        assertEquals(3L, ((Product) result.getProducts().get(0)).getId());
+        assertEquals(ProductQueryResult.SOURCE_INDEX, result.getSource());
+        assertEquals(3, result.getPlan().size());
+        verify(productRepository).findAllById(List.of(3L));
+    }
+
+    @Test
+    void query_MostSelectivePredicateFirst() {
+        // Arrange
+        loadIndexes();
+        ProductQuery query = new ProductQuery();
+        query.setMinStock(0);
+        query.setName("monitor");
+        query.setCountOnly(true);
+
+        // Act
+        ProductQueryResult result = productQueryService.query(query);
+
+        // Assert
+        assertEquals(1L, result.getCount());
+        assertEquals(List.of("name:monitor(1)", "stock(4)"), result.getPlan());
+    }
+
+    @Test
+    void query_CountOnly_DoesNotLoadProducts() {
+        // Arrange
+        loadIndexes();
+        ProductQuery query = new ProductQuery();
+        query.setAvailable(false);
+        query.setCountOnly(true);
+
+        // Act
+        ProductQueryResult result = productQueryService.query(query);
+
+        // Assert
+        assertEquals(1L, result.getCount());
+        assertTrue(result.getProducts().isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void query_Pagination_ReturnsRequestedSlice() {
+        // Arrange
+        loadIndexes();
+        when(productRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(catalog.get(3), catalog.get(2)));
+
+        ProductQuery query = new ProductQuery();
+        query.setPage(1);
+        query.setSize(2);
+
+        // Act
+        ProductQueryResult result = productQueryService.query(query);
+
+        // Assert
+        assertEquals(4L, result.getCount());
+        assertEquals(3L, ((Product) result.getProducts().get(0)).getId());
+        assertEquals(4L, ((Product) result.getProducts().get(1)).getId());
+        verify(productRepository).findAllById(List.of(3L, 4L));
+    }
+
+    @Test
+    void query_PriceFilterWithIdsBeyondIntRange_MatchesThem() {
+        // Arrange
+        long largeId = Integer.MAX_VALUE + 1L;
+        Product large = product(largeId, "Teclado compacto", "45.00", 2);
+        catalog.add(large);
+        loadIndexes();
+        when(productRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(large));
+
+        ProductQuery query = new ProductQuery();
+        query.setMaxPrice(new BigDecimal("50.00"));
+        query.setPage(1);
+        query.setSize(2);
+
+        // Act
+        ProductQueryResult result = productQueryService.query(query);
+
+        // Assert
+        assertEquals(3L, result.getCount());
+        verify(productRepository).findAllById(List.of(largeId));
+    }
+
+    @Test
+    void query_WithFields_LoadsOnlyRequestedColumnsSortedById() {
+        // Arrange
+        loadIndexes();
+        ProductFields fields = ProductFields.parse("price");
+        when(productRepository.findFieldsByIdIn(eq(fields), anyList()))
+                .thenReturn(Arrays.asList(row(4L, "249.00"), row(3L, "39.90")));
+
+        ProductQuery query = new ProductQuery();
+        query.setPage(1);
+        query.setSize(2);
+        query.setFields(fields);
+
+        // Act
+        ProductQueryResult result = productQueryService.query(query);
+
+        // Assert
+        assertEquals(4L, result.getCount());
+        assertEquals(List.of(row(3L, "39.90"), row(4L, "249.00")), result.getProducts());
+        verify(productRepository).findFieldsByIdIn(fields, List.of(3L, 4L));
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    //  TESTS SIN ÍNDICES (BD)
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void query_IndexesNotReady_FallsBackToDatabase() {
+        // Arrange
+        when(productRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Arrays.asList(catalog.get(0))));
+
+        ProductQuery query = new ProductQuery();
+        query.setName("teclado");
+
+        // Act
+        ProductQueryResult result = productQueryService.query(query);
+
+        // Assert
+        assertEquals(1L, result.getCount());
+        assertEquals(ProductQueryResult.SOURCE_DATABASE, result.getSource());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void query_IndexesNotReadyWithFields_SelectsRequestedColumns() {
+        // Arrange
+        ProductFields fields = ProductFields.parse("price");
+        when(productRepository.count(any(Specification.class))).thenReturn(3L);
+        when(productRepository.findFields(eq(fields), any(Specification.class), any(Sort.class), eq(2), eq(2)))
+                .thenReturn(Arrays.asList(row(3L, "39.90")));
+
+        ProductQuery query = new ProductQuery();
+        query.setPage(1);
+        query.setSize(2);
+        query.setFields(fields);
+
+        // Act
+        ProductQueryResult result = productQueryService.query(query);
+
+        // Assert
+        assertEquals(3L, result.getCount());
+        assertEquals(1, result.getProducts().size());
+        verify(productRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    //  TESTS DE VALIDACIÓN
+
+    @Test
+    void query_InvalidRanges_ThrowsValidationException() {
+        ProductQuery prices = new ProductQuery();
+        prices.setMinPrice(new BigDecimal("100"));
+        prices.setMaxPrice(new BigDecimal("10"));
+        assertThrows(ProductValidationException.class, () -> productQueryService.query(prices));
+
+        ProductQuery stock = new ProductQuery();
+        stock.setMinStock(10);
+        stock.setMaxStock(1);
+        assertThrows(ProductValidationException.class, () -> productQueryService.query(stock));
+
+        ProductQuery size = new ProductQuery();
+        size.setSize(0);
+        assertThrows(ProductValidationException.class, () -> productQueryService.query(size));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    private void loadIndexes() {
+        ProductIndex.Builder bitmapBuilder = productBitmapIndex.newBuilder();
+        ProductIndex.Builder priceBuilder = priceIndex.newBuilder();
+        for (Product product : catalog) {
+            ProductSnapshot snapshot = ProductSnapshot.from(product);
+            bitmapBuilder.add(snapshot);
+            priceBuilder.add(snapshot);
+        }
+        bitmapBuilder.publish();
+        priceBuilder.publish();
+    }
+
+    private Product product(Long id, String name, String price, int stock) {
+        Product product = new Product(name, null, new BigDecimal(price), stock);
+        product.setId(id);
+        return product;
+    }
+
+    private static Map<String, Object> row(Long id, String price) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("price", new BigDecimal(price));
+        return row;
+    }
+}
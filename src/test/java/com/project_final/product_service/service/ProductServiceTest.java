@@ -1,19 +1,38 @@
 package com.project_final.product_service.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project_final.product_service.events.ProductChangedEvent;
+import com.project_final.product_service.events.StockReducedEvent;
 import com.project_final.product_service.model.Product;
+import com.project_final.product_service.model.ProductFields;
+import com.project_final.product_service.model.ProductPatchResult;
+import com.project_final.product_service.model.ProductSnapshot;
+import com.project_final.product_service.model.StockOperationResult;
 import com.project_final.product_service.repositories.ProductRepository;
 import com.project_final.product_service.exceptions.*;
+import com.project_final.product_service.indexes.CatalogCounters;
+import com.project_final.product_service.indexes.LowStockMonitor;
+import com.project_final.product_service.indexes.PriceIndex;
+import com.project_final.product_service.indexes.SearchResultCache;
+import com.project_final.product_service.indexes.SearchResultCache.SearchMode;
+import com.project_final.product_service.indexes.TrigramSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,11 +45,35 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private TrigramSearchIndex trigramSearchIndex;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private PriceIndex priceIndex;
+
+    @Mock
+    private LowStockMonitor lowStockMonitor;
+
+    @Mock
+    private CatalogCounters catalogCounters;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PriceHistoryService priceHistoryService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private ProductService productService;
 
     private Product testProduct;
     private Product testProductWithId;
+    private ProductSnapshot testSnapshot;
 
     @BeforeEach
     void setUp() {
@@ -48,6 +91,7 @@ class ProductServiceTest {
         testProductWithId.setStock(50);
         testProductWithId.setCreatedAt(LocalDateTime.now());
         testProductWithId.setUpdatedAt(LocalDateTime.now());
+        testSnapshot = ProductSnapshot.from(testProductWithId);
     }
 
     //  TESTS DE CREACIÓN
@@ -94,15 +138,15 @@ class ProductServiceTest {
     @Test
     void getAllProducts_ReturnsAllProducts() {
         // Arrange
-        List<Product> products = Arrays.asList(testProductWithId, testProductWithId);
-        when(productRepository.findAll()).thenReturn(products);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot, testSnapshot);
+        when(productRepository.findAllSnapshots()).thenReturn(products);
 
         // Act
-        List<Product> result = productService.getAllProducts();
+        List<ProductSnapshot> result = productService.getAllProducts();
 
         // Assert
         assertEquals(2, result.size());
-        verify(productRepository).findAll();
+        verify(productRepository).findAllSnapshots();
     }
 
     @Test
@@ -155,6 +199,25 @@ class ProductServiceTest {
         verify(productRepository).save(any(Product.class));
     }
 
+    @Test
+    void updateProduct_ValidData_RecordsPreviousPriceInHistory() {
+        // Arrange
+        Product updatedData = new Product();
+        updatedData.setName("Updated Product");
+        updatedData.setDescription("Updated Description");
+        updatedData.setPrice(new BigDecimal("199.99"));
+        updatedData.setStock(100);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProductWithId));
+        when(productRepository.save(any(Product.class))).thenReturn(testProductWithId);
+
+        // Act
+        productService.updateProduct(1L, updatedData);
+
+        // Assert
+        verify(priceHistoryService).recordPriceChange(testProductWithId, new BigDecimal("99.99"));
+    }
+
     @Test
     void updateProduct_NonExistingId_ThrowsNotFoundException() {
         // Arrange
@@ -168,32 +231,115 @@ class ProductServiceTest {
         verify(productRepository, never()).save(any());
     }
 
-    // TESTS DE ELIMINACIÓN
+    // TESTS DE ACTUALIZACIÓN PARCIAL (PATCH)
 
     @Test
-    void deleteProduct_ExistingId_DeletesProduct() {
+    void patchProduct_OnlyPrice_ChangesOnlyPrice() throws Exception {
         // Arrange
+        LocalDateTime updatedAt = testProductWithId.getUpdatedAt();
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProductWithId));
+        when(productRepository.save(testProductWithId)).thenReturn(testProductWithId);
 
         // Act
-        productService.deleteProduct(1L);
+        ProductPatchResult result = productService.patchProduct(1L, objectMapper.readTree("{\"price\": 89.99}"));
 
         // Assert
-        verify(productRepository).findById(1L);
-        verify(productRepository).delete(testProductWithId);
+        assertEquals(List.of("price"), result.getChangedFields());
+        assertEquals(new BigDecimal("89.99"), testProductWithId.getPrice());
+        assertEquals("Test Description", testProductWithId.getDescription());
+        assertFalse(testProductWithId.getUpdatedAt().isBefore(updatedAt));
+        verify(productRepository).save(testProductWithId);
+        verify(priceHistoryService).recordPriceChange(testProductWithId, new BigDecimal("99.99"));
     }
 
     @Test
-    void deleteProduct_NonExistingId_ThrowsNotFoundException() {
+    void patchProduct_SameValues_SkipsWrite() throws Exception {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProductWithId));
+        LocalDateTime updatedAt = testProductWithId.getUpdatedAt();
+
+        // Act
+        ProductPatchResult result = productService.patchProduct(1L,
+                objectMapper.readTree("{\"name\": \"Test Product\", \"price\": \"99.990\", \"stock\": 50}"));
+
+        // Assert
+        assertFalse(result.isUpdated());
+        assertEquals(updatedAt, testProductWithId.getUpdatedAt());
+        verify(productRepository, never()).save(any());
+        verifyNoInteractions(priceHistoryService);
+    }
+
+    @Test
+    void patchProduct_NullDescription_ClearsIt() throws Exception {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProductWithId));
+        when(productRepository.save(testProductWithId)).thenReturn(testProductWithId);
+
+        // Act
+        ProductPatchResult result = productService.patchProduct(1L, objectMapper.readTree("{\"description\": null}"));
+
+        // Assert
+        assertEquals(List.of("description"), result.getChangedFields());
+        assertNull(testProductWithId.getDescription());
+    }
+
+    @Test
+    void patchProduct_NullName_ThrowsValidationException() throws Exception {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProductWithId));
+
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> productService.patchProduct(1L, objectMapper.readTree("{\"name\": null}")));
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void patchProduct_ReadOnlyField_ThrowsValidationException() throws Exception {
+        // Act & Assert
+        ProductValidationException exception = assertThrows(ProductValidationException.class,
+                () -> productService.patchProduct(1L, objectMapper.readTree("{\"id\": 5}")));
+        assertEquals("id", exception.getField());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void patchProduct_NonExistingId_ThrowsNotFoundException() throws Exception {
         // Arrange
         when(productRepository.findById(999L)).thenReturn(Optional.empty());
 
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class,
+                () -> productService.patchProduct(999L, objectMapper.readTree("{\"stock\": 1}")));
+    }
+
+    // TESTS DE ELIMINACIÓN
+
+    @Test
+    void deleteProduct_ExistingId_SoftDeletesInOneStatement() {
+        // Arrange
+        when(productRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        productService.deleteProduct(1L);
+
+        // Assert: sin lectura previa; los índices se enteran por el evento
+        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).delete(any(Product.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof ProductChangedEvent changed && changed.isDeletion() && changed.getProductId() == 1L));
+    }
+
+    @Test
+    void deleteProduct_NonExistingId_ThrowsNotFoundException() {
+        // Arrange
+        when(productRepository.softDeleteById(eq(999L), any(LocalDateTime.class))).thenReturn(0);
+
         // Act & Assert
         assertThrows(ProductNotFoundException.class,
                 () -> productService.deleteProduct(999L));
 
-        verify(productRepository).findById(999L);
-        verify(productRepository, never()).delete(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     //  TESTS DE BÚSQUEDA
@@ -201,17 +347,45 @@ class ProductServiceTest {
     @Test
     void searchProductsByName_ValidName_ReturnsMatchingProducts() {
         // Arrange
-        List<Product> products = Arrays.asList(testProductWithId);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
         when(productRepository.findByNameContaining("Test")).thenReturn(products);
 
         // Act
-        List<Product> result = productService.searchProductsByName("Test");
+        List<ProductSnapshot> result = productService.searchProductsByName("Test");
 
         // Assert
         assertEquals(1, result.size());
         verify(productRepository).findByNameContaining("Test");
     }
 
+    @Test
+    void searchProductsByName_CachedQuery_LoadsProductsById() {
+        // Arrange
+        when(searchResultCache.lookup(SearchMode.EXACT, "Test")).thenReturn(new long[]{1L});
+        when(productRepository.findSnapshotsByIdIn(anyList())).thenReturn(Arrays.asList(testSnapshot));
+
+        // Act
+        List<ProductSnapshot> result = productService.searchProductsByName("Test");
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findByNameContaining(any());
+        verify(searchResultCache, never()).store(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void searchProductsByName_CacheMiss_StoresResultIds() {
+        // Arrange
+        when(searchResultCache.getVersion()).thenReturn(7L);
+        when(productRepository.findByNameContaining("Test")).thenReturn(Arrays.asList(testSnapshot));
+
+        // Act
+        productService.searchProductsByName("Test");
+
+        // Assert
+        verify(searchResultCache).store(SearchMode.EXACT, "Test", 7L, new long[]{1L});
+    }
+
     @Test
     void searchProductsByName_EmptyName_ThrowsValidationException() {
         // Act & Assert
@@ -221,6 +395,48 @@ class ProductServiceTest {
         verify(productRepository, never()).findByNameContaining(any());
     }
 
+    @Test
+    void fuzzySearchProductsByName_IndexReady_ReturnsProductsInIndexOrder() {
+        // Arrange
+        Product other = new Product("Teléfono", "Otro", new BigDecimal("10.00"), 5);
+        other.setId(2L);
+        when(trigramSearchIndex.isReady()).thenReturn(true);
+        when(trigramSearchIndex.search("telefno")).thenReturn(new long[]{2L, 1L});
+        when(productRepository.findSnapshotsByIdIn(anyList())).thenReturn(Arrays.asList(testSnapshot, ProductSnapshot.from(other)));
+
+        // Act
+        List<ProductSnapshot> result = productService.fuzzySearchProductsByName("telefno");
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(1L, result.get(1).getId());
+        verify(productRepository, never()).findByNameContaining(any());
+    }
+
+    @Test
+    void fuzzySearchProductsByName_IndexNotReady_FallsBackToExactSearch() {
+        // Arrange
+        when(trigramSearchIndex.isReady()).thenReturn(false);
+        when(productRepository.findByNameContaining("Test")).thenReturn(Arrays.asList(testSnapshot));
+
+        // Act
+        List<ProductSnapshot> result = productService.fuzzySearchProductsByName("Test");
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(trigramSearchIndex, never()).search(any());
+    }
+
+    @Test
+    void fuzzySearchProductsByName_EmptyName_ThrowsValidationException() {
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> productService.fuzzySearchProductsByName(" "));
+
+        verify(trigramSearchIndex, never()).search(any());
+    }
+
     //  TESTS DE STOCK
 
     @Test
@@ -238,6 +454,34 @@ class ProductServiceTest {
         verify(productRepository).save(any(Product.class));
     }
 
+    @Test
+    void reduceStock_ValidOperation_PublishesStockReducedEvent() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProductWithId));
+        when(productRepository.save(any(Product.class))).thenReturn(testProductWithId);
+
+        // Act
+        productService.reduceStock(1L, 10);
+
+        // Assert
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof StockReducedEvent reduced
+                && reduced.getProductId() == 1L
+                && reduced.getQuantity() == 10
+                && reduced.getRemainingStock() == 40));
+    }
+
+    @Test
+    void reduceStock_InsufficientStock_DoesNotPublishEvent() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProductWithId));
+
+        // Act
+        assertThrows(StockOperationException.class, () -> productService.reduceStock(1L, 100));
+
+        // Assert
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
     @Test
     void reduceStock_InsufficientStock_ThrowsStockOperationException() {
         // Arrange
@@ -267,6 +511,80 @@ class ProductServiceTest {
         verify(productRepository, never()).save(any());
     }
 
+    @Test
+    void reduceStock_InsufficientStock_ExceptionHasNoStackTrace() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProductWithId));
+
+        // Act
+        StockOperationException exception = assertThrows(StockOperationException.class,
+                () -> productService.reduceStock(1L, 100));
+
+        // Assert - fallo esperado: ni la excepción ni su causa capturan la traza
+        assertEquals(0, exception.getStackTrace().length);
+        assertEquals(0, exception.getCause().getStackTrace().length);
+    }
+
+    @Test
+    void tryReduceStock_ValidOperation_ReturnsSuccessAndPublishesEvent() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProductWithId));
+        when(productRepository.save(any(Product.class))).thenReturn(testProductWithId);
+
+        // Act
+        StockOperationResult result = productService.tryReduceStock(1L, 10);
+
+        // Assert
+        assertTrue(result.isSuccess());
+        assertEquals(40, result.getStock());
+        verify(eventPublisher).publishEvent(any(StockReducedEvent.class));
+    }
+
+    @Test
+    void tryReduceStock_InsufficientStock_ReturnsResultWithoutSaving() {
+        // Arrange
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProductWithId));
+
+        // Act
+        StockOperationResult result = productService.tryReduceStock(1L, 100);
+
+        // Assert
+        assertEquals(StockOperationResult.Status.INSUFFICIENT_STOCK, result.getStatus());
+        assertEquals(50, result.getStock());
+        assertEquals(50, testProductWithId.getStock());
+        assertEquals("Stock insuficiente para el producto con ID 1. Stock disponible: 50, cantidad solicitada: 100",
+                result.message());
+        verify(productRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void tryReduceStock_ProductNotFound_ReturnsNotFound() {
+        // Arrange
+        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // Act
+        StockOperationResult result = productService.tryReduceStock(999L, 5);
+
+        // Assert
+        assertEquals(StockOperationResult.Status.NOT_FOUND, result.getStatus());
+        assertNull(result.getStock());
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void tryIncreaseStock_ProductNotFound_ReturnsNotFound() {
+        // Arrange
+        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // Act
+        StockOperationResult result = productService.tryIncreaseStock(999L, 10);
+
+        // Assert
+        assertFalse(result.isSuccess());
+        assertEquals("Producto con ID 999 no encontrado", result.message());
+    }
+
     @Test
     void increaseStock_ValidOperation_ReturnsTrue() {
         // Arrange
@@ -341,18 +659,51 @@ class ProductServiceTest {
         // Arrange
         BigDecimal minPrice = new BigDecimal("50.00");
         BigDecimal maxPrice = new BigDecimal("150.00");
-        List<Product> products = Arrays.asList(testProductWithId);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
 
         when(productRepository.findByPriceRange(minPrice, maxPrice)).thenReturn(products);
 
         // Act
-        List<Product> result = productService.getProductsByPriceRange(minPrice, maxPrice);
+        List<ProductSnapshot> result = productService.getProductsByPriceRange(minPrice, maxPrice);
 
         // Assert
         assertEquals(1, result.size());
         verify(productRepository).findByPriceRange(minPrice, maxPrice);
     }
 
+    @Test
+    void getProductsByPriceRange_IndexReady_UsesPriceIndex() {
+        // Arrange
+        BigDecimal minPrice = new BigDecimal("50.00");
+        BigDecimal maxPrice = new BigDecimal("150.00");
+        when(priceIndex.isReady()).thenReturn(true);
+        when(priceIndex.range(minPrice, maxPrice, true)).thenReturn(new long[]{1L});
+        when(productRepository.findSnapshotsByIdIn(anyList())).thenReturn(Arrays.asList(testSnapshot));
+
+        // Act
+        List<ProductSnapshot> result = productService.getProductsByPriceRange(minPrice, maxPrice, true);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findByPriceRange(any(), any());
+        verify(productRepository, never()).findAvailableByPriceRange(any(), any());
+    }
+
+    @Test
+    void getProductsByPriceRange_AvailableOnlyWithoutIndex_UsesAvailableQuery() {
+        // Arrange
+        BigDecimal minPrice = new BigDecimal("50.00");
+        BigDecimal maxPrice = new BigDecimal("150.00");
+        when(productRepository.findAvailableByPriceRange(minPrice, maxPrice)).thenReturn(Arrays.asList(testSnapshot));
+
+        // Act
+        List<ProductSnapshot> result = productService.getProductsByPriceRange(minPrice, maxPrice, true);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(productRepository).findAvailableByPriceRange(minPrice, maxPrice);
+    }
+
     @Test
     void getProductsByPriceRange_InvalidRange_ThrowsValidationException() {
         // Arrange
@@ -390,11 +741,11 @@ class ProductServiceTest {
     @Test
     void getLowStockProducts_ValidThreshold_ReturnsProducts() {
         // Arrange
-        List<Product> products = Arrays.asList(testProductWithId);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
         when(productRepository.findLowStockProducts(10)).thenReturn(products);
 
         // Act
-        List<Product> result = productService.getLowStockProducts(10);
+        List<ProductSnapshot> result = productService.getLowStockProducts(10);
 
         // Assert
         assertEquals(1, result.size());
@@ -404,11 +755,11 @@ class ProductServiceTest {
     @Test
     void getLowStockProducts_NullThreshold_UsesDefaultValue() {
         // Arrange
-        List<Product> products = Arrays.asList(testProductWithId);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
         when(productRepository.findLowStockProducts(10)).thenReturn(products);
 
         // Act
-        List<Product> result = productService.getLowStockProducts(null);
+        List<ProductSnapshot> result = productService.getLowStockProducts(null);
 
         // Assert
         assertEquals(1, result.size());
@@ -418,17 +769,191 @@ class ProductServiceTest {
     @Test
     void getLowStockProducts_NegativeThreshold_UsesDefaultValue() {
         // Arrange
-        List<Product> products = Arrays.asList(testProductWithId);
+        List<ProductSnapshot> products = Arrays.asList(testSnapshot);
         when(productRepository.findLowStockProducts(10)).thenReturn(products);
 
         // Act
-        List<Product> result = productService.getLowStockProducts(-5);
+        List<ProductSnapshot> result = productService.getLowStockProducts(-5);
 
         // Assert
         assertEquals(1, result.size());
         verify(productRepository).findLowStockProducts(10); // Default value
     }
 
+    @Test
+    void getLowStockProducts_MonitorReady_UsesMonitor() {
+        // Arrange
+        when(lowStockMonitor.isReady()).thenReturn(true);
+        when(lowStockMonitor.below(5)).thenReturn(new long[]{1L});
+        when(productRepository.findSnapshotsByIdIn(anyList())).thenReturn(Arrays.asList(testSnapshot));
+
+        // Act
+        List<ProductSnapshot> result = productService.getLowStockProducts(5);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findLowStockProducts(any());
+    }
+
+    // TESTS DE TOP-N
+
+    @Test
+    void getCheapestProducts_IndexReady_UsesPriceIndexWithLimit() {
+        // Arrange
+        when(priceIndex.isReady()).thenReturn(true);
+        when(priceIndex.range(0L, 5000L, true, 3)).thenReturn(new long[]{1L});
+        when(productRepository.findSnapshotsByIdIn(anyList())).thenReturn(Arrays.asList(testSnapshot));
+
+        // Act
+        List<ProductSnapshot> result = productService.getCheapestProducts(null, new BigDecimal("50.00"), true, 3);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findCheapest(any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void getCheapestProducts_IndexNotReady_UsesLimitQuery() {
+        // Arrange
+        when(productRepository.findCheapest(BigDecimal.ZERO, new BigDecimal("99999999.99"), false, PageRequest.of(0, 10)))
+                .thenReturn(Arrays.asList(testSnapshot));
+
+        // Act
+        List<ProductSnapshot> result = productService.getCheapestProducts(null, null, false, 10);
+
+        // Assert
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void getMostStockedProducts_UsesLimitQuery() {
+        // Arrange
+        BigDecimal minPrice = new BigDecimal("10.00");
+        BigDecimal maxPrice = new BigDecimal("100.00");
+        when(productRepository.findMostStocked(minPrice, maxPrice, true, PageRequest.of(0, 5)))
+                .thenReturn(Arrays.asList(testSnapshot));
+
+        // Act
+        List<ProductSnapshot> result = productService.getMostStockedProducts(minPrice, maxPrice, true, 5);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findAllSnapshots();
+    }
+
+    @Test
+    void getRecentlyUpdatedProducts_InvalidLimit_ThrowsValidationException() {
+        assertThrows(ProductValidationException.class,
+                () -> productService.getRecentlyUpdatedProducts(null, null, false, 0));
+        assertThrows(ProductValidationException.class,
+                () -> productService.getRecentlyUpdatedProducts(null, null, false, 1000));
+        assertThrows(ProductValidationException.class,
+                () -> productService.getRecentlyUpdatedProducts(new BigDecimal("20"), new BigDecimal("10"), false, 5));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    // TESTS DE LECTURAS CON ?fields=
+
+    @Test
+    void readsWithFields_InvalidArguments_ThrowSameValidationAsListing() {
+        // Arrange
+        ProductFields fields = ProductFields.parse("price");
+
+        // Act & Assert
+        assertThrows(ProductValidationException.class,
+                () -> productService.getRecentlyUpdatedProducts(null, null, false, 0, fields));
+        assertThrows(ProductValidationException.class,
+                () -> productService.getCheapestProducts(new BigDecimal("20"), new BigDecimal("10"), false, 5, fields));
+        assertThrows(ProductValidationException.class,
+                () -> productService.fuzzySearchProductsByName(" ", fields));
+        assertThrows(ProductValidationException.class,
+                () -> productService.getProductsByPriceRange(null, BigDecimal.TEN, false, fields));
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void searchProductsByName_WithFieldsCached_LoadsRequestedColumnsInCachedOrder() {
+        // Arrange
+        ProductFields fields = ProductFields.parse("price");
+        when(searchResultCache.lookup(SearchMode.EXACT, "Test")).thenReturn(new long[]{2L, 1L});
+        when(productRepository.findFieldsByIdIn(fields, List.of(2L, 1L)))
+                .thenReturn(Arrays.asList(row(1L, "99.99"), row(2L, "10.00")));
+
+        // Act
+        List<Map<String, Object>> result = productService.searchProductsByName("Test", fields);
+
+        // Assert
+        assertEquals(List.of(row(2L, "10.00"), row(1L, "99.99")), result);
+        verify(productRepository, never()).findByNameContaining(any());
+        verify(productRepository, never()).findSnapshotsByIdIn(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchProductsByName_WithFieldsCacheMiss_StoresResultIds() {
+        // Arrange
+        ProductFields fields = ProductFields.parse("price");
+        when(searchResultCache.getVersion()).thenReturn(7L);
+        when(productRepository.findFields(eq(fields), any(Specification.class), any(Sort.class), eq(0), anyInt()))
+                .thenReturn(Arrays.asList(row(1L, "99.99")));
+
+        // Act
+        List<Map<String, Object>> result = productService.searchProductsByName("Test", fields);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(searchResultCache).store(SearchMode.EXACT, "Test", 7L, new long[]{1L});
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getCheapestProducts_WithFieldsIndexNotReady_PushesLimitToQuery() {
+        // Arrange
+        ProductFields fields = ProductFields.parse("name,price");
+        when(productRepository.findFields(eq(fields), any(Specification.class), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(Arrays.asList(row(1L, "99.99")));
+
+        // Act
+        List<Map<String, Object>> result = productService.getCheapestProducts(null, null, true, 5, fields);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findCheapest(any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void getLowStockProducts_WithFieldsMonitorReady_UsesMonitor() {
+        // Arrange
+        ProductFields fields = ProductFields.parse("stock");
+        when(lowStockMonitor.isReady()).thenReturn(true);
+        when(lowStockMonitor.below(5)).thenReturn(new long[]{1L});
+        when(productRepository.findFieldsByIdIn(fields, List.of(1L))).thenReturn(Arrays.asList(row(1L, "99.99")));
+
+        // Act
+        List<Map<String, Object>> result = productService.getLowStockProducts(5, fields);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findLowStockProducts(any());
+    }
+
+    @Test
+    void getProductById_WithFields_ReturnsRow() {
+        // Arrange
+        ProductFields fields = ProductFields.parse("price");
+        when(productRepository.findFieldsByIdIn(fields, List.of(1L))).thenReturn(Arrays.asList(row(1L, "99.99")));
+
+        // Act
+        Optional<Map<String, Object>> result = productService.getProductById(1L, fields);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(new BigDecimal("99.99"), result.get().get("price"));
+        verify(productRepository, never()).findById(any());
+    }
+
     // TESTS DE ESTADÍSTICAS
 
     @Test
@@ -457,6 +982,24 @@ class ProductServiceTest {
         verify(productRepository).countAvailableProducts();
     }
 
+    @Test
+    void getStats_CountersReady_ServedFromMemory() {
+        // Arrange
+        when(catalogCounters.isReady()).thenReturn(true);
+        when(catalogCounters.getTotal()).thenReturn(7L);
+        when(catalogCounters.getAvailable()).thenReturn(4L);
+
+        // Act
+        Long total = productService.getTotalProducts();
+        Long available = productService.getAvailableProductsCount();
+
+        // Assert
+        assertEquals(7L, total);
+        assertEquals(4L, available);
+        verify(productRepository, never()).countAllProducts();
+        verify(productRepository, never()).countAvailableProducts();
+    }
+
     //  TESTS DE VALIDACIONES ADICIONALES
 
     @Test
@@ -539,4 +1082,11 @@ class ProductServiceTest {
 
         verify(productRepository, never()).hasEnoughStock(any(), any());
     }
-}
\ No newline at end of file
+
+    private static Map<String, Object> row(Long id, String price) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("price", new BigDecimal(price));
+        return row;
+    }
+}